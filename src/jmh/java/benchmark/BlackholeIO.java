@@ -0,0 +1,35 @@
+package benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+import runtime.ProgramIO;
+
+/**
+ * Program I/O for benchmarks: reads 0 and f, output is consumed by a {@link Blackhole}
+ */
+public final class BlackholeIO implements ProgramIO {
+    private final Blackhole blackhole;
+
+    public BlackholeIO(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public int readInt() {
+        return 0;
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return false;
+    }
+
+    @Override
+    public void writeInt(int value) {
+        blackhole.consume(value);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        blackhole.consume(value);
+    }
+}
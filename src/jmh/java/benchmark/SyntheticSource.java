@@ -0,0 +1,40 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a syntactically valid Shortsy program of roughly the requested size,
+ * used as input by the benchmarks
+ */
+public final class SyntheticSource {
+    private static final String[] STATEMENTS = {
+            "    i> counter%d = 2;\n",
+            "    # bump the counter and print it\n",
+            "    counter%d = counter%<d + 1;\n",
+            "    if (counter%d == 3) do {\n        out(counter%<d);\n    }\n    el {\n        out(f);\n    }\n",
+            "    whl (counter%d == 2) do {\n        out(3);\n    }\n",
+    };
+
+    private SyntheticSource() {
+    }
+
+    public static Path write(long targetBytes) throws IOException {
+        Path file = Files.createTempFile("shortsy-bench-", ".txt");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            writer.write("go\n{\n");
+            long written = 4;
+            for (int i = 0; written < targetBytes; i++) {
+                String line = String.format(STATEMENTS[i % STATEMENTS.length], i / STATEMENTS.length);
+                writer.write(line);
+                written += line.length();
+            }
+            writer.write("}\n");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,76 @@
+package code.generation;
+
+import ast.Program;
+import benchmark.BlackholeIO;
+import exceptions.SemanticException;
+import exceptions.SyntaticException;
+import interpreter.Interpreter;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import semantic.analysis.SemanticAnalyzer;
+import syntatic.analysis.Parser;
+import vm.RegisterCompiler;
+import vm.RegisterProgram;
+import vm.VirtualMachine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a loop-heavy program, a counted loop calling a small function, with each execution engine
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionBenchmark {
+    static final String LOOP = "go {\n"
+            + "    func step(i> x, i> k) go { i> y = x * 31 + k; } ret y / 7\n"
+            + "    i> k = 0;\n"
+            + "    i> h = 1;\n"
+            + "    whl (k == 1000000) == f do {\n"
+            + "        h = step(h, k);\n"
+            + "        k = k + 1;\n"
+            + "    }\n"
+            + "    out(h);\n"
+            + "}\n";
+
+    private Program program;
+    private CompiledProgram compiled;
+    private RegisterProgram registerCode;
+
+    @Setup
+    public void setUp() throws SyntaticException, SemanticException {
+        program = new Parser(new Scanner(SourceFile.of(LOOP))).parseProgram();
+        new SemanticAnalyzer().analyze(program);
+        compiled = new BytecodeCompiler().compile(program);
+        registerCode = new RegisterCompiler().compile(program);
+    }
+
+    @Benchmark
+    public void interpreter(Blackhole blackhole) {
+        new Interpreter(program, new BlackholeIO(blackhole)).run();
+    }
+
+    @Benchmark
+    public void registerVm(Blackhole blackhole) {
+        new VirtualMachine(new BlackholeIO(blackhole)).run(registerCode);
+    }
+
+    @Benchmark
+    public void bytecode(Blackhole blackhole) {
+        compiled.run(new BlackholeIO(blackhole));
+    }
+}
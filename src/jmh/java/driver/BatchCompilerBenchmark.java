@@ -0,0 +1,71 @@
+package driver;
+
+import benchmark.SyntheticSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles a batch of generated files with pools of growing parallelism, from scratch or
+ * loading every result from a warm {@link CompilationCache}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchCompilerBenchmark {
+    @Param({"200"})
+    public int fileCount;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private List<Path> files;
+    private ForkJoinPool pool;
+    private CompilationCache cache;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++)
+            files.add(SyntheticSource.write(16 * 1024));
+        pool = new ForkJoinPool(threads);
+        cache = new CompilationCache(Files.createTempDirectory("shortsy-cache-"), CompilationCache.DEFAULT_MAX_BYTES);
+        new BatchCompiler(pool, cache).compile(files);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BatchResult compile() {
+        return new BatchCompiler(pool).compile(files);
+    }
+
+    @Benchmark
+    public BatchResult compileCached() {
+        return new BatchCompiler(pool, cache).compile(files);
+    }
+}
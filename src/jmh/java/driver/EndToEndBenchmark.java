@@ -0,0 +1,92 @@
+package driver;
+
+import benchmark.BlackholeIO;
+import generator.ProgramGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import vm.VirtualMachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles a source and runs it on the register machine, as {@link Compilation} and
+ * {@link VirtualMachine} do for a client: the test programs of src/test/resources one after the other,
+ * the ones failing to compile or never ending only compiled, and programs of growing size written by
+ * {@link ProgramGenerator}, with functions, nested blocks and loops
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EndToEndBenchmark {
+    static final Path TEST_PROGRAMS = Path.of("src/test/resources");
+    // its loop condition stays true
+    static final Set<String> NEVER_ENDING = Set.of("correct-while-loop.txt");
+
+    @State(Scope.Benchmark)
+    public static class TestPrograms {
+        List<byte[]> sources = new ArrayList<>();
+        List<Boolean> runnable = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void readSources() throws IOException {
+            for (Path file : BatchMain.sources(TEST_PROGRAMS)) {
+                sources.add(Files.readAllBytes(file));
+                runnable.add(!NEVER_ENDING.contains(file.getFileName().toString()));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Generated {
+        @Param({"1024", "1048576", "104857600"})
+        public long sourceBytes;
+
+        byte[] source;
+
+        @Setup(Level.Trial)
+        public void readSource() throws IOException {
+            Path file = Files.createTempFile("shortsy-bench-", ".txt");
+            file.toFile().deleteOnExit();
+            new ProgramGenerator(1, sourceBytes, 8, 16, 64, 0.1).generate(file);
+            source = Files.readAllBytes(file);
+        }
+    }
+
+    @Benchmark
+    public void testPrograms(TestPrograms programs, Blackhole blackhole) {
+        for (int i = 0; i < programs.sources.size(); i++)
+            compileAndRun(programs.sources.get(i), programs.runnable.get(i), blackhole);
+    }
+
+    @Benchmark
+    public void generated(Generated program, Blackhole blackhole) {
+        compileAndRun(program.source, true, blackhole);
+    }
+
+    private static void compileAndRun(byte[] source, boolean run, Blackhole blackhole) {
+        CompilationResult result = Compilation.compile(source);
+        if (result.succeeded() && run)
+            new VirtualMachine(new BlackholeIO(blackhole)).run(result.program());
+        else
+            blackhole.consume(result);
+    }
+}
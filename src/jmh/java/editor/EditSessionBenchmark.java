@@ -0,0 +1,73 @@
+package editor;
+
+import ast.Program;
+import benchmark.SyntheticSource;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntatic.analysis.Diagnostic;
+import syntatic.analysis.Parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keystroke in the middle of a generated source, a literal changed back and forth:
+ * kept up to date by an {@link EditSession} versus lexed and parsed again whole
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EditSessionBenchmark {
+    @Param({"1048576"})
+    public long sourceBytes;
+
+    private EditSession session;
+    private StringBuilder text;
+    private int offset;
+    private boolean toggled;
+
+    @Setup(Level.Trial)
+    public void writeSource() throws IOException {
+        String source = Files.readString(SyntheticSource.write(sourceBytes), StandardCharsets.ISO_8859_1);
+        session = new EditSession(source);
+        text = new StringBuilder(source);
+        offset = source.indexOf("= 2;", source.length() / 2) + 2;
+    }
+
+    @Benchmark
+    public Program incremental() {
+        session.edit(offset, 1, nextDigit());
+        return session.program();
+    }
+
+    @Benchmark
+    public Program fromScratch() {
+        text.replace(offset, offset + 1, nextDigit());
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        return new Parser(new Scanner(SourceFile.of(text)).scanAll()).parseProgram(diagnostics);
+    }
+
+    private String nextDigit() {
+        toggled = !toggled;
+        return toggled ? "3" : "2";
+    }
+}
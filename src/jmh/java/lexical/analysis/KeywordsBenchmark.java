@@ -0,0 +1,77 @@
+package lexical.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword classification of identifier-heavy input: the former linear scan over the
+ * KEYWORDS array against the {@link Keywords} perfect hash, and the resulting scanner throughput
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KeywordsBenchmark {
+    private static final TokenKind[] LINEAR_KEYWORDS = {TokenKind.DECLARE, TokenKind.DECLARE_VAR_TYPE, TokenKind.DO, TokenKind.ELSE, TokenKind.FUNC, TokenKind.IF, TokenKind.RETURN, TokenKind.SAY, TokenKind.THEN, TokenKind.WHILE, TokenKind.VOID, TokenKind.INTEGER, TokenKind.BOOLEAN, TokenKind.INPUT, TokenKind.OUTPUT, TokenKind.ASSIGNMENT_OPERATOR, TokenKind.COMMA, TokenKind.SEMICOLON, TokenKind.LEFT_PARAM, TokenKind.RIGHT_PARAM, TokenKind.LEFT_BRACE, TokenKind.RIGHT_BRACE, TokenKind.INTEGER_LITERAL, TokenKind.BOOLEAN_LITERAL};
+    private static final String[] WORDS = {"counter", "input", "isNumber", "starter", "whl", "total", "if", "index", "out", "value", "func", "go"};
+
+    private String[] spellings;
+    private char[][] buffers;
+    private String identifierHeavySource;
+
+    @Setup(Level.Trial)
+    public void createSpellings() {
+        Random random = new Random(42);
+        spellings = new String[4096];
+        buffers = new char[spellings.length][];
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < spellings.length; i++) {
+            spellings[i] = WORDS[random.nextInt(WORDS.length)] + (random.nextInt(4) == 0 ? "" : Integer.toString(i));
+            buffers[i] = spellings[i].toCharArray();
+            source.append(spellings[i]).append(i % 8 == 7 ? '\n' : ' ');
+        }
+        identifierHeavySource = source.toString();
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int keywords = 0;
+        for (String spelling : spellings) {
+            for (TokenKind kind : LINEAR_KEYWORDS) {
+                if (spelling.equals(kind.getSpelling())) {
+                    keywords++;
+                    break;
+                }
+            }
+        }
+        return keywords;
+    }
+
+    @Benchmark
+    public int perfectHash() {
+        int keywords = 0;
+        for (char[] buffer : buffers)
+            if (Keywords.kind(buffer, 0, buffer.length) != TokenKind.IDENTIFIER)
+                keywords++;
+        return keywords;
+    }
+
+    @Benchmark
+    public int scanIdentifierHeavySource() {
+        return new Scanner(SourceFile.of(identifierHeavySource)).scanAll().size();
+    }
+}
@@ -0,0 +1,62 @@
+package lexical.analysis;
+
+import benchmark.SyntheticSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens per second of the branch-based {@link Scanner} and the table-driven {@link TableScanner},
+ * reported through the "tokens" counter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LexerEngineBenchmark {
+    @Param({"1048576"})
+    public long sizeBytes;
+
+    private byte[] source;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Tokens {
+        public long tokens;
+    }
+
+    @Setup(Level.Trial)
+    public void readSource() throws IOException {
+        source = Files.readAllBytes(SyntheticSource.write(sizeBytes));
+    }
+
+    @Benchmark
+    public TokenStream scanner(Tokens counter) {
+        TokenStream tokens = new Scanner(SourceFile.of(source)).scanAll();
+        counter.tokens += tokens.size();
+        return tokens;
+    }
+
+    @Benchmark
+    public TokenStream tableScanner(Tokens counter) {
+        TokenStream tokens = new TableScanner(SourceFile.of(source)).scanAll();
+        counter.tokens += tokens.size();
+        return tokens;
+    }
+}
@@ -0,0 +1,62 @@
+package lexical.analysis;
+
+import benchmark.SyntheticSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential {@link Scanner#scanAll()} against {@link ParallelScanner} with a growing number of threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelScannerBenchmark {
+    @Param({"67108864"})
+    public long sizeBytes;
+
+    @Param({"1", "4", "32"})
+    public int threads;
+
+    private byte[] source;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void readSource() throws IOException {
+        source = Files.readAllBytes(SyntheticSource.write(sizeBytes));
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int sequential() {
+        return new Scanner(SourceFile.of(source)).scanAll().size();
+    }
+
+    @Benchmark
+    public int parallel() {
+        return new ParallelScanner(SourceFile.of(source), pool, ParallelScanner.DEFAULT_CHUNK_SIZE).scanAll().size();
+    }
+}
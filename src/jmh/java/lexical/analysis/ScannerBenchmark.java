@@ -0,0 +1,55 @@
+package lexical.analysis;
+
+import benchmark.SyntheticSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexes an in-memory source, one {@link Token} per token versus the packed {@link TokenStream},
+ * from 1 KiB to 100 MiB: run with -bm thrpt for sources lexed per second
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScannerBenchmark {
+    @Param({"1024", "1048576", "104857600"})
+    public long sizeBytes;
+
+    private byte[] source;
+
+    @Setup(Level.Trial)
+    public void readSource() throws IOException {
+        source = Files.readAllBytes(SyntheticSource.write(sizeBytes));
+    }
+
+    @Benchmark
+    public int scanTokens() {
+        Scanner scanner = new Scanner(SourceFile.of(source));
+        int tokens = 0;
+        while (scanner.scan().kind != TokenKind.EOT)
+            tokens++;
+        return tokens;
+    }
+
+    @Benchmark
+    public int scanAllPacked() {
+        return new Scanner(SourceFile.of(source)).scanAll().size();
+    }
+}
@@ -0,0 +1,82 @@
+package lexical.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skipping the separators of a heavily indented and commented source: character by character
+ * through {@link SourceFile#getSource()}, and in bulk with the scalar and vector skippers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SeparatorSkipperBenchmark {
+    @Param({"24", "400"})
+    public int commentLength;
+
+    private byte[] source;
+
+    @Setup(Level.Trial)
+    public void createSource() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 8192; i++) {
+            text.append("                # generated comment line ").append("-".repeat(commentLength)).append(i).append('\n');
+            text.append("                        \t\r\n");
+            text.append("                x;\n");
+        }
+        source = text.toString().getBytes(StandardCharsets.ISO_8859_1);
+        System.out.println("\nBest skipper: " + SeparatorSkipper.BEST.name());
+    }
+
+    @Benchmark
+    public int perCharacter() {
+        SourceFile sourceFile = SourceFile.of(source);
+        int tokens = 0;
+        boolean inComment = false;
+        for (char c = sourceFile.getSource(); c != SourceFile.EOT; c = sourceFile.getSource()) {
+            if (inComment)
+                inComment = c != SourceFile.EOL;
+            else if (c == '#')
+                inComment = true;
+            else if (!SeparatorSkipper.isBlank(c))
+                tokens++;
+        }
+        return tokens;
+    }
+
+    @Benchmark
+    public int bulkScalar() {
+        return skipAll(SeparatorSkipper.SCALAR);
+    }
+
+    @Benchmark
+    public int bulkBest() {
+        return skipAll(SeparatorSkipper.BEST);
+    }
+
+    private int skipAll(SeparatorSkipper skipper) {
+        int tokens = 0;
+        int i = skipper.skip(source, 0, source.length, false);
+        while (i < source.length) {
+            tokens++;
+            i = skipper.skip(source, i + 1, source.length, false);
+        }
+        return tokens;
+    }
+}
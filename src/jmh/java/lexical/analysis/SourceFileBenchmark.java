@@ -0,0 +1,64 @@
+package lexical.analysis;
+
+import benchmark.SyntheticSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link SourceMode} backends, both for raw character reads
+ * and for a full {@link Scanner} pass over the file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SourceFileBenchmark {
+    @Param({"STREAM", "BUFFERED", "MAPPED"})
+    public SourceMode mode;
+
+    @Param({"1048576"})
+    public long sizeBytes;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeSource() throws IOException {
+        file = SyntheticSource.write(sizeBytes);
+        System.out.printf("%n%s: %d bytes%n", file, Files.size(file));
+    }
+
+    @Benchmark
+    public long readAllCharacters() {
+        SourceFile sourceFile = new SourceFile(file.toString(), mode);
+        long checksum = 0;
+        for (char c = sourceFile.getSource(); c != SourceFile.EOT; c = sourceFile.getSource())
+            checksum += c;
+        return checksum;
+    }
+
+    @Benchmark
+    public int scanAllTokens() {
+        Scanner scanner = new Scanner(new SourceFile(file.toString(), mode));
+        int tokens = 0;
+        while (scanner.scan().kind != TokenKind.EOT)
+            tokens++;
+        return tokens;
+    }
+}
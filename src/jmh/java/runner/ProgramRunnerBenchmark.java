@@ -0,0 +1,70 @@
+package runner;
+
+import ast.Program;
+import benchmark.BlackholeIO;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import semantic.analysis.SemanticAnalyzer;
+import syntatic.analysis.Parser;
+import vm.Budget;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a thousand small programs at once, one of them looping until its budget runs out, and reports
+ * how long the small ones take to all end: the runaway takes its turns with them instead of holding a thread
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramRunnerBenchmark {
+    private static final int PROGRAMS = 1000;
+    private static final Budget BUDGET = new Budget(50_000_000, 1000, 1 << 20);
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Program runaway;
+    private Program small;
+
+    @Setup
+    public void setUp() throws Exception {
+        runaway = analyze("go { i> compare = 0; whl (compare == 2) == f do { compare = 1; } }");
+        small = analyze("go { func sum(i> n) go { i> s = 0; if (n == 0) == f do { s = n + sum(n - 1); } } ret s out(sum(100)); }");
+    }
+
+    @Benchmark
+    public void smallProgramsBesideARunaway(Blackhole blackhole) throws Exception {
+        try (ProgramRunner runner = new ProgramRunner(Executors.newFixedThreadPool(threads), ProgramRunner.DEFAULT_SLICE)) {
+            CompletableFuture<RunResult> loop = runner.submit(runaway, new BlackholeIO(blackhole), BUDGET);
+            CompletableFuture<?>[] results = new CompletableFuture<?>[PROGRAMS];
+            for (int i = 0; i < PROGRAMS; i++)
+                results[i] = runner.submit(small, new BlackholeIO(blackhole), BUDGET);
+            CompletableFuture.allOf(results).join();
+            loop.cancel(false);
+        }
+    }
+
+    private static Program analyze(String source) throws Exception {
+        Program program = new Parser(new Scanner(SourceFile.of(source))).parseProgram();
+        new SemanticAnalyzer().analyze(program);
+        return program;
+    }
+}
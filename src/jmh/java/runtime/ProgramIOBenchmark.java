@@ -0,0 +1,82 @@
+package runtime;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads a million values through {@link BufferedIO}, against what ConsoleIO did before it:
+ * println to an autoflushing PrintStream and Integer.parseInt of each line of a BufferedReader.
+ * Output goes nowhere, so only the formatting and buffering are measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramIOBenchmark {
+    private static final int VALUES = 1_000_000;
+    private static final OutputStream NOWHERE = OutputStream.nullOutputStream();
+
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < VALUES; i++)
+            text.append(i * 7919 - 3_000_000).append('\n');
+        input = text.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Benchmark
+    public void writePrintStream() {
+        PrintStream out = new PrintStream(NOWHERE, true);
+        for (int i = 0; i < VALUES; i++)
+            out.println(i * 7919 - 3_000_000);
+        out.flush();
+    }
+
+    @Benchmark
+    public void writeBuffered() {
+        BufferedIO io = new BufferedIO(InputStream.nullInputStream(), NOWHERE, FlushPolicy.WHEN_FULL);
+        for (int i = 0; i < VALUES; i++)
+            io.writeInt(i * 7919 - 3_000_000);
+        io.flush();
+    }
+
+    @Benchmark
+    public int readLines() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(input)));
+        int sum = 0;
+        for (int i = 0; i < VALUES; i++)
+            sum += Integer.parseInt(in.readLine().trim());
+        return sum;
+    }
+
+    @Benchmark
+    public int readBuffered() {
+        BufferedIO io = new BufferedIO(new ByteArrayInputStream(input), NOWHERE, FlushPolicy.WHEN_FULL);
+        int sum = 0;
+        for (int i = 0; i < VALUES; i++)
+            sum += io.readInt();
+        return sum;
+    }
+}
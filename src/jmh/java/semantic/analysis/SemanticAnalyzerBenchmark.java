@@ -0,0 +1,60 @@
+package semantic.analysis;
+
+import ast.Program;
+import exceptions.SemanticException;
+import exceptions.SyntaticException;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntatic.analysis.Parser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyzes a program of many global declarations, each function redeclaring a share of them
+ * as locals, so lookups go through shadowed names
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SemanticAnalyzerBenchmark {
+    @Param({"50000"})
+    public int declarations;
+
+    private Program program;
+
+    @Setup(Level.Trial)
+    public void parse() throws SyntaticException {
+        StringBuilder source = new StringBuilder("go { ");
+        for (int i = 0; i < declarations; i++)
+            source.append("i> v").append(i).append(" = ").append(i).append("; ");
+        for (int i = 0; i < declarations; i += 100) {
+            source.append("func f").append(i).append("(i> v").append(i).append(") go { i> v").append(i + 1)
+                    .append(" = v").append(i).append(" + 1; } ret v").append(i + 1).append(' ');
+        }
+        for (int i = 0; i < declarations; i++)
+            source.append("v").append(i).append(" = v").append(i).append(" + 1; ");
+        source.append("}");
+        program = new Parser(new Scanner(SourceFile.of(source.toString()))).parseProgram();
+    }
+
+    @Benchmark
+    public Program analyze() throws SemanticException {
+        new SemanticAnalyzer().analyze(program);
+        return program;
+    }
+}
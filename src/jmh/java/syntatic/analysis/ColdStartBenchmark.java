@@ -0,0 +1,48 @@
+package syntatic.analysis;
+
+import exceptions.SemanticException;
+import exceptions.SyntaticException;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import semantic.analysis.SemanticAnalyzer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First compilation in a fresh JVM, as in a one-shot command line run, of a program with an error:
+ * reported nowhere versus logged through log4j, which is then loaded and configured on the spot
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+    private static final String SOURCE = "go { i> x = 1; out(x + ; }";
+
+    @Benchmark
+    public String noSink() {
+        return compile(DiagnosticSink.NONE);
+    }
+
+    @Benchmark
+    public String log4jSink() {
+        return compile(DiagnosticSink.log4j(ColdStartBenchmark.class));
+    }
+
+    private static String compile(DiagnosticSink sink) {
+        try {
+            new SemanticAnalyzer(sink).analyze(new Parser(new Scanner(SourceFile.of(SOURCE)), sink).parseProgram());
+            return null;
+        } catch (SyntaticException | SemanticException e) {
+            return e.getMessage();
+        }
+    }
+}
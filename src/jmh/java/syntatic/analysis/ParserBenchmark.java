@@ -0,0 +1,57 @@
+package syntatic.analysis;
+
+import ast.Program;
+import benchmark.SyntheticSource;
+import exceptions.SyntaticException;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import lexical.analysis.TokenStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to parse a generated program, from tokens lexed beforehand or lexing as it goes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParserBenchmark {
+    @Param({"1024", "1048576", "104857600"})
+    public long sourceBytes;
+
+    private byte[] source;
+    private TokenStream tokens;
+
+    @Setup(Level.Trial)
+    public void readSource() throws IOException {
+        source = Files.readAllBytes(SyntheticSource.write(sourceBytes));
+        tokens = new Scanner(SourceFile.of(source)).scanAll();
+    }
+
+    @Benchmark
+    public Program parsePacked() throws SyntaticException {
+        return new Parser(tokens).parseProgram();
+    }
+
+    @Benchmark
+    public Program parseScanning() throws SyntaticException {
+        return new Parser(new Scanner(SourceFile.of(source))).parseProgram();
+    }
+}
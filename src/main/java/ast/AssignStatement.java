@@ -0,0 +1,17 @@
+
+package ast;
+
+
+public class AssignStatement
+	extends Statement
+{
+	public Identifier identifier;
+	public Expression exp;
+	
+	
+	public AssignStatement( Identifier identifier, Expression exp )
+	{
+		this.identifier = identifier;
+		this.exp = exp;
+	}
+}
\ No newline at end of file
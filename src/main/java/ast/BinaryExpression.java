@@ -16,4 +16,11 @@ public class BinaryExpression
 		this.operand1 = operand1;
 		this.operand2 = operand2;
 	}
+	
+	
+	@Override
+	public Expression operand( int i )
+	{
+		return i == 0 ? operand1 : i == 1 ? operand2 : null;
+	}
 }
\ No newline at end of file
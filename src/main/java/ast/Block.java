@@ -6,12 +6,12 @@ public class Block
 	extends AST
 {
 	public Declarations declarations;
-	public ExpressionStatement expressionStatement;
+	public Statements statements;
 	
 	
-	public Block( Declarations decs, ExpressionStatement stats )
+	public Block( Declarations decs, Statements stats )
 	{
 		this.declarations = decs;
-		this.expressionStatement = stats;
+		this.statements = stats;
 	}
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ public class BoolLiteralExpression
 	extends Expression
 {
 	public BooleanLiteral literal;
+	/** Value of the literal, set by the semantic analysis */
+	public boolean value;
 
 
 	public BoolLiteralExpression(BooleanLiteral literal )
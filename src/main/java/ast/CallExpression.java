@@ -14,4 +14,11 @@ public class CallExpression
 		this.name = name;
 		this.listofExpressions = listofExpressions;
 	}
+	
+	
+	@Override
+	public Expression operand( int i )
+	{
+		return i < listofExpressions.exp.size() ? listofExpressions.exp.get( i ) : null;
+	}
 }
\ No newline at end of file
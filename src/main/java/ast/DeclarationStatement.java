@@ -0,0 +1,18 @@
+
+package ast;
+
+
+/**
+ * Variable or function declared among the statements of a block, after its declaration part
+ */
+public class DeclarationStatement
+	extends Statement
+{
+	public Declaration declaration;
+	
+	
+	public DeclarationStatement( Declaration declaration )
+	{
+		this.declaration = declaration;
+	}
+}
\ No newline at end of file
@@ -2,11 +2,12 @@
 package ast;
 
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
 
 
 public class Declarations
 	extends AST
 {
-	public Vector<Declaration> dec = new Vector<>();
+	public List<Declaration> dec = new ArrayList<>();
 }
\ No newline at end of file
@@ -5,4 +5,16 @@ package ast;
 public abstract class Expression
 	extends AST
 {
+	/** Type of the value, set by the semantic analysis, null for a procedure call */
+	public Type type;
+	
+	
+	/**
+	 * @return operand i in evaluation order, null past the last one, for the walks that keep
+	 * their own stacks instead of recursing
+	 */
+	public Expression operand( int i )
+	{
+		return null;
+	}
 }
\ No newline at end of file
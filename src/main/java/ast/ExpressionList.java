@@ -2,11 +2,12 @@
 package ast;
 
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
 
 
 public class ExpressionList
 	extends AST
 {
-	public Vector<Expression> exp = new Vector<>();
+	public List<Expression> exp = new ArrayList<>();
 }
\ No newline at end of file
@@ -9,6 +9,13 @@ public class FunctionDeclaration
 	public Declarations parameters;
 	public Block block;
 	public Expression expression;
+	/** Type of the ret expression, null for a procedure, set by the semantic analysis */
+	public Type returnType;
+	/** Position in {@link Program#functions}, set by the semantic analysis */
+	public int index;
+	/** Sizes of the frame of a call, parameters first, set by the semantic analysis */
+	public int intFrameSize;
+	public int booleanFrameSize;
 	
 	
 	public FunctionDeclaration( Identifier name, Declarations parameters,
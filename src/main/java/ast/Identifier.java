@@ -5,6 +5,16 @@ package ast;
 public class Identifier
 	extends Terminal
 {
+	/** Declaration the identifier resolves to, set by the semantic analysis */
+	public Declaration declaration;
+	/** Static type of a variable, set by the semantic analysis */
+	public Type type;
+	/** Frame slot of a variable, counted among the variables of its type */
+	public int slot = -1;
+	/** Whether the slot is in the global frame rather than in the frame of a call */
+	public boolean global;
+	
+	
 	public Identifier( String spelling )
 	{
 		this.spelling = spelling;
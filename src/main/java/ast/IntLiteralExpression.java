@@ -6,6 +6,8 @@ public class IntLiteralExpression
 	extends Expression
 {
 	public IntegerLiteral literal;
+	/** Value of the literal, set by the semantic analysis */
+	public int value;
 	
 	
 	public IntLiteralExpression(IntegerLiteral literal )
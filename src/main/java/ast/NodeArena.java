@@ -0,0 +1,477 @@
+
+package ast;
+
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Compact form of a {@link Program}: nodes live in parallel int arrays indexed by node id,
+ * four operands per node whose meaning is given by its {@link NodeKind}. Child lists are
+ * ranges of a shared child array, spellings are interned once into a name table.
+ * A tree of n nodes costs about 20n bytes plus its distinct spellings
+ */
+public final class NodeArena
+{
+	private static final NodeKind[] KINDS = NodeKind.values();
+	private static final int OPERANDS = 4;
+	private static final Type[] TYPES = Type.values();
+
+	private byte[] kinds = new byte[64];
+	private int[] operands = new int[64 * OPERANDS];
+	private int size;
+
+	private int[] children = new int[64];
+	private int childrenSize;
+
+	private String[] names = new String[16];
+	private int nameCount;
+	private Map<String, Integer> nameIds = new HashMap<>();
+
+	private int root = -1;
+
+	// expressions being flattened or rebuilt, innermost last, with the operand each one is at,
+	// and the nodes or expressions done whose parent is not
+	private Expression[] pending = new Expression[16];
+	private int[] pendingNodes = new int[16];
+	private int[] steps = new int[16];
+	private int depth;
+	private int[] doneNodes = new int[16];
+	private Expression[] doneExpressions = new Expression[16];
+	private int doneCount;
+
+
+	private NodeArena()
+	{
+	}
+
+
+	/**
+	 * Flattens the tree into a new arena
+	 */
+	public static NodeArena of( Program program )
+	{
+		NodeArena arena = new NodeArena();
+		arena.root = arena.add( NodeKind.PROGRAM, arena.block( program.block ), -1, -1, -1 );
+		arena.trim();
+		return arena;
+	}
+
+
+	public int root()
+	{
+		return root;
+	}
+
+
+	public int size()
+	{
+		return size;
+	}
+
+
+	public NodeKind kind( int node )
+	{
+		return KINDS[kinds[node]];
+	}
+
+
+	/**
+	 * @return operand index (0 to 3) of the node, see {@link NodeKind} for their meaning
+	 */
+	public int operand( int node, int index )
+	{
+		return operands[node * OPERANDS + index];
+	}
+
+
+	public int childCount( int list )
+	{
+		return operands[list * OPERANDS + 1];
+	}
+
+
+	public int child( int list, int i )
+	{
+		return children[operands[list * OPERANDS] + i];
+	}
+
+
+	/**
+	 * @return the spelling an identifier, operator or literal operand refers to
+	 */
+	public String name( int id )
+	{
+		return names[id];
+	}
+
+
+	public int nameCount()
+	{
+		return nameCount;
+	}
+
+
+	/**
+	 * @return the bytes held by the arena arrays, excluding the name strings
+	 */
+	public long footprintBytes()
+	{
+		return kinds.length + 4L * operands.length + 4L * children.length + 8L * names.length;
+	}
+
+
+	/**
+	 * Rebuilds the object tree
+	 */
+	public Program toProgram()
+	{
+		return new Program( toBlock( operand( root, 0 ) ) );
+	}
+
+
+	private int add( NodeKind kind, int a, int b, int c, int d )
+	{
+		if( size == kinds.length ) {
+			kinds = Arrays.copyOf( kinds, size * 2 );
+			operands = Arrays.copyOf( operands, size * 2 * OPERANDS );
+		}
+		kinds[size] = (byte) kind.ordinal();
+		int base = size * OPERANDS;
+		operands[base] = a;
+		operands[base + 1] = b;
+		operands[base + 2] = c;
+		operands[base + 3] = d;
+		return size++;
+	}
+
+
+	private int list( NodeKind kind, int[] ids, int count )
+	{
+		if( childrenSize + count > children.length )
+			children = Arrays.copyOf( children, Math.max( childrenSize + count, children.length * 2 ) );
+		System.arraycopy( ids, 0, children, childrenSize, count );
+		int node = add( kind, childrenSize, count, -1, -1 );
+		childrenSize += count;
+		return node;
+	}
+
+
+	private int name( String spelling )
+	{
+		Integer id = nameIds.get( spelling );
+		if( id == null ) {
+			if( nameCount == names.length )
+				names = Arrays.copyOf( names, nameCount * 2 );
+			names[nameCount] = spelling;
+			id = nameCount++;
+			nameIds.put( spelling, id );
+		}
+		return id;
+	}
+
+
+	private void trim()
+	{
+		kinds = Arrays.copyOf( kinds, size );
+		operands = Arrays.copyOf( operands, size * OPERANDS );
+		children = Arrays.copyOf( children, childrenSize );
+		names = Arrays.copyOf( names, nameCount );
+		nameIds = null;
+	}
+
+
+	private int block( Block block )
+	{
+		int[] decs = new int[block.declarations.dec.size()];
+		for( int i = 0; i < decs.length; i++ )
+			decs[i] = declaration( block.declarations.dec.get( i ) );
+		int declarations = list( NodeKind.DECLARATIONS, decs, decs.length );
+		return add( NodeKind.BLOCK, declarations, statements( block.statements ), -1, -1 );
+	}
+
+
+	private int statements( Statements statements )
+	{
+		int[] stats = new int[statements.stat.size()];
+		for( int i = 0; i < stats.length; i++ )
+			stats[i] = statement( statements.stat.get( i ) );
+		return list( NodeKind.STATEMENTS, stats, stats.length );
+	}
+
+
+	private int declaration( Declaration declaration )
+	{
+		if( declaration instanceof VariableDeclaration var )
+			return add( NodeKind.VARIABLE_DECLARATION, var.type == null ? -1 : var.type.ordinal(),
+			            name( var.identifier.spelling ), expressionOrNone( var.initializer ), -1 );
+
+		FunctionDeclaration func = (FunctionDeclaration) declaration;
+		int[] params = new int[func.parameters.dec.size()];
+		for( int i = 0; i < params.length; i++ )
+			params[i] = declaration( func.parameters.dec.get( i ) );
+		int parameters = list( NodeKind.DECLARATIONS, params, params.length );
+		return add( NodeKind.FUNCTION_DECLARATION, name( func.name.spelling ), parameters,
+		            block( func.block ), expressionOrNone( func.expression ) );
+	}
+
+
+	private int statement( Statement statement )
+	{
+		if( statement instanceof AssignStatement assign )
+			return add( NodeKind.ASSIGN_STATEMENT, name( assign.identifier.spelling ), expression( assign.exp ), -1, -1 );
+		if( statement instanceof DeclarationStatement dec )
+			return add( NodeKind.DECLARATION_STATEMENT, declaration( dec.declaration ), -1, -1, -1 );
+		if( statement instanceof ExpressionStatement exp )
+			return add( NodeKind.EXPRESSION_STATEMENT, expression( exp.exp ), -1, -1, -1 );
+		if( statement instanceof IfStatement ifs )
+			return add( NodeKind.IF_STATEMENT, expression( ifs.exp ), statements( ifs.ifStatement ),
+			            ifs.elseStatement == null ? -1 : statements( ifs.elseStatement ), -1 );
+		if( statement instanceof WhileStatement whl )
+			return add( NodeKind.WHILE_STATEMENT, expression( whl.exp ), statements( whl.stats ), -1, -1 );
+		if( statement instanceof InStatement in )
+			return add( NodeKind.IN_STATEMENT, expressionOrNone( in.exp ), -1, -1, -1 );
+		OutStatement out = (OutStatement) statement;
+		return add( NodeKind.OUT_STATEMENT, expression( out.exp ), -1, -1, -1 );
+	}
+
+
+	private int expressionOrNone( Expression expression )
+	{
+		return expression == null ? -1 : expression( expression );
+	}
+
+
+	/**
+	 * Adds the operands of an expression before the expression, over explicit stacks so that the
+	 * Java stack stays flat however deep the nesting
+	 */
+	private int expression( Expression root )
+	{
+		depth = 0;
+		pushPending( root, -1 );
+		while( depth > 0 ) {
+			int frame = depth - 1;
+			Expression expression = pending[frame];
+			int step = steps[frame]++;
+			// an operator is named before its operands
+			if( step == 0 && expression instanceof BinaryExpression binary )
+				pendingNodes[frame] = name( binary.operator.spelling );
+			else if( step == 0 && expression instanceof UnaryExpression unary )
+				pendingNodes[frame] = name( unary.operator.spelling );
+			Expression operand = expression.operand( step );
+			if( operand != null ) {
+				pushPending( operand, -1 );
+				continue;
+			}
+			pending[frame] = null;
+			depth--;
+			pushNode( expressionNode( expression, pendingNodes[frame] ) );
+		}
+		return doneNodes[--doneCount];
+	}
+
+
+	/**
+	 * @param operator name of the operator of a binary or unary expression
+	 * @return the node of an expression whose operands are on top of the done nodes, which it replaces
+	 */
+	private int expressionNode( Expression expression, int operator )
+	{
+		if( expression instanceof BinaryExpression ) {
+			int right = doneNodes[--doneCount];
+			int left = doneNodes[--doneCount];
+			return add( NodeKind.BINARY_EXPRESSION, operator, left, right, -1 );
+		}
+		if( expression instanceof UnaryExpression )
+			return add( NodeKind.UNARY_EXPRESSION, operator, doneNodes[--doneCount], -1, -1 );
+		if( expression instanceof CallExpression call ) {
+			int count = call.listofExpressions.exp.size();
+			doneCount -= count;
+			int[] args = Arrays.copyOfRange( doneNodes, doneCount, doneCount + count );
+			return add( NodeKind.CALL_EXPRESSION, name( call.name.spelling ),
+			            list( NodeKind.EXPRESSION_LIST, args, args.length ), -1, -1 );
+		}
+		if( expression instanceof VarExpression var )
+			return add( NodeKind.VAR_EXPRESSION, name( var.name.spelling ), -1, -1, -1 );
+		if( expression instanceof IntLiteralExpression literal )
+			return add( NodeKind.INT_LITERAL_EXPRESSION, name( literal.literal.spelling ), -1, -1, -1 );
+		BoolLiteralExpression literal = (BoolLiteralExpression) expression;
+		return add( NodeKind.BOOL_LITERAL_EXPRESSION, name( literal.literal.spelling ), -1, -1, -1 );
+	}
+
+
+	private Block toBlock( int node )
+	{
+		Declarations declarations = new Declarations();
+		int list = operand( node, 0 );
+		for( int i = 0; i < childCount( list ); i++ )
+			declarations.dec.add( toDeclaration( child( list, i ) ) );
+		return new Block( declarations, toStatements( operand( node, 1 ) ) );
+	}
+
+
+	private Statements toStatements( int list )
+	{
+		Statements statements = new Statements();
+		for( int i = 0; i < childCount( list ); i++ )
+			statements.stat.add( toStatement( child( list, i ) ) );
+		return statements;
+	}
+
+
+	private Declaration toDeclaration( int node )
+	{
+		if( kind( node ) == NodeKind.VARIABLE_DECLARATION )
+			return new VariableDeclaration( operand( node, 0 ) < 0 ? null : TYPES[operand( node, 0 )],
+			                                new Identifier( name( operand( node, 1 ) ) ), toExpressionOrNull( operand( node, 2 ) ) );
+
+		Declarations parameters = new Declarations();
+		int list = operand( node, 1 );
+		for( int i = 0; i < childCount( list ); i++ )
+			parameters.dec.add( toDeclaration( child( list, i ) ) );
+		return new FunctionDeclaration( new Identifier( name( operand( node, 0 ) ) ), parameters,
+		                                toBlock( operand( node, 2 ) ), toExpressionOrNull( operand( node, 3 ) ) );
+	}
+
+
+	private Statement toStatement( int node )
+	{
+		switch( kind( node ) ) {
+			case ASSIGN_STATEMENT:
+				return new AssignStatement( new Identifier( name( operand( node, 0 ) ) ), toExpression( operand( node, 1 ) ) );
+			case DECLARATION_STATEMENT:
+				return new DeclarationStatement( toDeclaration( operand( node, 0 ) ) );
+			case EXPRESSION_STATEMENT:
+				return new ExpressionStatement( toExpression( operand( node, 0 ) ) );
+			case IF_STATEMENT:
+				return new IfStatement( toExpression( operand( node, 0 ) ), toStatements( operand( node, 1 ) ),
+				                        operand( node, 2 ) < 0 ? null : toStatements( operand( node, 2 ) ) );
+			case WHILE_STATEMENT:
+				return new WhileStatement( toExpression( operand( node, 0 ) ), toStatements( operand( node, 1 ) ) );
+			case IN_STATEMENT:
+				return new InStatement( toExpressionOrNull( operand( node, 0 ) ) );
+			default:
+				return new OutStatement( toExpression( operand( node, 0 ) ) );
+		}
+	}
+
+
+	private Expression toExpressionOrNull( int node )
+	{
+		return node < 0 ? null : toExpression( node );
+	}
+
+
+	/**
+	 * Rebuilds the operands of an expression before the expression, over explicit stacks so that
+	 * the Java stack stays flat however deep the nesting
+	 */
+	private Expression toExpression( int root )
+	{
+		depth = 0;
+		pushPending( null, root );
+		while( depth > 0 ) {
+			int frame = depth - 1;
+			int node = pendingNodes[frame];
+			int operand = operandNode( node, steps[frame]++ );
+			if( operand >= 0 ) {
+				pushPending( null, operand );
+				continue;
+			}
+			depth--;
+			pushExpression( expressionOf( node ) );
+		}
+		return doneExpressions[--doneCount];
+	}
+
+
+	/**
+	 * @return the node of operand i of an expression node, -1 past the last one
+	 */
+	private int operandNode( int node, int i )
+	{
+		switch( kind( node ) ) {
+			case BINARY_EXPRESSION:
+				return i < 2 ? operand( node, i + 1 ) : -1;
+			case UNARY_EXPRESSION:
+				return i < 1 ? operand( node, 1 ) : -1;
+			case CALL_EXPRESSION:
+				return i < childCount( operand( node, 1 ) ) ? child( operand( node, 1 ), i ) : -1;
+			default:
+				return -1;
+		}
+	}
+
+
+	/**
+	 * @return the expression of a node whose operands are on top of the done expressions, which it replaces
+	 */
+	private Expression expressionOf( int node )
+	{
+		switch( kind( node ) ) {
+			case BINARY_EXPRESSION: {
+				Expression right = popExpression();
+				Expression left = popExpression();
+				return new BinaryExpression( new Operator( name( operand( node, 0 ) ) ), left, right );
+			}
+			case UNARY_EXPRESSION:
+				return new UnaryExpression( new Operator( name( operand( node, 0 ) ) ), popExpression() );
+			case CALL_EXPRESSION: {
+				ExpressionList arguments = new ExpressionList();
+				int count = childCount( operand( node, 1 ) );
+				doneCount -= count;
+				for( int i = 0; i < count; i++ ) {
+					arguments.exp.add( doneExpressions[doneCount + i] );
+					doneExpressions[doneCount + i] = null;
+				}
+				return new CallExpression( new Identifier( name( operand( node, 0 ) ) ), arguments );
+			}
+			case VAR_EXPRESSION:
+				return new VarExpression( new Identifier( name( operand( node, 0 ) ) ) );
+			case INT_LITERAL_EXPRESSION:
+				return new IntLiteralExpression( new IntegerLiteral( name( operand( node, 0 ) ) ) );
+			default:
+				return new BoolLiteralExpression( new BooleanLiteral( name( operand( node, 0 ) ) ) );
+		}
+	}
+
+
+	private void pushPending( Expression expression, int node )
+	{
+		if( depth == steps.length ) {
+			pending = Arrays.copyOf( pending, depth * 2 );
+			pendingNodes = Arrays.copyOf( pendingNodes, depth * 2 );
+			steps = Arrays.copyOf( steps, depth * 2 );
+		}
+		pending[depth] = expression;
+		pendingNodes[depth] = node;
+		steps[depth++] = 0;
+	}
+
+
+	private void pushNode( int node )
+	{
+		if( doneCount == doneNodes.length )
+			doneNodes = Arrays.copyOf( doneNodes, doneCount * 2 );
+		doneNodes[doneCount++] = node;
+	}
+
+
+	private void pushExpression( Expression expression )
+	{
+		if( doneCount == doneExpressions.length )
+			doneExpressions = Arrays.copyOf( doneExpressions, doneCount * 2 );
+		doneExpressions[doneCount++] = expression;
+	}
+
+
+	private Expression popExpression()
+	{
+		Expression expression = doneExpressions[--doneCount];
+		doneExpressions[doneCount] = null;
+		return expression;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+
+package ast;
+
+
+/**
+ * Kind of a node in a {@link NodeArena}, with the meaning of its operands
+ */
+public enum NodeKind
+{
+	/** block */
+	PROGRAM,
+	/** declarations list, statements list */
+	BLOCK,
+	/** list of declaration nodes */
+	DECLARATIONS,
+	/** list of statement nodes */
+	STATEMENTS,
+	/** list of expression nodes */
+	EXPRESSION_LIST,
+	/** type (-1 when untyped), name, initializer or -1 */
+	VARIABLE_DECLARATION,
+	/** name, parameters declarations list, block, return expression or -1 */
+	FUNCTION_DECLARATION,
+	/** name, expression */
+	ASSIGN_STATEMENT,
+	/** declaration */
+	DECLARATION_STATEMENT,
+	/** expression */
+	EXPRESSION_STATEMENT,
+	/** condition, then statements list, else statements list or -1 */
+	IF_STATEMENT,
+	/** condition, statements list */
+	WHILE_STATEMENT,
+	/** target variable expression or -1 */
+	IN_STATEMENT,
+	/** expression */
+	OUT_STATEMENT,
+	/** operator, left operand, right operand */
+	BINARY_EXPRESSION,
+	/** operator, operand */
+	UNARY_EXPRESSION,
+	/** name, arguments expression list */
+	CALL_EXPRESSION,
+	/** name */
+	VAR_EXPRESSION,
+	/** literal */
+	INT_LITERAL_EXPRESSION,
+	/** literal */
+	BOOL_LITERAL_EXPRESSION
+}
\ No newline at end of file
@@ -2,10 +2,23 @@
 package ast;
 
 
+import lexical.analysis.SourceFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
 public class Program
 	extends AST
 {
 	public Block block;
+	/** Source the program was parsed from, locating its terminals by their offsets, null if there is none */
+	public SourceFile source;
+	/** Sizes of the global frame, set by the semantic analysis */
+	public int intGlobals;
+	public int booleanGlobals;
+	/** Every function of the program, nested ones included, indexed by {@link FunctionDeclaration#index} */
+	public List<FunctionDeclaration> functions = new ArrayList<>();
 	
 	
 	public Program( Block block )
@@ -2,11 +2,12 @@
 package ast;
 
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
 
 
 public class Statements
 	extends AST
 {
-	public Vector<Statement> stat = new Vector<>();
+	public List<Statement> stat = new ArrayList<>();
 }
\ No newline at end of file
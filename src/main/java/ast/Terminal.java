@@ -6,4 +6,6 @@ public abstract class Terminal
 	extends AST
 {
 	public String spelling;
+	/** Offset of the terminal in the source of the program, -1 when it was not parsed from one */
+	public int offset = -1;
 }
\ No newline at end of file
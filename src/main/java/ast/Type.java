@@ -0,0 +1,12 @@
+
+package ast;
+
+
+/**
+ * Type of a variable, from its i> or b> declaration
+ */
+public enum Type
+{
+	INTEGER,
+	BOOLEAN
+}
\ No newline at end of file
@@ -14,4 +14,11 @@ public class UnaryExpression
 		this.operator = operator;
 		this.operand = operand;
 	}
+	
+	
+	@Override
+	public Expression operand( int i )
+	{
+		return i == 0 ? operand : null;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+
+package ast;
+
+
+public class VarExpression
+	extends Expression
+{
+	public Identifier name;
+	
+	
+	public VarExpression( Identifier name )
+	{
+		this.name = name;
+	}
+}
\ No newline at end of file
@@ -5,11 +5,21 @@ package ast;
 public class VariableDeclaration
 	extends Declaration
 {
+	public Type type;
 	public Identifier identifier;
+	public Expression initializer;
 	
 	
 	public VariableDeclaration( Identifier id )
 	{
+		this( null, id, null );
+	}
+	
+	
+	public VariableDeclaration( Type type, Identifier id, Expression initializer )
+	{
+		this.type = type;
 		this.identifier = id;
+		this.initializer = initializer;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,547 @@
+package code.generation;
+
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Expression;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.Identifier;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.Type;
+import ast.UnaryExpression;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
+import org.objectweb.asm.ClassTooLargeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import runtime.ProgramIO;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Lowers a {@link Program} decorated by {@link semantic.analysis.SemanticAnalyzer} to JVM bytecode
+ * and loads it as a hidden class, so HotSpot compiles Shortsy loops to machine code.
+ * Each run is an instance of the class holding its io, so runs of one {@link CompiledProgram} can overlap.
+ * Every func becomes a private method, variables become JVM locals of the method they belong to,
+ * except the globals used by some function which become fields. if and whl become branches.
+ * A program body too large for one JVM method is split into several, its globals all fields.
+ * Each compiled program is its own hidden class, unloaded once its {@link CompiledProgram} is unreachable
+ */
+public class BytecodeCompiler {
+    private static final String CLASS_NAME = "code/generation/ShortsyProgram";
+    private static final String IO = "runtime/ProgramIO";
+    private static final String IO_DESCRIPTOR = "L" + IO + ";";
+    // bytecode after which a split body starts a new method, below the size HotSpot declines to compile
+    private static final int CHUNK_BYTES = 4 * 1024;
+
+    private ClassWriter classWriter;
+    private MethodVisitor method;
+    // globals used from functions, kept in fields
+    private boolean[] sharedInts;
+    private boolean[] sharedBooleans;
+    private boolean generatingMain;
+    // JVM local of each slot of the method being generated
+    private int[] intLocals;
+    private int[] booleanLocals;
+    // the expressions being generated, innermost last, with the operand each one is at
+    private Expression[] pending = new Expression[16];
+    private int[] steps = new int[16];
+    private int depth;
+
+    public CompiledProgram compile(Program program) {
+        byte[] bytecode = generate(program);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytecode, true);
+            MethodHandle run = lookup.findStatic(lookup.lookupClass(), "run", MethodType.methodType(void.class, ProgramIO.class));
+            return new CompiledProgram(run);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("Generated class cannot be loaded", e);
+        }
+    }
+
+    /**
+     * @return the class file of the program, its body split into several methods if it does not fit in one
+     * @throws IllegalArgumentException if a func or a single statement of the body does not fit in a method
+     */
+    byte[] generate(Program program) {
+        try {
+            return generate(program, false);
+        } catch (MethodTooLargeException e) {
+            if (!e.getMethodName().equals("main"))
+                throw tooLarge(e);
+        } catch (ClassTooLargeException e) {
+            throw tooLarge(e);
+        }
+        try {
+            return generate(program, true);
+        } catch (MethodTooLargeException e) {
+            throw tooLarge(e);
+        } catch (ClassTooLargeException e) {
+            throw tooLarge(e);
+        }
+    }
+
+    private byte[] generate(Program program, boolean split) {
+        classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, CLASS_NAME, null, "java/lang/Object", null);
+        classWriter.visitField(ACC_PRIVATE | ACC_FINAL, "io", IO_DESCRIPTOR, null, null).visitEnd();
+        constructor();
+        run();
+
+        sharedInts = new boolean[program.intGlobals];
+        sharedBooleans = new boolean[program.booleanGlobals];
+        if (split) {
+            Arrays.fill(sharedInts, true);
+            Arrays.fill(sharedBooleans, true);
+        }
+        generatingMain = false;
+        for (FunctionDeclaration function : program.functions)
+            function(function);
+        generatingMain = true;
+        if (split)
+            main(chunks(program.block));
+        else
+            main(program);
+        for (int slot = 0; slot < sharedInts.length; slot++)
+            if (sharedInts[slot])
+                classWriter.visitField(ACC_PRIVATE, "i" + slot, "I", null, null).visitEnd();
+        for (int slot = 0; slot < sharedBooleans.length; slot++)
+            if (sharedBooleans[slot])
+                classWriter.visitField(ACC_PRIVATE, "b" + slot, "Z", null, null).visitEnd();
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private void constructor() {
+        method = classWriter.visitMethod(ACC_PRIVATE, "<init>", "(" + IO_DESCRIPTOR + ")V", null, null);
+        method.visitCode();
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitFieldInsn(PUTFIELD, CLASS_NAME, "io", IO_DESCRIPTOR);
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    /**
+     * static void run(ProgramIO io), runs main on a new instance, whose fields start at zero
+     */
+    private void run() {
+        method = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, "run", "(" + IO_DESCRIPTOR + ")V", null, null);
+        method.visitCode();
+        method.visitTypeInsn(NEW, CLASS_NAME);
+        method.visitInsn(DUP);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKESPECIAL, CLASS_NAME, "<init>", "(" + IO_DESCRIPTOR + ")V", false);
+        method.visitMethodInsn(INVOKESPECIAL, CLASS_NAME, "main", "()V", false);
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    /**
+     * void main(), the statements of the program, its globals are locals unless a function uses them
+     */
+    private void main(Program program) {
+        method = classWriter.visitMethod(ACC_PRIVATE, "main", "()V", null, null);
+        method.visitCode();
+
+        intLocals = new int[program.intGlobals];
+        booleanLocals = new int[program.booleanGlobals];
+        int local = 1;
+        for (int slot = 0; slot < intLocals.length; slot++) {
+            if (!sharedInts[slot]) {
+                intLocals[slot] = local;
+                method.visitInsn(ICONST_0);
+                method.visitVarInsn(ISTORE, local++);
+            }
+        }
+        for (int slot = 0; slot < booleanLocals.length; slot++) {
+            if (!sharedBooleans[slot]) {
+                booleanLocals[slot] = local;
+                method.visitInsn(ICONST_0);
+                method.visitVarInsn(ISTORE, local++);
+            }
+        }
+
+        block(program.block);
+        endMain();
+    }
+
+    /**
+     * void main() of a split body, calls each chunk in turn
+     */
+    private void main(int chunks) {
+        method = classWriter.visitMethod(ACC_PRIVATE, "main", "()V", null, null);
+        method.visitCode();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitMethodInsn(INVOKESPECIAL, CLASS_NAME, "main" + chunk, "()V", false);
+        }
+        endMain();
+    }
+
+    private void endMain() {
+        loadIo();
+        method.visitMethodInsn(INVOKEINTERFACE, IO, "flush", "()V", true);
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    /**
+     * Splits the body into methods main0, main1... at its declarations and statements, starting a
+     * new one once the current one has CHUNK_BYTES of bytecode. Every global is a field by then
+     * @return the number of methods
+     */
+    private int chunks(Block block) {
+        int chunks = 0;
+        method = null;
+        for (Declaration declaration : block.declarations.dec) {
+            if (declaration instanceof VariableDeclaration variable) {
+                chunks = openChunk(chunks);
+                declare(variable);
+                closeChunkIfFull();
+            }
+        }
+        for (Statement statement : block.statements.stat) {
+            chunks = openChunk(chunks);
+            statement(statement);
+            closeChunkIfFull();
+        }
+        if (method != null)
+            closeChunk();
+        return chunks;
+    }
+
+    private int openChunk(int chunks) {
+        if (method != null)
+            return chunks;
+        method = classWriter.visitMethod(ACC_PRIVATE, "main" + chunks, "()V", null, null);
+        method.visitCode();
+        return chunks + 1;
+    }
+
+    private void closeChunkIfFull() {
+        Label here = new Label();
+        method.visitLabel(here);
+        if (here.getOffset() >= CHUNK_BYTES)
+            closeChunk();
+    }
+
+    private void closeChunk() {
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        method = null;
+    }
+
+    private static IllegalArgumentException tooLarge(MethodTooLargeException e) {
+        String name = e.getMethodName();
+        String part = name.startsWith("f_") ? "func " + name.substring(2) : "A statement of the program";
+        return new IllegalArgumentException(part + " needs " + e.getCodeSize()
+                + " bytes of bytecode, more than a JVM method can hold", e);
+    }
+
+    private static IllegalArgumentException tooLarge(ClassTooLargeException e) {
+        return new IllegalArgumentException("The program needs " + e.getConstantPoolCount()
+                + " constants, more than a JVM class can hold", e);
+    }
+
+    /**
+     * Parameters take the locals after this in their order, the other slots follow and start at zero
+     */
+    private void function(FunctionDeclaration function) {
+        method = classWriter.visitMethod(ACC_PRIVATE, methodName(function), descriptor(function), null, null);
+        method.visitCode();
+
+        intLocals = new int[function.intFrameSize];
+        booleanLocals = new int[function.booleanFrameSize];
+        int local = 1;
+        for (Declaration declaration : function.parameters.dec) {
+            VariableDeclaration parameter = (VariableDeclaration) declaration;
+            int[] locals = parameter.type == Type.INTEGER ? intLocals : booleanLocals;
+            locals[parameter.identifier.slot] = local++;
+        }
+        local = initializeLocals(intLocals, countParameters(function, Type.INTEGER), local);
+        initializeLocals(booleanLocals, countParameters(function, Type.BOOLEAN), local);
+
+        block(function.block);
+        if (function.expression == null) {
+            method.visitInsn(RETURN);
+        } else {
+            push(function.expression);
+            method.visitInsn(IRETURN);
+        }
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    private int initializeLocals(int[] locals, int parameters, int local) {
+        for (int slot = parameters; slot < locals.length; slot++) {
+            locals[slot] = local;
+            method.visitInsn(ICONST_0);
+            method.visitVarInsn(ISTORE, local++);
+        }
+        return local;
+    }
+
+    private static int countParameters(FunctionDeclaration function, Type type) {
+        int count = 0;
+        for (Declaration parameter : function.parameters.dec)
+            if (((VariableDeclaration) parameter).type == type)
+                count++;
+        return count;
+    }
+
+    private static String methodName(FunctionDeclaration function) {
+        return "f_" + function.name.spelling;
+    }
+
+    private static String descriptor(FunctionDeclaration function) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Declaration parameter : function.parameters.dec)
+            descriptor.append(((VariableDeclaration) parameter).type == Type.INTEGER ? 'I' : 'Z');
+        descriptor.append(')');
+        if (function.returnType == null)
+            descriptor.append('V');
+        else
+            descriptor.append(function.returnType == Type.INTEGER ? 'I' : 'Z');
+        return descriptor.toString();
+    }
+
+    private void block(Block block) {
+        for (Declaration declaration : block.declarations.dec)
+            if (declaration instanceof VariableDeclaration variable)
+                declare(variable);
+        statements(block.statements);
+    }
+
+    private void statements(Statements statements) {
+        for (Statement statement : statements.stat)
+            statement(statement);
+    }
+
+    private void statement(Statement statement) {
+        if (statement instanceof AssignStatement assign) {
+            push(assign.exp);
+            store(assign.identifier);
+        } else if (statement instanceof IfStatement ifStatement) {
+            Label elsePart = new Label();
+            jumpIfFalse(ifStatement.exp, elsePart);
+            statements(ifStatement.ifStatement);
+            if (ifStatement.elseStatement == null) {
+                method.visitLabel(elsePart);
+            } else {
+                Label end = new Label();
+                method.visitJumpInsn(GOTO, end);
+                method.visitLabel(elsePart);
+                statements(ifStatement.elseStatement);
+                method.visitLabel(end);
+            }
+        } else if (statement instanceof WhileStatement whileStatement) {
+            Label condition = new Label();
+            Label end = new Label();
+            method.visitLabel(condition);
+            jumpIfFalse(whileStatement.exp, end);
+            statements(whileStatement.stats);
+            method.visitJumpInsn(GOTO, condition);
+            method.visitLabel(end);
+        } else if (statement instanceof ExpressionStatement expression) {
+            push(expression.exp);
+            if (expression.exp.type != null)
+                method.visitInsn(POP);
+        } else if (statement instanceof OutStatement out) {
+            loadIo();
+            push(out.exp);
+            if (out.exp.type == Type.INTEGER)
+                method.visitMethodInsn(INVOKEINTERFACE, IO, "writeInt", "(I)V", true);
+            else
+                method.visitMethodInsn(INVOKEINTERFACE, IO, "writeBoolean", "(Z)V", true);
+        } else if (statement instanceof DeclarationStatement declaration) {
+            if (declaration.declaration instanceof VariableDeclaration variable)
+                declare(variable);
+        } else {
+            read((InStatement) statement);
+        }
+    }
+
+    private void declare(VariableDeclaration variable) {
+        if (variable.initializer == null)
+            method.visitInsn(ICONST_0);
+        else
+            push(variable.initializer);
+        store(variable.identifier);
+    }
+
+    private void read(InStatement in) {
+        loadIo();
+        if (in.exp == null) {
+            method.visitMethodInsn(INVOKEINTERFACE, IO, "readInt", "()I", true);
+            method.visitInsn(POP);
+        } else if (in.exp.type == Type.INTEGER) {
+            method.visitMethodInsn(INVOKEINTERFACE, IO, "readInt", "()I", true);
+            store(((VarExpression) in.exp).name);
+        } else {
+            method.visitMethodInsn(INVOKEINTERFACE, IO, "readBoolean", "()Z", true);
+            store(((VarExpression) in.exp).name);
+        }
+    }
+
+    /**
+     * Branches to target when the condition is false, == compares without materializing a boolean
+     */
+    private void jumpIfFalse(Expression condition, Label target) {
+        if (condition instanceof BinaryExpression binary) {
+            push(binary.operand1);
+            push(binary.operand2);
+            method.visitJumpInsn(IF_ICMPNE, target);
+        } else {
+            push(condition);
+            method.visitJumpInsn(IFEQ, target);
+        }
+    }
+
+    /**
+     * Pushes the value of the expression, nothing for a procedure call. Operands are generated before
+     * the operator applied to them over explicit stacks, so that the Java stack stays flat however
+     * deep the nesting
+     */
+    private void push(Expression root) {
+        depth = 0;
+        pushPending(root);
+        while (depth > 0) {
+            int frame = depth - 1;
+            Expression expression = pending[frame];
+            if (steps[frame] == 0 && expression instanceof CallExpression)
+                // the receiver goes under the arguments
+                method.visitVarInsn(ALOAD, 0);
+            Expression operand = expression.operand(steps[frame]++);
+            if (operand != null) {
+                pushPending(operand);
+                continue;
+            }
+            operator(expression);
+            pending[frame] = null;
+            depth--;
+        }
+    }
+
+    /**
+     * Generates an expression whose operands are on the operand stack
+     */
+    private void operator(Expression expression) {
+        if (expression instanceof VarExpression variable) {
+            load(variable.name);
+        } else if (expression instanceof IntLiteralExpression literal) {
+            pushInt(literal.value);
+        } else if (expression instanceof BoolLiteralExpression literal) {
+            method.visitInsn(literal.value ? ICONST_1 : ICONST_0);
+        } else if (expression instanceof BinaryExpression binary) {
+            switch (binary.operator.spelling) {
+                case "+" -> method.visitInsn(IADD);
+                case "-" -> method.visitInsn(ISUB);
+                case "*" -> method.visitInsn(IMUL);
+                case "/" -> method.visitInsn(IDIV);
+                default -> {
+                    Label notEqual = new Label();
+                    Label end = new Label();
+                    method.visitJumpInsn(IF_ICMPNE, notEqual);
+                    method.visitInsn(ICONST_1);
+                    method.visitJumpInsn(GOTO, end);
+                    method.visitLabel(notEqual);
+                    method.visitInsn(ICONST_0);
+                    method.visitLabel(end);
+                }
+            }
+        } else if (expression instanceof UnaryExpression unary) {
+            if (unary.operator.spelling.equals("-"))
+                method.visitInsn(INEG);
+        } else {
+            FunctionDeclaration function = (FunctionDeclaration) ((CallExpression) expression).name.declaration;
+            method.visitMethodInsn(INVOKESPECIAL, CLASS_NAME, methodName(function), descriptor(function), false);
+        }
+    }
+
+    private void pushPending(Expression expression) {
+        if (depth == pending.length) {
+            pending = Arrays.copyOf(pending, depth * 2);
+            steps = Arrays.copyOf(steps, depth * 2);
+        }
+        pending[depth] = expression;
+        steps[depth++] = 0;
+    }
+
+    private void pushInt(int value) {
+        if (value >= -1 && value <= 5)
+            method.visitInsn(ICONST_0 + value);
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+            method.visitIntInsn(BIPUSH, value);
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+            method.visitIntInsn(SIPUSH, value);
+        else
+            method.visitLdcInsn(value);
+    }
+
+    private void loadIo() {
+        method.visitVarInsn(ALOAD, 0);
+        method.visitFieldInsn(GETFIELD, CLASS_NAME, "io", IO_DESCRIPTOR);
+    }
+
+    private void load(Identifier identifier) {
+        boolean integer = identifier.type == Type.INTEGER;
+        if (isShared(identifier, integer)) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitFieldInsn(GETFIELD, CLASS_NAME, (integer ? "i" : "b") + identifier.slot, integer ? "I" : "Z");
+        } else {
+            method.visitVarInsn(ILOAD, (integer ? intLocals : booleanLocals)[identifier.slot]);
+        }
+    }
+
+    /**
+     * Stores the value on top of the operand stack
+     */
+    private void store(Identifier identifier) {
+        boolean integer = identifier.type == Type.INTEGER;
+        if (isShared(identifier, integer)) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitInsn(SWAP);
+            method.visitFieldInsn(PUTFIELD, CLASS_NAME, (integer ? "i" : "b") + identifier.slot, integer ? "I" : "Z");
+        } else {
+            method.visitVarInsn(ISTORE, (integer ? intLocals : booleanLocals)[identifier.slot]);
+        }
+    }
+
+    /**
+     * Functions are generated before main, so by then every global they use is marked shared
+     */
+    private boolean isShared(Identifier identifier, boolean integer) {
+        if (!identifier.global)
+            return false;
+        boolean[] shared = integer ? sharedInts : sharedBooleans;
+        if (!generatingMain)
+            shared[identifier.slot] = true;
+        return shared[identifier.slot];
+    }
+}
@@ -0,0 +1,28 @@
+package code.generation;
+
+import runtime.ProgramIO;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A program loaded by {@link BytecodeCompiler}, it can be run any number of times, also from several
+ * threads at once since each run keeps its globals to itself
+ */
+public final class CompiledProgram {
+    private final MethodHandle run;
+
+    CompiledProgram(MethodHandle run) {
+        this.run = run;
+    }
+
+    public void run(ProgramIO io) {
+        try {
+            run.invokeExact(io);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // generated code declares no checked exception
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package code.optimization;
+
+import ast.AssignStatement;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Expression;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Finds the variables that always hold the same literal where they are read. Positions number
+ * statements and expressions in tree order, which is execution order along one statement list.
+ * A variable is constant when:
+ * <ul>
+ * <li>it is not a parameter, and is defined by a literal initializer with no other write, or by one
+ * assignment of a literal in the statement list of its declaration, with no initializer</li>
+ * <li>its reads in the function declaring it, or outside functions for a global, all come after the definition</li>
+ * <li>if a function reads it, it is declared at the top level of the program and defined before
+ * the program makes its first call, so no function runs before it is set</li>
+ * </ul>
+ */
+class ConstantFinder {
+    private static final class Usage {
+        FunctionDeclaration owner;
+        Statements list;
+        boolean topLevel;
+        boolean parameter;
+        int declared;
+        int writes;
+        Expression assigned;
+        int assignedAt;
+        int firstOwnerRead = Integer.MAX_VALUE;
+        boolean readElsewhere;
+    }
+
+    private final Map<VariableDeclaration, Expression> constants;
+    private final Map<VariableDeclaration, Usage> usages = new IdentityHashMap<>();
+    private int position;
+    private int firstMainCall = Integer.MAX_VALUE;
+
+    // the expressions being numbered, innermost last, with the operand each one is at
+    private Expression[] pending = new Expression[16];
+    private int[] steps = new int[16];
+    private int depth;
+
+    /**
+     * @param constants the constants known so far, the new ones are added to it
+     */
+    ConstantFinder(Map<VariableDeclaration, Expression> constants) {
+        this.constants = constants;
+    }
+
+    /**
+     * @return whether a new constant was found
+     */
+    boolean find(Program program) {
+        block(program.block, null, true);
+
+        boolean found = false;
+        for (Map.Entry<VariableDeclaration, Usage> entry : usages.entrySet()) {
+            VariableDeclaration variable = entry.getKey();
+            Usage usage = entry.getValue();
+            if (usage.parameter || constants.containsKey(variable))
+                continue;
+
+            Expression value;
+            int definedAt;
+            if (variable.initializer != null && usage.writes == 0 && isLiteral(variable.initializer)) {
+                value = variable.initializer;
+                definedAt = usage.declared;
+            } else if (variable.initializer == null && usage.writes == 1 && usage.assigned != null) {
+                value = usage.assigned;
+                definedAt = usage.assignedAt;
+            } else {
+                continue;
+            }
+            if (usage.firstOwnerRead < definedAt)
+                continue;
+            if (usage.readElsewhere && (!usage.topLevel || usage.owner != null || definedAt > firstMainCall))
+                continue;
+            constants.put(variable, value);
+            found = true;
+        }
+        return found;
+    }
+
+    private void block(Block block, FunctionDeclaration owner, boolean topLevel) {
+        for (Declaration declaration : block.declarations.dec)
+            declaration(declaration, block.statements, owner, topLevel);
+        statements(block.statements, owner, topLevel);
+    }
+
+    private void declaration(Declaration declaration, Statements list, FunctionDeclaration owner, boolean topLevel) {
+        position++;
+        if (declaration instanceof VariableDeclaration variable) {
+            if (variable.initializer != null)
+                expression(variable.initializer, owner);
+            Usage usage = usage(variable);
+            usage.owner = owner;
+            usage.list = list;
+            usage.topLevel = topLevel;
+            usage.declared = position;
+            return;
+        }
+        FunctionDeclaration function = (FunctionDeclaration) declaration;
+        for (Declaration parameter : function.parameters.dec) {
+            Usage usage = usage((VariableDeclaration) parameter);
+            usage.owner = function;
+            usage.parameter = true;
+        }
+        block(function.block, function, false);
+        if (function.expression != null)
+            expression(function.expression, function);
+    }
+
+    private void statements(Statements statements, FunctionDeclaration owner, boolean topLevel) {
+        for (Statement statement : statements.stat)
+            statement(statement, statements, owner, topLevel);
+    }
+
+    private void statement(Statement statement, Statements list, FunctionDeclaration owner, boolean topLevel) {
+        position++;
+        if (statement instanceof AssignStatement assign) {
+            expression(assign.exp, owner);
+            Usage usage = usage((VariableDeclaration) assign.identifier.declaration);
+            usage.writes++;
+            if (usage.list == list && isLiteral(assign.exp)) {
+                usage.assigned = assign.exp;
+                usage.assignedAt = position;
+            }
+        } else if (statement instanceof DeclarationStatement declaration) {
+            declaration(declaration.declaration, list, owner, topLevel);
+        } else if (statement instanceof IfStatement ifStatement) {
+            expression(ifStatement.exp, owner);
+            statements(ifStatement.ifStatement, owner, false);
+            if (ifStatement.elseStatement != null)
+                statements(ifStatement.elseStatement, owner, false);
+        } else if (statement instanceof WhileStatement whileStatement) {
+            expression(whileStatement.exp, owner);
+            statements(whileStatement.stats, owner, false);
+        } else if (statement instanceof InStatement in) {
+            if (in.exp != null)
+                usage((VariableDeclaration) ((VarExpression) in.exp).name.declaration).writes++;
+        } else if (statement instanceof ExpressionStatement expression) {
+            expression(expression.exp, owner);
+        } else {
+            expression(((OutStatement) statement).exp, owner);
+        }
+    }
+
+    /**
+     * Numbers the expression and its operands in tree order over explicit stacks, so that the
+     * Java stack stays flat however deep the nesting
+     */
+    private void expression(Expression root, FunctionDeclaration owner) {
+        depth = 0;
+        push(root);
+        while (depth > 0) {
+            int top = depth - 1;
+            Expression expression = pending[top];
+            int step = steps[top]++;
+            if (step == 0) {
+                position++;
+                if (expression instanceof VarExpression variable) {
+                    Usage usage = usage((VariableDeclaration) variable.name.declaration);
+                    if (usage.owner == owner)
+                        usage.firstOwnerRead = Math.min(usage.firstOwnerRead, position);
+                    else
+                        usage.readElsewhere = true;
+                }
+            }
+            Expression operand = expression.operand(step);
+            if (operand != null) {
+                push(operand);
+                continue;
+            }
+            if (expression instanceof CallExpression && owner == null)
+                firstMainCall = Math.min(firstMainCall, position);
+            pending[top] = null;
+            depth--;
+        }
+    }
+
+    private void push(Expression expression) {
+        if (depth == pending.length) {
+            pending = Arrays.copyOf(pending, depth * 2);
+            steps = Arrays.copyOf(steps, depth * 2);
+        }
+        pending[depth] = expression;
+        steps[depth++] = 0;
+    }
+
+    private Usage usage(VariableDeclaration variable) {
+        return usages.computeIfAbsent(variable, key -> new Usage());
+    }
+
+    private static boolean isLiteral(Expression expression) {
+        return expression instanceof IntLiteralExpression || expression instanceof BoolLiteralExpression;
+    }
+}
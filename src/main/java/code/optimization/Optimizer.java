@@ -0,0 +1,241 @@
+package code.optimization;
+
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.BooleanLiteral;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Expression;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.IntegerLiteral;
+import ast.NodeArena;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.Type;
+import ast.UnaryExpression;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simplifies a {@link Program} decorated by {@link semantic.analysis.SemanticAnalyzer}, in place and
+ * keeping its decorations, so it runs on every execution engine:
+ * <ul>
+ * <li>binary and unary operators over literals are folded, except a division by zero which is left to fail at run time</li>
+ * <li>if on a literal is replaced by the branch taken, whl f is dropped</li>
+ * <li>a variable given a literal once, by its initializer or by one assignment next to its declaration,
+ * and never written again is replaced by the literal where it is read</li>
+ * </ul>
+ * Folding and propagation are repeated until no more variable turns out constant.
+ * With the system property {@value #DUMP_PROPERTY} set, the node counts before and after are printed
+ * to standard error
+ */
+public class Optimizer {
+    public static final String DUMP_PROPERTY = "shortsy.optimizer.dump";
+
+    private final PrintStream dump;
+    private final Map<VariableDeclaration, Expression> constants = new IdentityHashMap<>();
+
+    // the expressions being folded, innermost last, with the operand each one is at
+    private Expression[] pending = new Expression[16];
+    private int[] steps = new int[16];
+    private int depth;
+
+    public Optimizer() {
+        this(Boolean.getBoolean(DUMP_PROPERTY) ? System.err : null);
+    }
+
+    /**
+     * @param dump where to print the node counts, null for nowhere
+     */
+    public Optimizer(PrintStream dump) {
+        this.dump = dump;
+    }
+
+    public void optimize(Program program) {
+        int before = dump != null ? NodeArena.of(program).size() : 0;
+        constants.clear();
+        do {
+            block(program.block);
+        } while (new ConstantFinder(constants).find(program));
+        if (dump != null)
+            dump.printf("Optimizer: %d nodes before, %d after%n", before, NodeArena.of(program).size());
+    }
+
+    private void block(Block block) {
+        for (Declaration declaration : block.declarations.dec)
+            declaration(declaration);
+        statements(block.statements);
+    }
+
+    private void declaration(Declaration declaration) {
+        if (declaration instanceof VariableDeclaration variable) {
+            if (variable.initializer != null)
+                variable.initializer = fold(variable.initializer);
+        } else {
+            FunctionDeclaration function = (FunctionDeclaration) declaration;
+            block(function.block);
+            if (function.expression != null)
+                function.expression = fold(function.expression);
+        }
+    }
+
+    private void statements(Statements statements) {
+        List<Statement> folded = new ArrayList<>(statements.stat.size());
+        for (Statement statement : statements.stat)
+            statement(statement, folded);
+        statements.stat = folded;
+    }
+
+    /**
+     * Adds the statement, or what is left of it, to folded
+     */
+    private void statement(Statement statement, List<Statement> folded) {
+        if (statement instanceof IfStatement ifStatement) {
+            ifStatement.exp = fold(ifStatement.exp);
+            if (ifStatement.exp instanceof BoolLiteralExpression literal) {
+                Statements taken = literal.value ? ifStatement.ifStatement : ifStatement.elseStatement;
+                if (taken != null) {
+                    statements(taken);
+                    folded.addAll(taken.stat);
+                }
+                return;
+            }
+            statements(ifStatement.ifStatement);
+            if (ifStatement.elseStatement != null)
+                statements(ifStatement.elseStatement);
+        } else if (statement instanceof WhileStatement whileStatement) {
+            whileStatement.exp = fold(whileStatement.exp);
+            if (whileStatement.exp instanceof BoolLiteralExpression literal && !literal.value)
+                return;
+            statements(whileStatement.stats);
+        } else if (statement instanceof AssignStatement assign) {
+            assign.exp = fold(assign.exp);
+        } else if (statement instanceof DeclarationStatement declaration) {
+            declaration(declaration.declaration);
+        } else if (statement instanceof ExpressionStatement expression) {
+            expression.exp = fold(expression.exp);
+        } else if (statement instanceof OutStatement out) {
+            out.exp = fold(out.exp);
+        }
+        folded.add(statement);
+    }
+
+    /**
+     * Folds the expression, each operand before the operator applied to it, over explicit stacks
+     * so that the Java stack stays flat however deep the nesting
+     */
+    private Expression fold(Expression root) {
+        depth = 0;
+        push(root);
+        Expression folded = null;
+        while (depth > 0) {
+            int top = depth - 1;
+            Expression expression = pending[top];
+            int step = steps[top]++;
+            if (step > 0)
+                replaceOperand(expression, step - 1, folded);
+            Expression operand = expression.operand(step);
+            if (operand != null) {
+                push(operand);
+                continue;
+            }
+            folded = foldOperator(expression);
+            pending[top] = null;
+            depth--;
+        }
+        return folded;
+    }
+
+    /**
+     * @return what is left of an expression whose operands are folded
+     */
+    private Expression foldOperator(Expression expression) {
+        if (expression instanceof VarExpression variable) {
+            Expression constant = constants.get((VariableDeclaration) variable.name.declaration);
+            return constant != null ? copy(constant) : expression;
+        }
+        if (expression instanceof BinaryExpression binary)
+            return foldBinary(binary);
+        if (expression instanceof UnaryExpression unary && unary.operand instanceof IntLiteralExpression literal)
+            return unary.operator.spelling.equals("-") ? integer(-literal.value) : literal;
+        return expression;
+    }
+
+    private static void replaceOperand(Expression expression, int i, Expression operand) {
+        if (expression instanceof BinaryExpression binary) {
+            if (i == 0)
+                binary.operand1 = operand;
+            else
+                binary.operand2 = operand;
+        } else if (expression instanceof UnaryExpression unary) {
+            unary.operand = operand;
+        } else {
+            ((CallExpression) expression).listofExpressions.exp.set(i, operand);
+        }
+    }
+
+    private void push(Expression expression) {
+        if (depth == pending.length) {
+            pending = Arrays.copyOf(pending, depth * 2);
+            steps = Arrays.copyOf(steps, depth * 2);
+        }
+        pending[depth] = expression;
+        steps[depth++] = 0;
+    }
+
+    private Expression foldBinary(BinaryExpression binary) {
+        if (binary.operand1 instanceof BoolLiteralExpression left && binary.operand2 instanceof BoolLiteralExpression right)
+            return bool(left.value == right.value);
+        if (!(binary.operand1 instanceof IntLiteralExpression left) || !(binary.operand2 instanceof IntLiteralExpression right))
+            return binary;
+        switch (binary.operator.spelling) {
+            case "+":
+                return integer(left.value + right.value);
+            case "-":
+                return integer(left.value - right.value);
+            case "*":
+                return integer(left.value * right.value);
+            case "/":
+                return right.value == 0 ? binary : integer(left.value / right.value);
+            default:
+                return bool(left.value == right.value);
+        }
+    }
+
+    private static Expression copy(Expression literal) {
+        if (literal instanceof IntLiteralExpression integer)
+            return integer(integer.value);
+        return bool(((BoolLiteralExpression) literal).value);
+    }
+
+    static IntLiteralExpression integer(int value) {
+        IntLiteralExpression literal = new IntLiteralExpression(new IntegerLiteral(Integer.toString(value)));
+        literal.value = value;
+        literal.type = Type.INTEGER;
+        return literal;
+    }
+
+    static BoolLiteralExpression bool(boolean value) {
+        BoolLiteralExpression literal = new BoolLiteralExpression(new BooleanLiteral(value ? "t" : "f"));
+        literal.value = value;
+        literal.type = Type.BOOLEAN;
+        return literal;
+    }
+}
@@ -0,0 +1,98 @@
+package driver;
+
+import syntatic.analysis.Diagnostic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compiles many files on a work-stealing {@link ForkJoinPool}: the file list is split in halves
+ * down to single files, so idle workers steal the halves still pending. Each file goes through
+ * {@link Compilation} on its own, or is loaded from a {@link CompilationCache} when one is given.
+ * Results come back in the order of the files given
+ */
+public class BatchCompiler {
+    private final ForkJoinPool pool;
+    private final CompilationCache cache;
+
+    public BatchCompiler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchCompiler(ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+    /**
+     * @param cache where results are looked up before compiling and stored after, null for none
+     */
+    public BatchCompiler(ForkJoinPool pool, CompilationCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    public BatchResult compile(List<Path> files) {
+        FileResult[] results = new FileResult[files.size()];
+        long start = System.nanoTime();
+        pool.invoke(new CompileFiles(this, files, results, 0, files.size()));
+        return new BatchResult(List.of(results), System.nanoTime() - start);
+    }
+
+    /**
+     * A file that cannot be read, or that the compiler fails on, stack overflows included,
+     * fails with one diagnostic saying why, leaving the other files of the batch unaffected
+     */
+    FileResult compile(Path file) {
+        long[] nanos = new long[Phase.values().length];
+        long start = System.nanoTime();
+        byte[] source;
+        try {
+            source = Files.readAllBytes(file);
+        } catch (IOException e) {
+            Compilation.lap(nanos, Phase.READ, start);
+            return new FileResult(file, CompilationResult.failed(List.of(new Diagnostic("Cannot read the file: " + e, -1))), nanos);
+        }
+        Compilation.lap(nanos, Phase.READ, start);
+        CompilationResult result;
+        try {
+            result = cache != null ? cache.compile(source, nanos) : Compilation.compile(source, nanos);
+        } catch (RuntimeException | Error e) {
+            result = CompilationResult.failed(List.of(new Diagnostic("The compiler failed on the file: " + e, -1)));
+        }
+        return new FileResult(file, result, nanos);
+    }
+
+    private static final class CompileFiles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BatchCompiler compiler;
+        private final List<Path> files;
+        private final FileResult[] results;
+        private final int from;
+        private final int to;
+
+        CompileFiles(BatchCompiler compiler, List<Path> files, FileResult[] results, int from, int to) {
+            this.compiler = compiler;
+            this.files = files;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = compiler.compile(files.get(from));
+                return;
+            }
+            if (to == from)
+                return;
+            int middle = (from + to) >>> 1;
+            invokeAll(new CompileFiles(compiler, files, results, from, middle), new CompileFiles(compiler, files, results, middle, to));
+        }
+    }
+}
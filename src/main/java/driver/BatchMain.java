@@ -0,0 +1,67 @@
+package driver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Command line of the {@link BatchCompiler}:
+ * {@code [--timings] [--threads n] [--cache directory] file-or-directory...}, directories are searched
+ * for .txt and .shortsy files. Prints the diagnostics, and the timing table with --timings.
+ * With --cache, results are kept in a {@link CompilationCache} in the directory.
+ * Exits with 1 when a file fails to compile, 2 on bad arguments
+ */
+public final class BatchMain {
+    private BatchMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean timings = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path cacheDirectory = null;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--timings" -> timings = true;
+                case "--threads" -> threads = i + 1 < args.length ? Integer.parseInt(args[++i]) : 0;
+                case "--cache" -> cacheDirectory = i + 1 < args.length ? Path.of(args[++i]) : null;
+                default -> files.addAll(sources(Path.of(args[i])));
+            }
+        }
+        if (files.isEmpty() || threads < 1) {
+            System.err.println("Usage: BatchMain [--timings] [--threads n] [--cache directory] file-or-directory...");
+            System.exit(2);
+        }
+
+        CompilationCache cache = cacheDirectory != null ? new CompilationCache(cacheDirectory, CompilationCache.DEFAULT_MAX_BYTES) : null;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        BatchResult result;
+        try {
+            result = new BatchCompiler(pool, cache).compile(files);
+        } finally {
+            pool.shutdown();
+        }
+        result.printDiagnostics(System.out);
+        if (timings)
+            result.printTimings(System.out);
+        System.exit(result.failedCount() == 0 ? 0 : 1);
+    }
+
+    /**
+     * @return the file itself, or the Shortsy files under the directory sorted by path
+     */
+    static List<Path> sources(Path path) throws IOException {
+        if (!Files.isDirectory(path))
+            return List.of(path);
+        try (Stream<Path> walk = Files.walk(path)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(file -> file.toString().endsWith(".txt") || file.toString().endsWith(".shortsy"))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
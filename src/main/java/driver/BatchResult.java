@@ -0,0 +1,71 @@
+package driver;
+
+import lexical.analysis.Position;
+import syntatic.analysis.Diagnostic;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Results of a {@link BatchCompiler}, one per file in the order the files were given
+ */
+public final class BatchResult {
+    private final List<FileResult> files;
+    private final long wallNanos;
+
+    BatchResult(List<FileResult> files, long wallNanos) {
+        this.files = files;
+        this.wallNanos = wallNanos;
+    }
+
+    public List<FileResult> files() {
+        return files;
+    }
+
+    public long wallNanos() {
+        return wallNanos;
+    }
+
+    public int failedCount() {
+        int failed = 0;
+        for (FileResult file : files)
+            if (!file.result().succeeded())
+                failed++;
+        return failed;
+    }
+
+    /**
+     * Prints "file:line:column: message" lines, or "file: diagnostic" for a diagnostic with no position,
+     * files in order and the diagnostics of each in source order
+     */
+    public void printDiagnostics(PrintStream out) {
+        for (FileResult file : files)
+            for (Diagnostic diagnostic : file.result().diagnostics())
+                out.println(file.file() + (diagnostic.position != Position.NONE ? ":" : ": ") + diagnostic);
+    }
+
+    /**
+     * Prints a table of the microseconds each file spent in each phase, then the totals
+     */
+    public void printTimings(PrintStream out) {
+        Phase[] phases = Phase.values();
+        long[] totals = new long[phases.length];
+        out.print(String.format("%-40s", "file"));
+        for (Phase phase : phases)
+            out.print(String.format(" %10s", phase.name().toLowerCase()));
+        out.println();
+        for (FileResult file : files) {
+            out.print(String.format("%-40s", file.file()));
+            for (Phase phase : phases) {
+                out.print(String.format(" %10d", file.nanos(phase) / 1000));
+                totals[phase.ordinal()] += file.nanos(phase);
+            }
+            out.println();
+        }
+        out.print(String.format("%-40s", "total"));
+        for (long total : totals)
+            out.print(String.format(" %10d", total / 1000));
+        out.println();
+        out.println(String.format("%d files, %d failed, %d ms wall clock", files.size(), failedCount(), wallNanos / 1_000_000));
+    }
+}
@@ -0,0 +1,69 @@
+package driver;
+
+import ast.Program;
+import code.optimization.Optimizer;
+import exceptions.SemanticException;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import lexical.analysis.TokenStream;
+import semantic.analysis.SemanticAnalyzer;
+import syntatic.analysis.DiagnosticCollector;
+import syntatic.analysis.Parser;
+import vm.RegisterCompiler;
+
+/**
+ * The whole front end over one source: recovering parse, semantic analysis, optimization and
+ * compilation to register code. Keeps no state, so sources may be compiled concurrently
+ */
+public final class Compilation {
+    private Compilation() {
+    }
+
+    /**
+     * @return every syntax error of the source, else its first semantic error, else its code
+     */
+    public static CompilationResult compile(byte[] source) {
+        return compile(source, new long[Phase.values().length]);
+    }
+
+    /**
+     * @param nanos time spent in each phase, indexed by {@link Phase#ordinal()}, the phases run are added to it
+     */
+    public static CompilationResult compile(byte[] source, long[] nanos) {
+        long start = System.nanoTime();
+        TokenStream tokens = new Scanner(SourceFile.of(source)).scanAll();
+        start = lap(nanos, Phase.LEX, start);
+
+        DiagnosticCollector diagnostics = new DiagnosticCollector();
+        Program program = new Parser(tokens).parseProgram(diagnostics);
+        start = lap(nanos, Phase.PARSE, start);
+        if (!diagnostics.isEmpty())
+            return CompilationResult.failed(diagnostics.diagnostics());
+
+        boolean analyzed;
+        try {
+            new SemanticAnalyzer(diagnostics).analyze(program);
+            analyzed = true;
+        } catch (SemanticException e) {
+            analyzed = false;
+        }
+        start = lap(nanos, Phase.ANALYZE, start);
+        if (!analyzed)
+            return CompilationResult.failed(diagnostics.diagnostics());
+
+        new Optimizer().optimize(program);
+        start = lap(nanos, Phase.OPTIMIZE, start);
+        CompilationResult result = CompilationResult.succeeded(new RegisterCompiler().compile(program));
+        lap(nanos, Phase.GENERATE, start);
+        return result;
+    }
+
+    /**
+     * @return now, after adding the time since start to the phase
+     */
+    static long lap(long[] nanos, Phase phase, long start) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - start;
+        return now;
+    }
+}
@@ -0,0 +1,239 @@
+package driver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of {@link CompilationResult}s, content addressed: an entry is named by the SHA-256 of
+ * {@link #COMPILER_VERSION} and the source bytes, so a changed source or compiler never hits a stale entry.
+ * Entries are written to a temporary file then moved into place atomically, and read by mapping the file.
+ * When the entries outgrow the size limit the least recently used ones are deleted, recency being kept
+ * in the modification time of the files so that it carries over from one run to the next.
+ * Safe for concurrent use, also by several processes sharing the directory
+ */
+public class CompilationCache {
+    /**
+     * Part of every key, to change whenever the compiler produces different results
+     */
+    public static final String COMPILER_VERSION = "shortsy-3";
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    private static final int MAGIC = 0x5348_4331;
+    private static final String SUFFIX = ".result";
+
+    private final Path directory;
+    private final long maxBytes;
+    // size of each entry by file name, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * @param maxBytes total size the entries are kept under
+     */
+    public CompilationCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        List<Path> files = new ArrayList<>();
+        Map<Path, FileTime> times = new HashMap<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) list::iterator) {
+                if (!file.getFileName().toString().endsWith(SUFFIX))
+                    continue;
+                files.add(file);
+                times.put(file, Files.getLastModifiedTime(file));
+            }
+        }
+        files.sort(Comparator.comparing(times::get));
+        for (Path file : files) {
+            long size = Files.size(file);
+            entries.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+    }
+
+    /**
+     * @return the result cached for the source, or the one compiled then cached
+     */
+    public CompilationResult compile(byte[] source, long[] nanos) {
+        long start = System.nanoTime();
+        String name = key(source);
+        CompilationResult result = load(name);
+        Compilation.lap(nanos, Phase.CACHE, start);
+        if (result != null)
+            return result;
+        result = Compilation.compile(source, nanos);
+        start = System.nanoTime();
+        store(name, result);
+        Compilation.lap(nanos, Phase.CACHE, start);
+        return result;
+    }
+
+    /**
+     * @return the cached result of the source, null if there is none
+     */
+    public CompilationResult get(byte[] source) {
+        return load(key(source));
+    }
+
+    public void put(byte[] source, CompilationResult result) {
+        store(key(source), result);
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * A missing, truncated or foreign entry is a miss, and is deleted if present
+     */
+    private CompilationResult load(String name) {
+        Path file = directory.resolve(name);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            DataInputStream in = new DataInputStream(new ByteBufferInput(mapped));
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not a cache entry: " + file);
+            CompilationResult result = CompilationResult.readFrom(in);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (this) {
+                // an entry stored by another process is adopted
+                if (entries.get(name) == null) {
+                    entries.put(name, channel.size());
+                    totalBytes += channel.size();
+                }
+            }
+            return result;
+        } catch (NoSuchFileException e) {
+            forget(name);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // another process holds it, it is overwritten on the next store
+            }
+            forget(name);
+            return null;
+        }
+    }
+
+    /**
+     * A failed write, to a read-only directory or a full disk, leaves the result uncached
+     */
+    private void store(String name, CompilationResult result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            result.writeTo(out);
+            Path temporary = Files.createTempFile(directory, name, ".tmp");
+            try {
+                Files.write(temporary, bytes.toByteArray());
+                move(temporary, directory.resolve(name));
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            return;
+        }
+        synchronized (this) {
+            Long previous = entries.put(name, (long) bytes.size());
+            totalBytes += bytes.size() - (previous == null ? 0 : previous);
+            evict();
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size is under the limit,
+     * the entry just stored being the last candidate
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> oldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            } catch (IOException e) {
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            oldest.remove();
+        }
+    }
+
+    private synchronized void forget(String name) {
+        Long size = entries.remove(name);
+        if (size != null)
+            totalBytes -= size;
+    }
+
+    static String key(byte[] source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+        }
+        digest.update(COMPILER_VERSION.getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) 0);
+        StringBuilder name = new StringBuilder(64 + SUFFIX.length());
+        for (byte b : digest.digest(source))
+            name.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return name.append(SUFFIX).toString();
+    }
+
+    /**
+     * Reads a mapped entry without copying it to the heap first
+     */
+    private static final class ByteBufferInput extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining())
+                return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package driver;
+
+import syntatic.analysis.Diagnostic;
+import vm.RegisterProgram;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a {@link Compilation}: the register code of the program, or the errors that stopped it
+ */
+public final class CompilationResult {
+    private final List<Diagnostic> diagnostics;
+    private final RegisterProgram program;
+
+    private CompilationResult(List<Diagnostic> diagnostics, RegisterProgram program) {
+        this.diagnostics = diagnostics;
+        this.program = program;
+    }
+
+    public static CompilationResult succeeded(RegisterProgram program) {
+        return new CompilationResult(List.of(), program);
+    }
+
+    public static CompilationResult failed(List<Diagnostic> diagnostics) {
+        return new CompilationResult(List.copyOf(diagnostics), null);
+    }
+
+    public boolean succeeded() {
+        return program != null;
+    }
+
+    public List<Diagnostic> diagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return the compiled program, null when the compilation failed
+     */
+    public RegisterProgram program() {
+        return program;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(succeeded());
+        if (succeeded()) {
+            program.writeTo(out);
+            return;
+        }
+        out.writeInt(diagnostics.size());
+        for (Diagnostic diagnostic : diagnostics) {
+            out.writeUTF(diagnostic.message);
+            out.writeInt(diagnostic.token);
+            out.writeLong(diagnostic.position);
+            out.writeInt(diagnostic.line);
+            out.writeInt(diagnostic.column);
+        }
+    }
+
+    /**
+     * Reads a result written by {@link #writeTo(DataOutput)}
+     */
+    public static CompilationResult readFrom(DataInput in) throws IOException {
+        if (in.readBoolean())
+            return succeeded(RegisterProgram.readFrom(in));
+        int count = in.readInt();
+        List<Diagnostic> diagnostics = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            diagnostics.add(new Diagnostic(in.readUTF(), in.readInt(), in.readLong(), in.readInt(), in.readInt()));
+        return failed(diagnostics);
+    }
+}
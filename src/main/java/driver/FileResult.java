@@ -0,0 +1,40 @@
+package driver;
+
+import java.nio.file.Path;
+
+/**
+ * What a {@link BatchCompiler} made of one file, with the time spent in each phase
+ */
+public final class FileResult {
+    private final Path file;
+    private final CompilationResult result;
+    private final long[] nanos;
+
+    FileResult(Path file, CompilationResult result, long[] nanos) {
+        this.file = file;
+        this.result = result;
+        this.nanos = nanos;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public CompilationResult result() {
+        return result;
+    }
+
+    /**
+     * @return nanoseconds spent in the phase, 0 for a phase not reached
+     */
+    public long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public long totalNanos() {
+        long total = 0;
+        for (long phase : nanos)
+            total += phase;
+        return total;
+    }
+}
@@ -0,0 +1,15 @@
+package driver;
+
+/**
+ * Phases of a compilation, in order, for the timing breakdown of a {@link BatchCompiler}
+ */
+public enum Phase {
+    READ,
+    /** Hashing the source, loading and storing its entry in a {@link CompilationCache} */
+    CACHE,
+    LEX,
+    PARSE,
+    ANALYZE,
+    OPTIMIZE,
+    GENERATE
+}
@@ -0,0 +1,440 @@
+package editor;
+
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Declarations;
+import ast.Expression;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.Terminal;
+import ast.UnaryExpression;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
+import lexical.analysis.IncrementalLexer;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import lexical.analysis.TokenEdit;
+import lexical.analysis.TokenKind;
+import lexical.analysis.TokenStream;
+import syntatic.analysis.Diagnostic;
+import syntatic.analysis.Parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the tokens and the tree of a source being edited up to date, edit after edit, without
+ * lexing or parsing it all again. The source is cut into units, the declarations and statements of
+ * the program block, each a token range with its tree and its diagnostics. After an edit:
+ * <ul>
+ * <li>tokens are lexed again by {@link IncrementalLexer}, only until they meet the old ones</li>
+ * <li>units are parsed again from the first one whose tokens, or the token it looked ahead at,
+ * changed, until parsing reaches the start of an old unit past the changed tokens; the trees of the
+ * other units are kept as they are</li>
+ * <li>the trees parsed again replace the old ones in the declarations and statements of the program,
+ * which is updated in place</li>
+ * </ul>
+ * The result is the one {@link Parser#parseProgram(java.util.List)} gives over the whole source.
+ * A source that does not start with go { is parsed whole on every edit.
+ * Lexing and parsing are incremental, the rest is not: each edit still copies the text, the token
+ * offsets and the bounds of the units after it, and the lists of the program are spliced in place,
+ * all of which are array copies proportional to the size of the source. The terminals of the units
+ * an edit moves are located again when {@link #program()} is asked for, and diagnostics when
+ * {@link #diagnostics()} is, which indexes the lines of the text; both once for all the edits since
+ */
+public class EditSession {
+    /**
+     * A declaration or statement of the program block
+     */
+    private static final class Unit {
+        int first;
+        // index of the token after the unit, which parsing looked at
+        int end;
+        final boolean declaration;
+        final Object node;
+        // token indexes relative to first
+        final List<Diagnostic> diagnostics;
+        // characters the unit moved by since its terminals were last located
+        int shift;
+        // index of its node in the declarations or the statements of the program, or of where it would be
+        int slot;
+
+        Unit(int first, int end, boolean declaration, Object node, List<Diagnostic> diagnostics) {
+            this.first = first;
+            this.end = end;
+            this.declaration = declaration;
+            this.node = node;
+            this.diagnostics = diagnostics;
+        }
+    }
+
+    private final StringBuilder text;
+    private TokenStream tokens;
+    private final List<Unit> units = new ArrayList<>();
+    // whether the source starts with go { so that it is cut into units
+    private boolean structured;
+    // index of the token after the last unit, the } closing the program
+    private int closing;
+    private Program program;
+    // located when first asked for after an edit, null until then
+    private List<Diagnostic> diagnostics;
+    // units with syntax errors
+    private int erroneousUnits;
+    private int relexedTokens;
+    private int reparsedUnits;
+    // whether units moved since the program was last asked for, their terminals are then located again
+    private boolean moved;
+
+    public EditSession(CharSequence source) {
+        text = new StringBuilder(source);
+        tokens = new Scanner(SourceFile.of(text)).scanAll();
+        parseAll();
+    }
+
+    /**
+     * Replaces removed characters at offset by inserted
+     */
+    public void edit(int offset, int removed, CharSequence inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > text.length())
+            throw new IndexOutOfBoundsException(String.format("Edit [%d, %d) outside [0, %d)", offset, offset + removed, text.length()));
+        text.replace(offset, offset + removed, inserted.toString());
+        TokenEdit lexed = IncrementalLexer.relex(tokens, SourceFile.of(text), offset, removed, inserted.length());
+        tokens = lexed.tokens;
+        relexedTokens = lexed.newEnd - lexed.first;
+        if (!structured || lexed.first < 2) {
+            parseAll();
+            return;
+        }
+        reparse(lexed, inserted.length() - removed);
+        program.source = tokens.getSourceFile();
+        diagnostics = null;
+    }
+
+    public String text() {
+        return text.toString();
+    }
+
+    public TokenStream tokens() {
+        return tokens;
+    }
+
+    /**
+     * @return the program, whose terminals are at their offsets in the current text
+     */
+    public Program program() {
+        if (moved) {
+            for (Unit unit : units) {
+                if (unit.shift != 0 && unit.node != null)
+                    shift(unit.node, unit.shift);
+                unit.shift = 0;
+            }
+            moved = false;
+        }
+        return program;
+    }
+
+    /**
+     * @return the syntax errors of the source, in source order
+     */
+    public List<Diagnostic> diagnostics() {
+        if (diagnostics == null)
+            diagnostics = locate();
+        return diagnostics;
+    }
+
+    /**
+     * @return how many tokens the last edit lexed, counting only those kept
+     */
+    public int relexedTokens() {
+        return relexedTokens;
+    }
+
+    /**
+     * @return how many declarations and statements of the program block the last edit parsed
+     */
+    public int reparsedUnits() {
+        return reparsedUnits;
+    }
+
+    private void parseAll() {
+        units.clear();
+        moved = false;
+        structured = tokens.kind(0) == TokenKind.DECLARE && tokens.kind(1) == TokenKind.LEFT_BRACE;
+        if (!structured) {
+            List<Diagnostic> all = new ArrayList<>();
+            program = new Parser(tokens).parseProgram(all);
+            diagnostics = all;
+            reparsedUnits = 0;
+            return;
+        }
+        Parser parser = new Parser(tokens);
+        parser.seek(2);
+        reparsedUnits = parseUnits(parser, true, units, -1, null, 0);
+        closing = parser.position();
+        Declarations declarations = new Declarations();
+        Statements statements = new Statements();
+        erroneousUnits = 0;
+        for (Unit unit : units) {
+            unit.slot = unit.declaration ? declarations.dec.size() : statements.stat.size();
+            add(unit, declarations.dec, statements.stat);
+        }
+        program = new Program(new Block(declarations, statements));
+        program.source = tokens.getSourceFile();
+        diagnostics = null;
+    }
+
+    /**
+     * @param charDelta change in the length of the text, by which the units after the edit move
+     */
+    private void reparse(TokenEdit lexed, int charDelta) {
+        int tokenDelta = lexed.newEnd - lexed.oldEnd;
+        int first = firstAffected(lexed.first);
+        int start = first < units.size() ? units.get(first).first : units.isEmpty() ? 2 : units.get(units.size() - 1).end;
+        // the unit before decides whether declarations may still come, as in a full parse
+        boolean declaration = first == 0 || units.get(first - 1).declaration;
+
+        Parser parser = new Parser(tokens);
+        parser.seek(start);
+        List<Unit> parsed = new ArrayList<>();
+        int[] resumed = {first};
+        reparsedUnits = parseUnits(parser, declaration, parsed, lexed.newEnd, resumed, tokenDelta);
+        int old = resumed[0];
+
+        // the nodes of the old units [first, old) are replaced by those of the parsed ones
+        int declarationsFrom = slot(first, true);
+        int declarationsTo = slot(old, true);
+        int statementsFrom = slot(first, false);
+        int statementsTo = slot(old, false);
+        List<Declaration> declarations = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>();
+        for (int i = first; i < old; i++)
+            if (!units.get(i).diagnostics.isEmpty())
+                erroneousUnits--;
+        for (Unit unit : parsed) {
+            unit.slot = unit.declaration ? declarationsFrom + declarations.size() : statementsFrom + statements.size();
+            add(unit, declarations, statements);
+        }
+        splice(program.block.declarations.dec, declarationsFrom, declarationsTo, declarations);
+        splice(program.block.statements.stat, statementsFrom, statementsTo, statements);
+        int declarationDelta = declarations.size() - (declarationsTo - declarationsFrom);
+        int statementDelta = statements.size() - (statementsTo - statementsFrom);
+
+        if (old < units.size()) {
+            for (int i = old; i < units.size(); i++) {
+                Unit unit = units.get(i);
+                unit.first += tokenDelta;
+                unit.end += tokenDelta;
+                unit.shift += charDelta;
+                unit.slot += unit.declaration ? declarationDelta : statementDelta;
+            }
+            moved |= charDelta != 0;
+            closing += tokenDelta;
+        } else {
+            closing = parser.position();
+        }
+        units.subList(first, old).clear();
+        units.addAll(first, parsed);
+    }
+
+    /**
+     * Adds the node of a unit to the declarations or the statements, and counts it if it has errors
+     */
+    private void add(Unit unit, List<Declaration> declarations, List<Statement> statements) {
+        if (unit.node instanceof Declaration declaration)
+            declarations.add(declaration);
+        else if (unit.node != null)
+            statements.add((Statement) unit.node);
+        if (!unit.diagnostics.isEmpty())
+            erroneousUnits++;
+    }
+
+    /**
+     * @return index in the declarations or the statements of the program of the node of unit i, or of
+     * where it would be: past every declaration once the units are statements, before every statement
+     * while they are declarations
+     */
+    private int slot(int i, boolean declaration) {
+        if (i < units.size() && units.get(i).declaration == declaration)
+            return units.get(i).slot;
+        if (declaration)
+            return program.block.declarations.dec.size();
+        return i == units.size() ? program.block.statements.stat.size() : 0;
+    }
+
+    private static <T> void splice(List<T> list, int from, int to, List<T> nodes) {
+        List<T> range = list.subList(from, to);
+        range.clear();
+        range.addAll(nodes);
+    }
+
+    /**
+     * Parses units until the end of the program block or, when resumable is not null, until parsing
+     * stands at the start of an old unit, from resumable[0] on, past the changed tokens
+     *
+     * @param changedEnd  index of the first token after the changed ones
+     * @param resumable   index of the first old unit to resume at, set to the one resumed at,
+     *                    or to the number of old units when none is
+     * @param tokenDelta  change in the number of tokens, from old indexes to new ones
+     * @return the number of units parsed
+     */
+    private int parseUnits(Parser parser, boolean declaration, List<Unit> parsed, int changedEnd, int[] resumable, int tokenDelta) {
+        int count = 0;
+        while (true) {
+            if (declaration && !parser.atDeclaration())
+                declaration = false;
+            if (!declaration && parser.atBlockEnd()) {
+                if (resumable != null)
+                    resumable[0] = units.size();
+                return count;
+            }
+            int position = parser.position();
+            if (resumable != null && position >= changedEnd) {
+                int oldPosition = position - tokenDelta;
+                int old = resumable[0];
+                while (old < units.size() && units.get(old).first < oldPosition)
+                    old++;
+                resumable[0] = old;
+                if (old < units.size() && units.get(old).first == oldPosition && units.get(old).declaration == declaration)
+                    return count;
+            }
+            List<Diagnostic> found = new ArrayList<>();
+            Object node = declaration
+                    ? parser.parseDeclaration(diagnostic -> found.add(new Diagnostic(diagnostic.message, diagnostic.token - position)))
+                    : parser.parseStatement(diagnostic -> found.add(new Diagnostic(diagnostic.message, diagnostic.token - position)));
+            parsed.add(new Unit(position, parser.position(), declaration, node, found));
+            count++;
+        }
+    }
+
+    /**
+     * @return index of the first unit whose tokens, or the token after it, include changed, or the number of units
+     */
+    private int firstAffected(int changed) {
+        int low = 0;
+        int high = units.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (units.get(middle).end < changed)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * @return the diagnostics of the units, and of the tokens closing the program, located in the current text
+     */
+    private List<Diagnostic> locate() {
+        List<Diagnostic> all = new ArrayList<>();
+        if (erroneousUnits > 0)
+            for (Unit unit : units)
+                for (Diagnostic diagnostic : unit.diagnostics)
+                    all.add(located(diagnostic.message, diagnostic.token + unit.first));
+        int next = closing;
+        if (tokens.kind(closing) == TokenKind.RIGHT_BRACE)
+            next++;
+        else
+            all.add(located(String.format("Syntax error: Expected token of kind [%s]", TokenKind.RIGHT_BRACE), closing));
+        if (tokens.kind(next) != TokenKind.EOT)
+            all.add(located("Tokens found after the end of the program", next));
+        return all;
+    }
+
+    /**
+     * Moves the offsets of the terminals of a declaration or statement
+     */
+    private static void shift(Object node, int delta) {
+        if (node instanceof VariableDeclaration variable) {
+            shift(variable.identifier, delta);
+            shift(variable.initializer, delta);
+        } else if (node instanceof FunctionDeclaration function) {
+            shift(function.name, delta);
+            for (Declaration parameter : function.parameters.dec)
+                shift(parameter, delta);
+            for (Declaration declaration : function.block.declarations.dec)
+                shift(declaration, delta);
+            shift(function.block.statements, delta);
+            shift(function.expression, delta);
+        } else if (node instanceof AssignStatement assign) {
+            shift(assign.identifier, delta);
+            shift(assign.exp, delta);
+        } else if (node instanceof DeclarationStatement declaration) {
+            shift(declaration.declaration, delta);
+        } else if (node instanceof ExpressionStatement expression) {
+            shift(expression.exp, delta);
+        } else if (node instanceof IfStatement ifStatement) {
+            shift(ifStatement.exp, delta);
+            shift(ifStatement.ifStatement, delta);
+            shift(ifStatement.elseStatement, delta);
+        } else if (node instanceof WhileStatement whileStatement) {
+            shift(whileStatement.exp, delta);
+            shift(whileStatement.stats, delta);
+        } else if (node instanceof InStatement in) {
+            shift(in.exp, delta);
+        } else if (node instanceof OutStatement out) {
+            shift(out.exp, delta);
+        }
+    }
+
+    private static void shift(Statements statements, int delta) {
+        if (statements != null)
+            for (Statement statement : statements.stat)
+                shift(statement, delta);
+    }
+
+    /**
+     * Moves the terminals of an expression, over an explicit stack as expressions nest without limit
+     */
+    private static void shift(Expression root, int delta) {
+        if (root == null)
+            return;
+        ArrayDeque<Expression> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Expression expression = pending.pop();
+            if (expression instanceof VarExpression variable)
+                shift(variable.name, delta);
+            else if (expression instanceof IntLiteralExpression literal)
+                shift(literal.literal, delta);
+            else if (expression instanceof BoolLiteralExpression literal)
+                shift(literal.literal, delta);
+            else if (expression instanceof BinaryExpression binary)
+                shift(binary.operator, delta);
+            else if (expression instanceof UnaryExpression unary)
+                shift(unary.operator, delta);
+            else if (expression instanceof CallExpression call)
+                shift(call.name, delta);
+            Expression operand;
+            for (int i = 0; (operand = expression.operand(i)) != null; i++)
+                pending.push(operand);
+        }
+    }
+
+    private static void shift(Terminal terminal, int delta) {
+        if (terminal != null && terminal.offset >= 0)
+            terminal.offset += delta;
+    }
+
+    /**
+     * Units keep the token indexes of their diagnostics, their positions are worked out again
+     * as the edits before them move them
+     */
+    private Diagnostic located(String message, int token) {
+        return Diagnostic.at(message, token, tokens.getSourceFile(), tokens.start(token));
+    }
+}
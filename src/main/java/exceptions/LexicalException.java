@@ -1,7 +1,10 @@
 package exceptions;
 
+/**
+ * Created without a stack trace, which would only point into the analyzer
+ */
 public class LexicalException extends Exception {
     public LexicalException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,20 @@
+package exceptions;
+
+import lexical.analysis.Position;
+
+/**
+ * Created without a stack trace, which would only point into the analyzer
+ */
+public class SemanticException extends Exception {
+    /** Packed {@link Position} of the construct in error, {@link Position#NONE} if unknown */
+    public final long position;
+
+    public SemanticException(String message) {
+        this(message, Position.NONE);
+    }
+
+    public SemanticException(String message, long position) {
+        super(message, null, false, false);
+        this.position = position;
+    }
+}
@@ -1,7 +1,20 @@
 package exceptions;
 
+import lexical.analysis.Position;
+
+/**
+ * Created without a stack trace, which would only point into the parser
+ */
 public class SyntaticException extends Exception{
+    /** Packed {@link Position} of the token the error was found at, {@link Position#NONE} if unknown */
+    public final long position;
+
     public SyntaticException(String message) {
-        super(message);
+        this(message, Position.NONE);
+    }
+
+    public SyntaticException(String message, long position) {
+        super(message, null, false, false);
+        this.position = position;
     }
 }
@@ -0,0 +1,62 @@
+package generator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Command line of the {@link ProgramGenerator}:
+ * {@code [--seed n] [--depth n] [--functions n] [--identifiers n] [--comments density] size file},
+ * size in bytes or with a k, m or g suffix. Exits with 2 on bad arguments
+ */
+public final class GeneratorMain {
+    private GeneratorMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        long seed = 1;
+        int depth = 8;
+        int functions = 16;
+        int identifiers = 64;
+        double comments = 0.1;
+        String size = null;
+        Path file = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--depth" -> depth = Integer.parseInt(args[++i]);
+                    case "--functions" -> functions = Integer.parseInt(args[++i]);
+                    case "--identifiers" -> identifiers = Integer.parseInt(args[++i]);
+                    case "--comments" -> comments = Double.parseDouble(args[++i]);
+                    default -> {
+                        if (size == null)
+                            size = args[i];
+                        else if (file == null)
+                            file = Path.of(args[i]);
+                        else
+                            throw new IllegalArgumentException(args[i]);
+                    }
+                }
+            }
+            if (file == null)
+                throw new IllegalArgumentException("missing size or file");
+            new ProgramGenerator(seed, bytes(size), depth, functions, identifiers, comments).generate(file);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Usage: GeneratorMain [--seed n] [--depth n] [--functions n] [--identifiers n] [--comments density] size file");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @return the size, 64k being 65536
+     */
+    static long bytes(String size) {
+        int shift = switch (Character.toLowerCase(size.charAt(size.length() - 1))) {
+            case 'k' -> 10;
+            case 'm' -> 20;
+            case 'g' -> 30;
+            default -> 0;
+        };
+        return Long.parseLong(shift == 0 ? size : size.substring(0, size.length() - 1)) << shift;
+    }
+}
@@ -0,0 +1,338 @@
+package generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Writes random Shortsy programs that compile and end, the same for the same seed and settings.
+ * A program declares the global variables, then the functions, then statements until it reaches the
+ * requested size:
+ * <ul>
+ * <li>identifiers is the number of global variable names, integers and booleans alternately</li>
+ * <li>functions {@code stepK(i> p, b> q)} compute over their parameters and the globals,
+ * calling at most once one of the functions declared before them, so that a call costs at most
+ * as many calls as there are functions</li>
+ * <li>if and whl blocks nest up to maxDepth, parentheses in expressions too; each whl runs its body once</li>
+ * <li>commentDensity is the chance of a comment line before each statement</li>
+ * </ul>
+ * Output is streamed as it is generated: memory stays proportional to the nesting depth, whatever the size.
+ * Divisions are by non-zero literals only, so that no program fails at run time
+ */
+public final class ProgramGenerator {
+    // integer names at even indexes, boolean names at odd ones
+    private static final String[] WORDS = {"count", "ready", "total", "found", "index", "done", "limit", "valid", "width", "empty", "offset", "seen"};
+    private static final String[] OPERATORS = {"+", "-", "*"};
+    private static final String[] COMMENTS = {"# keep the running total", "# check the limit first", "# halve the step", "# step through the values", "# done once this holds"};
+    // indentation stops growing there, so that deep nesting does not make the output quadratic
+    private static final String INDENT = "    ".repeat(16);
+    private static final int IF = 0;
+    private static final int ELSE = 1;
+    private static final int WHILE = 2;
+
+    private final long seed;
+    private final long targetBytes;
+    private final int maxDepth;
+    private final int functions;
+    private final int identifiers;
+    private final double commentDensity;
+
+    /**
+     * @param targetBytes size of the program, exceeded by the blocks closing at the end
+     */
+    public ProgramGenerator(long seed, long targetBytes, int maxDepth, int functions, int identifiers, double commentDensity) {
+        if (targetBytes < 0 || maxDepth < 0 || functions < 0 || identifiers < 1 || commentDensity < 0 || commentDensity > 1)
+            throw new IllegalArgumentException(String.format(
+                    "Bad settings: %d bytes, depth %d, %d functions, %d identifiers, comment density %s",
+                    targetBytes, maxDepth, functions, identifiers, commentDensity));
+        this.seed = seed;
+        this.targetBytes = targetBytes;
+        this.maxDepth = maxDepth;
+        this.functions = functions;
+        this.identifiers = identifiers;
+        this.commentDensity = commentDensity;
+    }
+
+    public void generate(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            generate(out);
+        }
+    }
+
+    /**
+     * Writes the program, buffer out unless it already is
+     */
+    public void generate(Writer out) throws IOException {
+        new Emitter(out).program();
+    }
+
+    static String variable(int index) {
+        return WORDS[index % WORDS.length] + index / WORDS.length;
+    }
+
+    /**
+     * State of one generation
+     */
+    private final class Emitter {
+        private final Writer out;
+        private final Random random = new Random(seed);
+        private long written;
+        private int depth;
+        // kinds of the open blocks, and the counter of each whl
+        private int[] blocks = new int[16];
+        private int[] counters = new int[16];
+        private int loops;
+        // function whose body is written, -1 for the program statements, and whether it calls already
+        private int function = -1;
+        private boolean called;
+        // whether r, the local of the function, is declared yet
+        private boolean local;
+
+        Emitter(Writer out) {
+            this.out = out;
+        }
+
+        void program() throws IOException {
+            write("go {\n");
+            depth = 1;
+            for (int i = 0; i < identifiers; i++) {
+                indent();
+                write(isInteger(i) ? "i> " : "b> ");
+                write(variable(i));
+                write(" = ");
+                write(isInteger(i) ? Integer.toString(random.nextInt(100)) : random.nextBoolean() ? "t" : "f");
+                write(";\n");
+            }
+            for (int k = 0; k < functions; k++)
+                function(k);
+
+            while (written < targetBytes) {
+                if (random.nextDouble() < commentDensity) {
+                    indent();
+                    write(COMMENTS[random.nextInt(COMMENTS.length)]);
+                    write("\n");
+                }
+                double choice = random.nextDouble();
+                if (depth - 1 < maxDepth && choice < 0.25)
+                    open();
+                else if (depth > 1 && choice < 0.45)
+                    close();
+                else
+                    statement();
+            }
+            while (depth > 1)
+                close(blocks[depth - 2] == IF ? ELSE : blocks[depth - 2]);
+            write("}\n");
+            out.flush();
+        }
+
+        /**
+         * func stepK(i> p, b> q) go { i> r = ...; ... } ret r
+         */
+        private void function(int k) throws IOException {
+            function = k;
+            called = false;
+            local = false;
+            indent();
+            write("func step" + k + "(i> p, b> q) go {\n");
+            depth++;
+            indent();
+            write("i> r = ");
+            integerExpression();
+            write(";\n");
+            local = true;
+            for (int i = random.nextInt(3); i >= 0; i--)
+                statement();
+            depth--;
+            indent();
+            write("} ret r\n");
+            function = -1;
+        }
+
+        private void statement() throws IOException {
+            indent();
+            int kind = random.nextInt(function < 0 && functions > 0 ? 4 : 3);
+            if (kind == 0) {
+                int target = random.nextInt(identifiers);
+                write(variable(target));
+                write(" = ");
+                if (isInteger(target))
+                    integerExpression();
+                else
+                    booleanExpression();
+            } else if (kind == 1) {
+                write(function >= 0 && random.nextBoolean() ? "r" : variable(random.nextInt(identifiers) & ~1));
+                write(" = ");
+                integerExpression();
+            } else if (kind == 2) {
+                write("out(");
+                if (random.nextBoolean())
+                    integerExpression();
+                else
+                    booleanExpression();
+                write(")");
+            } else {
+                call(random.nextInt(functions));
+            }
+            write(";\n");
+        }
+
+        /**
+         * Opens an if, or a whl with its counter declared before it
+         */
+        private void open() throws IOException {
+            if (depth - 1 == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                counters = Arrays.copyOf(counters, counters.length * 2);
+            }
+            indent();
+            if (random.nextBoolean()) {
+                write("if (");
+                booleanExpression();
+                write(") do {\n");
+                blocks[depth - 1] = IF;
+            } else {
+                int counter = loops++;
+                write("i> w" + counter + " = 0;\n");
+                indent();
+                write("whl (w" + counter + " == 1) == f do {\n");
+                blocks[depth - 1] = WHILE;
+                counters[depth - 1] = counter;
+            }
+            depth++;
+        }
+
+        private void close() throws IOException {
+            close(blocks[depth - 2]);
+        }
+
+        /**
+         * Closes the innermost block, an if going on with its el part half of the time unless kind is ELSE
+         */
+        private void close(int kind) throws IOException {
+            if (kind == WHILE) {
+                indent();
+                write("w" + counters[depth - 2] + " = w" + counters[depth - 2] + " + 1;\n");
+            }
+            depth--;
+            indent();
+            if (kind == IF && random.nextBoolean()) {
+                write("} el {\n");
+                blocks[depth - 1] = ELSE;
+                depth++;
+            } else {
+                write("}\n");
+            }
+        }
+
+        /**
+         * Operands and operators nested in parentheses on the right, mostly 0 to 2 levels deep,
+         * up to maxDepth once in a while
+         */
+        private void integerExpression() throws IOException {
+            int nesting = random.nextInt(64) == 0 ? random.nextInt(maxDepth + 1) : random.nextInt(Math.min(2, maxDepth) + 1);
+            for (int i = 0; i < nesting; i++) {
+                write("(");
+                integerOperand();
+                write(" " + OPERATORS[random.nextInt(OPERATORS.length)] + " ");
+            }
+            integerOperand();
+            int operator = random.nextInt(OPERATORS.length + 2);
+            if (operator < OPERATORS.length) {
+                write(" " + OPERATORS[operator] + " ");
+                integerOperand();
+            } else if (operator == OPERATORS.length) {
+                write(" / " + (1 + random.nextInt(9)));
+            }
+            for (int i = 0; i < nesting; i++)
+                write(")");
+        }
+
+        private void integerOperand() throws IOException {
+            int kind = random.nextInt(8);
+            if (kind < 3) {
+                write(Integer.toString(random.nextInt(1000)));
+            } else if (kind < 6) {
+                integerVariable();
+            } else if (kind == 6) {
+                write("-");
+                integerVariable();
+            } else if (function < 0 ? functions > 0 : function > 0 && !called) {
+                called = function >= 0;
+                call(random.nextInt(function < 0 ? functions : function));
+            } else {
+                integerVariable();
+            }
+        }
+
+        private void integerVariable() throws IOException {
+            if (function >= 0 && random.nextBoolean())
+                write(local && random.nextBoolean() ? "r" : "p");
+            else
+                write(variable(random.nextInt(identifiers) & ~1));
+        }
+
+        private void booleanExpression() throws IOException {
+            int kind = random.nextInt(4);
+            if (kind == 0) {
+                booleanOperand();
+            } else if (kind == 1) {
+                booleanOperand();
+                write(" == ");
+                booleanOperand();
+            } else {
+                integerExpression();
+                write(" == ");
+                integerOperand();
+            }
+        }
+
+        private void booleanOperand() throws IOException {
+            int kind = random.nextInt(4);
+            if (kind == 0)
+                write(random.nextBoolean() ? "t" : "f");
+            else if (function >= 0 && kind == 1)
+                write("q");
+            else if (identifiers > 1)
+                write(variable(random.nextInt(identifiers / 2) * 2 + 1));
+            else
+                write("t");
+        }
+
+        /**
+         * stepK(integer, boolean) with literal or variable arguments, so that calls do not nest
+         */
+        private void call(int k) throws IOException {
+            write("step" + k + "(");
+            if (random.nextBoolean())
+                write(Integer.toString(random.nextInt(100)));
+            else
+                integerVariable();
+            write(", ");
+            booleanOperand();
+            write(")");
+        }
+
+        private void indent() throws IOException {
+            write(INDENT, Math.min(depth, 16) * 4);
+        }
+
+        private void write(String text) throws IOException {
+            out.write(text);
+            written += text.length();
+        }
+
+        private void write(String text, int length) throws IOException {
+            out.write(text, 0, length);
+            written += length;
+        }
+    }
+
+    private static boolean isInteger(int variable) {
+        return variable % 2 == 0;
+    }
+}
@@ -0,0 +1,433 @@
+package interpreter;
+
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Expression;
+import ast.ExpressionList;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.Identifier;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.Type;
+import ast.UnaryExpression;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
+import runtime.ProgramIO;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Executes a {@link Program} decorated by {@link semantic.analysis.SemanticAnalyzer} by walking its tree.
+ * Variables are read and written through the slots resolved by the analysis: integers and booleans
+ * live in separate primitive stacks, where each call takes a frame on top of its caller's, and
+ * globals in separate primitive arrays. Evaluating expressions and accessing variables allocates
+ * nothing, integer arithmetic wraps around as in Java and dividing by zero throws {@link ArithmeticException}.
+ * Expressions are evaluated recursively up to {@code MAX_NESTING} levels deep, deeper ones over
+ * explicit stacks so that no nesting overflows the Java stack
+ */
+public class Interpreter {
+    private static final int INITIAL_STACK_SIZE = 1024;
+    // expressions nested deeper are evaluated over explicit stacks instead of recursively
+    private static final int MAX_NESTING = 64;
+
+    private final Program program;
+    private final ProgramIO io;
+
+    private int[] globalInts;
+    private boolean[] globalBooleans;
+    private int[] ints = new int[INITIAL_STACK_SIZE];
+    private boolean[] booleans = new boolean[INITIAL_STACK_SIZE];
+    private int intBase;
+    private int booleanBase;
+    private int intTop;
+    private int booleanTop;
+    private int nesting;
+    // the expressions being evaluated, innermost last, with the operand each one is at
+    private Expression[] pending = new Expression[16];
+    private int[] steps = new int[16];
+    private int depth;
+    // values of the operands evaluated so far, booleans as 0 and 1
+    private int[] values = new int[16];
+    private int valueCount;
+
+    public Interpreter(Program program, ProgramIO io) {
+        this.program = program;
+        this.io = io;
+    }
+
+    public void run() {
+        globalInts = new int[program.intGlobals];
+        globalBooleans = new boolean[program.booleanGlobals];
+        intBase = intTop = 0;
+        booleanBase = booleanTop = 0;
+        nesting = depth = valueCount = 0;
+        execute(program.block);
+        io.flush();
+    }
+
+    private void execute(Block block) {
+        List<Declaration> declarations = block.declarations.dec;
+        for (int i = 0, n = declarations.size(); i < n; i++)
+            if (declarations.get(i) instanceof VariableDeclaration variable)
+                declare(variable);
+        execute(block.statements);
+    }
+
+    private void execute(Statements statements) {
+        List<Statement> list = statements.stat;
+        for (int i = 0, n = list.size(); i < n; i++)
+            execute(list.get(i));
+    }
+
+    private void execute(Statement statement) {
+        if (statement instanceof AssignStatement assign) {
+            assign(assign.identifier, assign.exp);
+        } else if (statement instanceof IfStatement ifStatement) {
+            if (evaluateBoolean(ifStatement.exp))
+                execute(ifStatement.ifStatement);
+            else if (ifStatement.elseStatement != null)
+                execute(ifStatement.elseStatement);
+        } else if (statement instanceof WhileStatement whileStatement) {
+            while (evaluateBoolean(whileStatement.exp))
+                execute(whileStatement.stats);
+        } else if (statement instanceof ExpressionStatement expression) {
+            evaluate(expression.exp);
+        } else if (statement instanceof OutStatement out) {
+            if (out.exp.type == Type.INTEGER)
+                io.writeInt(evaluateInt(out.exp));
+            else
+                io.writeBoolean(evaluateBoolean(out.exp));
+        } else if (statement instanceof DeclarationStatement declaration) {
+            if (declaration.declaration instanceof VariableDeclaration variable)
+                declare(variable);
+        } else {
+            read((InStatement) statement);
+        }
+    }
+
+    /**
+     * A declaration executed again, e.g. in a loop, starts over from its initializer or default value
+     */
+    private void declare(VariableDeclaration variable) {
+        Identifier identifier = variable.identifier;
+        if (variable.type == Type.INTEGER)
+            storeInt(identifier, variable.initializer == null ? 0 : evaluateInt(variable.initializer));
+        else
+            storeBoolean(identifier, variable.initializer != null && evaluateBoolean(variable.initializer));
+    }
+
+    private void assign(Identifier identifier, Expression expression) {
+        if (expression.type == Type.INTEGER)
+            storeInt(identifier, evaluateInt(expression));
+        else
+            storeBoolean(identifier, evaluateBoolean(expression));
+    }
+
+    private void read(InStatement in) {
+        if (in.exp == null) {
+            io.readInt();
+            return;
+        }
+        Identifier identifier = ((VarExpression) in.exp).name;
+        if (in.exp.type == Type.INTEGER)
+            storeInt(identifier, io.readInt());
+        else
+            storeBoolean(identifier, io.readBoolean());
+    }
+
+    /**
+     * Evaluates an expression for its effects, the value, if any, is dropped
+     */
+    private void evaluate(Expression expression) {
+        if (expression.type == Type.INTEGER) {
+            evaluateInt(expression);
+        } else if (expression.type == Type.BOOLEAN) {
+            evaluateBoolean(expression);
+        } else if (nesting == MAX_NESTING) {
+            walk(expression);
+        } else {
+            nesting++;
+            callProcedure((CallExpression) expression);
+            nesting--;
+        }
+    }
+
+    private int evaluateInt(Expression expression) {
+        if (expression instanceof VarExpression variable) {
+            Identifier identifier = variable.name;
+            return identifier.global ? globalInts[identifier.slot] : ints[intBase + identifier.slot];
+        }
+        if (expression instanceof IntLiteralExpression literal)
+            return literal.value;
+        if (nesting == MAX_NESTING) {
+            walk(expression);
+            return values[--valueCount];
+        }
+        nesting++;
+        int value;
+        if (expression instanceof BinaryExpression binary) {
+            int left = evaluateInt(binary.operand1);
+            int right = evaluateInt(binary.operand2);
+            value = operate(binary.operator.spelling.charAt(0), left, right);
+        } else if (expression instanceof UnaryExpression unary) {
+            int operand = evaluateInt(unary.operand);
+            value = unary.operator.spelling.charAt(0) == '-' ? -operand : operand;
+        } else {
+            value = callInt((CallExpression) expression);
+        }
+        nesting--;
+        return value;
+    }
+
+    private boolean evaluateBoolean(Expression expression) {
+        if (expression instanceof VarExpression variable) {
+            Identifier identifier = variable.name;
+            return identifier.global ? globalBooleans[identifier.slot] : booleans[booleanBase + identifier.slot];
+        }
+        if (expression instanceof BoolLiteralExpression literal)
+            return literal.value;
+        if (nesting == MAX_NESTING) {
+            walk(expression);
+            return values[--valueCount] != 0;
+        }
+        nesting++;
+        boolean value;
+        if (expression instanceof BinaryExpression binary) {
+            // == is the only operator with a boolean value
+            if (binary.operand1.type == Type.INTEGER)
+                value = evaluateInt(binary.operand1) == evaluateInt(binary.operand2);
+            else
+                value = evaluateBoolean(binary.operand1) == evaluateBoolean(binary.operand2);
+        } else {
+            value = callBoolean((CallExpression) expression);
+        }
+        nesting--;
+        return value;
+    }
+
+    /**
+     * Leaves the value of the expression, if any, on the value stack, booleans as 0 and 1.
+     * Operands are evaluated before the operator applied to them over explicit stacks, so that the
+     * Java stack stays flat however deep the nesting, a call nests a walk for the ret expression
+     * of the callee above the ones in progress
+     */
+    private void walk(Expression root) {
+        int base = depth;
+        pushPending(root);
+        while (depth > base) {
+            int frame = depth - 1;
+            Expression expression = pending[frame];
+            Expression operand = expression.operand(steps[frame]++);
+            if (operand != null) {
+                pushPending(operand);
+                continue;
+            }
+            pending[frame] = null;
+            depth--;
+            apply(expression);
+        }
+    }
+
+    /**
+     * Replaces the values of the operands of the expression by its value
+     */
+    private void apply(Expression expression) {
+        if (expression instanceof VarExpression variable) {
+            Identifier identifier = variable.name;
+            if (identifier.type == Type.INTEGER)
+                pushValue(identifier.global ? globalInts[identifier.slot] : ints[intBase + identifier.slot]);
+            else
+                pushValue((identifier.global ? globalBooleans[identifier.slot] : booleans[booleanBase + identifier.slot]) ? 1 : 0);
+        } else if (expression instanceof IntLiteralExpression literal) {
+            pushValue(literal.value);
+        } else if (expression instanceof BoolLiteralExpression literal) {
+            pushValue(literal.value ? 1 : 0);
+        } else if (expression instanceof BinaryExpression binary) {
+            int right = values[--valueCount];
+            values[valueCount - 1] = operate(binary.operator.spelling.charAt(0), values[valueCount - 1], right);
+        } else if (expression instanceof UnaryExpression unary) {
+            if (unary.operator.spelling.charAt(0) == '-')
+                values[valueCount - 1] = -values[valueCount - 1];
+        } else {
+            call((CallExpression) expression);
+        }
+    }
+
+    /**
+     * @param operator first character of a binary operator, booleans compare as their 0 and 1
+     */
+    private static int operate(char operator, int left, int right) {
+        switch (operator) {
+            case '+':
+                return left + right;
+            case '-':
+                return left - right;
+            case '*':
+                return left * right;
+            case '/':
+                return left / right;
+            default:
+                return left == right ? 1 : 0;
+        }
+    }
+
+    private void storeInt(Identifier identifier, int value) {
+        if (identifier.global)
+            globalInts[identifier.slot] = value;
+        else
+            ints[intBase + identifier.slot] = value;
+    }
+
+    private void storeBoolean(Identifier identifier, boolean value) {
+        if (identifier.global)
+            globalBooleans[identifier.slot] = value;
+        else
+            booleans[booleanBase + identifier.slot] = value;
+    }
+
+    private int callInt(CallExpression call) {
+        FunctionDeclaration function = (FunctionDeclaration) call.name.declaration;
+        int callerIntBase = intBase;
+        int callerBooleanBase = booleanBase;
+        int callerNesting = nesting;
+        enter(function, call.listofExpressions);
+        execute(function.block);
+        int result = evaluateInt(function.expression);
+        leave(callerIntBase, callerBooleanBase, callerNesting);
+        return result;
+    }
+
+    private boolean callBoolean(CallExpression call) {
+        FunctionDeclaration function = (FunctionDeclaration) call.name.declaration;
+        int callerIntBase = intBase;
+        int callerBooleanBase = booleanBase;
+        int callerNesting = nesting;
+        enter(function, call.listofExpressions);
+        execute(function.block);
+        boolean result = evaluateBoolean(function.expression);
+        leave(callerIntBase, callerBooleanBase, callerNesting);
+        return result;
+    }
+
+    private void callProcedure(CallExpression call) {
+        FunctionDeclaration function = (FunctionDeclaration) call.name.declaration;
+        int callerIntBase = intBase;
+        int callerBooleanBase = booleanBase;
+        int callerNesting = nesting;
+        enter(function, call.listofExpressions);
+        execute(function.block);
+        leave(callerIntBase, callerBooleanBase, callerNesting);
+    }
+
+    /**
+     * Runs the callee of a walk on the arguments on top of the value stack, which its value, if any, replaces
+     */
+    private void call(CallExpression call) {
+        FunctionDeclaration function = (FunctionDeclaration) call.name.declaration;
+        int callerIntBase = intBase;
+        int callerBooleanBase = booleanBase;
+        int callerNesting = nesting;
+        enter(function);
+        execute(function.block);
+        if (function.expression != null)
+            walk(function.expression);
+        leave(callerIntBase, callerBooleanBase, callerNesting);
+    }
+
+    /**
+     * Takes a frame for the function on top of the stacks and passes the arguments, which are
+     * evaluated in the frame of the caller
+     */
+    private void enter(FunctionDeclaration function, ExpressionList arguments) {
+        int intFrame = intTop;
+        int booleanFrame = booleanTop;
+        reserve(function);
+
+        List<Declaration> parameters = function.parameters.dec;
+        for (int i = 0, n = parameters.size(); i < n; i++) {
+            VariableDeclaration parameter = (VariableDeclaration) parameters.get(i);
+            Expression argument = arguments.exp.get(i);
+            // evaluated first, a call in the argument may grow the stacks
+            if (parameter.type == Type.INTEGER) {
+                int value = evaluateInt(argument);
+                ints[intFrame + parameter.identifier.slot] = value;
+            } else {
+                boolean value = evaluateBoolean(argument);
+                booleans[booleanFrame + parameter.identifier.slot] = value;
+            }
+        }
+        intBase = intFrame;
+        booleanBase = booleanFrame;
+        // the body of the callee nests from its own statements
+        nesting = 0;
+    }
+
+    /**
+     * Takes a frame for the function on top of the stacks and passes the arguments a walk left
+     * on top of the value stack
+     */
+    private void enter(FunctionDeclaration function) {
+        int intFrame = intTop;
+        int booleanFrame = booleanTop;
+        reserve(function);
+
+        List<Declaration> parameters = function.parameters.dec;
+        valueCount -= parameters.size();
+        for (int i = 0, n = parameters.size(); i < n; i++) {
+            VariableDeclaration parameter = (VariableDeclaration) parameters.get(i);
+            if (parameter.type == Type.INTEGER)
+                ints[intFrame + parameter.identifier.slot] = values[valueCount + i];
+            else
+                booleans[booleanFrame + parameter.identifier.slot] = values[valueCount + i] != 0;
+        }
+        intBase = intFrame;
+        booleanBase = booleanFrame;
+        // the body of the callee nests from its own statements
+        nesting = 0;
+    }
+
+    private void reserve(FunctionDeclaration function) {
+        intTop += function.intFrameSize;
+        booleanTop += function.booleanFrameSize;
+        if (intTop > ints.length)
+            ints = Arrays.copyOf(ints, Math.max(intTop, ints.length * 2));
+        if (booleanTop > booleans.length)
+            booleans = Arrays.copyOf(booleans, Math.max(booleanTop, booleans.length * 2));
+    }
+
+    private void leave(int callerIntBase, int callerBooleanBase, int callerNesting) {
+        intTop = intBase;
+        booleanTop = booleanBase;
+        intBase = callerIntBase;
+        booleanBase = callerBooleanBase;
+        nesting = callerNesting;
+    }
+
+    private void pushPending(Expression expression) {
+        if (depth == pending.length) {
+            pending = Arrays.copyOf(pending, depth * 2);
+            steps = Arrays.copyOf(steps, depth * 2);
+        }
+        pending[depth] = expression;
+        steps[depth++] = 0;
+    }
+
+    private void pushValue(int value) {
+        if (valueCount == values.length)
+            values = Arrays.copyOf(values, valueCount * 2);
+        values[valueCount++] = value;
+    }
+}
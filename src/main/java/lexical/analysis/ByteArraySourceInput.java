@@ -0,0 +1,65 @@
+package lexical.analysis;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves characters from a byte array that already holds the whole source,
+ * each byte is taken as one ISO-8859-1 character
+ */
+final class ByteArraySourceInput implements RandomAccessSourceInput {
+    private final byte[] bytes;
+    private final int base;
+    private final int limit;
+    private int position;
+
+    ByteArraySourceInput(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.base = offset;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    @Override
+    public char read() {
+        if (position < limit)
+            return (char) (bytes[position++] & 0xFF);
+        return SourceFile.EOT;
+    }
+
+    @Override
+    public int length() {
+        return limit - base;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        return (char) (bytes[base + offset] & 0xFF);
+    }
+
+    @Override
+    public String spelling(int start, int end) {
+        return new String(bytes, base + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public int position() {
+        return position - base;
+    }
+
+    @Override
+    public void seek(int offset) {
+        position = base + offset;
+    }
+
+    @Override
+    public int skipSeparators(boolean inComment) {
+        int from = position;
+        position = SeparatorSkipper.BEST.skip(bytes, position, limit, inComment);
+        return position - from;
+    }
+
+    @Override
+    public RandomAccessSourceInput slice(int start, int end) {
+        return new ByteArraySourceInput(bytes, base + start, end - start);
+    }
+}
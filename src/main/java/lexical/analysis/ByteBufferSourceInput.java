@@ -0,0 +1,61 @@
+package lexical.analysis;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves characters from a byte buffer, typically a memory-mapped file,
+ * each byte is taken as one ISO-8859-1 character
+ */
+final class ByteBufferSourceInput implements RandomAccessSourceInput {
+    private final ByteBuffer buffer;
+    private final int base;
+    private final int limit;
+    private int position;
+
+    ByteBufferSourceInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.base = buffer.position();
+        this.position = base;
+        this.limit = buffer.limit();
+    }
+
+    @Override
+    public char read() {
+        if (position < limit)
+            return (char) (buffer.get(position++) & 0xFF);
+        return SourceFile.EOT;
+    }
+
+    @Override
+    public int length() {
+        return limit - base;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        return (char) (buffer.get(base + offset) & 0xFF);
+    }
+
+    @Override
+    public String spelling(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(base + start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public int position() {
+        return position - base;
+    }
+
+    @Override
+    public void seek(int offset) {
+        position = base + offset;
+    }
+
+    @Override
+    public RandomAccessSourceInput slice(int start, int end) {
+        return new ByteBufferSourceInput(buffer.slice(base + start, end - start));
+    }
+}
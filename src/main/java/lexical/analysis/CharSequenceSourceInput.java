@@ -0,0 +1,59 @@
+package lexical.analysis;
+
+/**
+ * Serves characters from text that is already in memory
+ */
+final class CharSequenceSourceInput implements RandomAccessSourceInput {
+    private final CharSequence text;
+    private final int base;
+    private final int limit;
+    private int position;
+
+    CharSequenceSourceInput(CharSequence text) {
+        this(text, 0, text.length());
+    }
+
+    CharSequenceSourceInput(CharSequence text, int start, int end) {
+        this.text = text;
+        this.base = start;
+        this.position = start;
+        this.limit = end;
+    }
+
+    @Override
+    public char read() {
+        if (position < limit)
+            return text.charAt(position++);
+        return SourceFile.EOT;
+    }
+
+    @Override
+    public int length() {
+        return limit - base;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        return text.charAt(base + offset);
+    }
+
+    @Override
+    public String spelling(int start, int end) {
+        return text.subSequence(base + start, base + end).toString();
+    }
+
+    @Override
+    public int position() {
+        return position - base;
+    }
+
+    @Override
+    public void seek(int offset) {
+        position = base + offset;
+    }
+
+    @Override
+    public RandomAccessSourceInput slice(int start, int end) {
+        return new CharSequenceSourceInput(text, base + start, base + end);
+    }
+}
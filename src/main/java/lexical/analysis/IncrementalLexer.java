@@ -0,0 +1,64 @@
+package lexical.analysis;
+
+/**
+ * Lexes an edited source again from the first token the edit may change, only until the new tokens
+ * meet the old ones again. A token is lexed from where the previous one ended, looking at its own
+ * characters and one past them, so tokens ending before the edit are kept. After the edit, a new token
+ * starting where an old one started, moved by the length change, begins the same sequence of tokens
+ * as before: the lexer keeps no state from one token to the next. The old stream is left unchanged
+ */
+public final class IncrementalLexer {
+    private IncrementalLexer() {
+    }
+
+    /**
+     * @param edited   the whole source after the edit, random access
+     * @param offset   where the edit starts
+     * @param removed  number of characters removed there
+     * @param inserted number of characters inserted in their place
+     */
+    public static TokenEdit relex(TokenStream old, SourceFile edited, int offset, int removed, int inserted) {
+        int delta = inserted - removed;
+        int editEnd = offset + removed;
+        int first = firstEndingAtOrAfter(old, offset);
+        int from = first == 0 ? 0 : old.end(first - 1);
+
+        TokenStream tokens = new TokenStream(edited, old.size() + inserted / 2 + 1);
+        tokens.append(old, 0, first, 0);
+        Scanner scanner = new Scanner(edited.slice(from, edited.length()));
+        int next = first;
+        while (true) {
+            TokenKind kind = scanner.scanInto(tokens, from);
+            int start = tokens.start(tokens.size() - 1);
+            if (start >= offset + inserted) {
+                while (next < old.size() && (old.start(next) < editEnd || old.start(next) + delta < start))
+                    next++;
+                if (next < old.size() && old.start(next) + delta == start) {
+                    tokens.truncate(tokens.size() - 1);
+                    int newEnd = tokens.size();
+                    tokens.append(old, next, old.size(), delta);
+                    return new TokenEdit(tokens, first, next, newEnd);
+                }
+            }
+            // not reached, the final EOT tokens always meet
+            if (kind == TokenKind.EOT)
+                return new TokenEdit(tokens, first, old.size(), tokens.size());
+        }
+    }
+
+    /**
+     * @return the index of the first token whose end is at or after offset, the final EOT at the latest
+     */
+    private static int firstEndingAtOrAfter(TokenStream tokens, int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tokens.end(middle) < offset)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,117 @@
+package lexical.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Perfect-hash table of every {@link TokenKind#getSpelling()}, plus the spellings the scanner
+ * recognizes on top of them ("while", and "t"/"f" for boolean literals).
+ * A spelling is classified straight from a character buffer: the hash of its length, first and
+ * last character picks the only slot it can be in, and one comparison confirms it
+ */
+final class Keywords {
+    private static final String[] ALIAS_SPELLINGS = {"while", "t", "f"};
+    private static final TokenKind[] ALIAS_KINDS = {TokenKind.WHILE, TokenKind.BOOLEAN_LITERAL, TokenKind.BOOLEAN_LITERAL};
+
+    private static final char[][] SPELLINGS;
+    private static final TokenKind[] KINDS;
+    private static final int SHIFT;
+    private static final int SEED;
+    /**
+     * Length of the longest spelling, anything longer is an identifier
+     */
+    static final int MAX_LENGTH;
+
+    static {
+        List<String> spellings = new ArrayList<>();
+        List<TokenKind> kinds = new ArrayList<>();
+        for (TokenKind kind : TokenKind.values()) {
+            if (kind.getSpelling() != null) {
+                spellings.add(kind.getSpelling());
+                kinds.add(kind);
+            }
+        }
+        for (int i = 0; i < ALIAS_SPELLINGS.length; i++) {
+            spellings.add(ALIAS_SPELLINGS[i]);
+            kinds.add(ALIAS_KINDS[i]);
+        }
+
+        int maxLength = 0;
+        for (String spelling : spellings)
+            maxLength = Math.max(maxLength, spelling.length());
+        MAX_LENGTH = maxLength;
+
+        // smallest power of two table, at least twice the key count, for which some seed has no collision
+        int bits = 32 - Integer.numberOfLeadingZeros(spellings.size() * 2 - 1);
+        int seed = 0;
+        while (seed == 0) {
+            seed = findSeed(spellings, 32 - bits);
+            if (seed == 0)
+                bits++;
+        }
+        SHIFT = 32 - bits;
+        SEED = seed;
+
+        SPELLINGS = new char[1 << bits][];
+        KINDS = new TokenKind[1 << bits];
+        for (int i = 0; i < spellings.size(); i++) {
+            char[] spelling = spellings.get(i).toCharArray();
+            int slot = slot(spelling[0], spelling[spelling.length - 1], spelling.length, SEED, SHIFT);
+            SPELLINGS[slot] = spelling;
+            KINDS[slot] = kinds.get(i);
+        }
+    }
+
+    private Keywords() {
+    }
+
+    private static int findSeed(List<String> spellings, int shift) {
+        for (int seed = 0x9E3779B1; seed != 0x9E3779B1 + (1 << 17); seed += 2) {
+            boolean[] used = new boolean[1 << (32 - shift)];
+            boolean perfect = true;
+            for (String spelling : spellings) {
+                int slot = slot(spelling.charAt(0), spelling.charAt(spelling.length() - 1), spelling.length(), seed, shift);
+                if (used[slot]) {
+                    perfect = false;
+                    break;
+                }
+                used[slot] = true;
+            }
+            if (perfect)
+                return seed;
+        }
+        return 0;
+    }
+
+    private static int slot(char first, char last, int length, int seed, int shift) {
+        return ((first << 16 | last << 4 ^ length) * seed) >>> shift;
+    }
+
+    /**
+     * @return the kind spelled by chars[start, start + length), or {@link TokenKind#IDENTIFIER}
+     * when it is not a keyword
+     */
+    static TokenKind kind(char[] chars, int start, int length) {
+        if (length == 0 || length > MAX_LENGTH)
+            return TokenKind.IDENTIFIER;
+        int slot = slot(chars[start], chars[start + length - 1], length, SEED, SHIFT);
+        char[] keyword = SPELLINGS[slot];
+        if (keyword == null || keyword.length != length)
+            return TokenKind.IDENTIFIER;
+        for (int i = 0; i < length; i++)
+            if (keyword[i] != chars[start + i])
+                return TokenKind.IDENTIFIER;
+        return KINDS[slot];
+    }
+
+    /**
+     * @return the kind spelled by the whole string, or {@link TokenKind#IDENTIFIER}
+     * when it is not a keyword
+     */
+    static TokenKind kind(String spelling) {
+        int length = spelling.length();
+        if (length > MAX_LENGTH)
+            return TokenKind.IDENTIFIER;
+        return kind(spelling.toCharArray(), 0, length);
+    }
+}
@@ -0,0 +1,58 @@
+package lexical.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Offsets where the lines of a source start, in order, mapping an offset to its line by binary search.
+ * 4 bytes per line
+ */
+final class LineIndex {
+    private int[] starts;
+    private int count;
+
+    LineIndex() {
+        starts = new int[64];
+        count = 1;
+    }
+
+    /**
+     * Indexes the whole of a random access source in one pass
+     */
+    static LineIndex of(RandomAccessSourceInput source) {
+        LineIndex lines = new LineIndex();
+        int length = source.length();
+        for (int offset = 0; offset < length; offset++)
+            if (source.charAt(offset) == SourceFile.EOL)
+                lines.add(offset + 1);
+        return lines;
+    }
+
+    /**
+     * Adds a line starting at offset, after every line added so far
+     */
+    void add(int start) {
+        if (count == starts.length)
+            starts = Arrays.copyOf(starts, count * 2);
+        starts[count++] = start;
+    }
+
+    /**
+     * @return the line of the offset, from 1
+     */
+    int line(int offset) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= offset)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low + 1;
+    }
+
+    int start(int line) {
+        return starts[line - 1];
+    }
+}
@@ -0,0 +1,97 @@
+package lexical.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Lexes a large source on a {@link ForkJoinPool}: the source is cut into chunks right after a
+ * newline, each chunk is scanned by its own {@link Scanner}, and the chunk token streams are
+ * stitched back together with their offsets moved to the whole source.
+ * <p>
+ * Every newline is a safe boundary: no token spans a newline, and a '#' comment always ends at
+ * the first newline after it, so the text after any newline is lexed the same way whether the
+ * scanner starts there or arrives there. The merged stream is identical to
+ * {@link Scanner#scanAll()} over the whole source, which must be random access
+ */
+public class ParallelScanner {
+    /**
+     * Default minimum number of characters per chunk
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final SourceFile sourceFile;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelScanner(SourceFile sourceFile) {
+        this(sourceFile, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize minimum number of characters per chunk, chunks end at the next newline after it
+     * @throws IllegalArgumentException if the chunk size is below 1 or the source is not random access
+     */
+    public ParallelScanner(SourceFile sourceFile, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Chunk size must be at least 1, was " + chunkSize);
+        if (!sourceFile.isRandomAccess())
+            throw new IllegalArgumentException("A token stream needs a random access source, use SourceMode.BUFFERED or MAPPED");
+        this.sourceFile = sourceFile;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public TokenStream scanAll() {
+        int length = sourceFile.length();
+        List<Integer> boundaries = boundaries(length);
+
+        List<ForkJoinTask<TokenStream>> chunks = new ArrayList<>();
+        for (int i = 0; i + 1 < boundaries.size(); i++) {
+            SourceFile chunk = sourceFile.slice(boundaries.get(i), boundaries.get(i + 1));
+            chunks.add(pool.submit(() -> new Scanner(chunk).scanAll()));
+        }
+
+        List<TokenStream> scanned = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            TokenStream tokens = chunks.get(i).join();
+            scanned.add(tokens);
+            total += tokens.size();
+            // a NUL character ends the source early, as it does for a sequential scan
+            if (tokens.start(tokens.size() - 1) < boundaries.get(i + 1) - boundaries.get(i)) {
+                for (int j = i + 1; j < chunks.size(); j++)
+                    chunks.get(j).cancel(false);
+                break;
+            }
+        }
+
+        TokenStream merged = new TokenStream(sourceFile, total);
+        for (int i = 0; i < scanned.size(); i++) {
+            TokenStream tokens = scanned.get(i);
+            boolean last = i == scanned.size() - 1;
+            merged.append(tokens, last ? tokens.size() : tokens.size() - 1, boundaries.get(i));
+        }
+        return merged;
+    }
+
+    /**
+     * @return 0, the offset following the newline after every chunkSize characters, then length
+     */
+    private List<Integer> boundaries(int length) {
+        List<Integer> boundaries = new ArrayList<>();
+        boundaries.add(0);
+        int next = chunkSize;
+        while (next < length) {
+            while (next < length && sourceFile.charAt(next - 1) != SourceFile.EOL)
+                next++;
+            if (next >= length)
+                break;
+            boundaries.add(next);
+            next += chunkSize;
+        }
+        boundaries.add(length);
+        return boundaries;
+    }
+}
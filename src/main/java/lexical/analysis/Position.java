@@ -0,0 +1,48 @@
+package lexical.analysis;
+
+/**
+ * Source positions packed in one long, so that tokens, nodes and diagnostics carry them without
+ * an object each: the offset in the low 31 bits, the column in the next 10 and the line in the top 23.
+ * Lines and columns count from 1; a line past {@link #MAX_LINE} or a column past {@link #MAX_COLUMN}
+ * is stored as the maximum, the offset is always exact and {@link SourceFile#line(int)} and
+ * {@link SourceFile#column(int)} give the exact values from it.
+ * 0, line 0, is {@link #NONE}
+ */
+public final class Position {
+    public static final long NONE = 0;
+    public static final int MAX_LINE = (1 << 23) - 1;
+    public static final int MAX_COLUMN = (1 << 10) - 1;
+
+    private static final int COLUMN_SHIFT = 31;
+    private static final int LINE_SHIFT = 41;
+
+    private Position() {
+    }
+
+    public static long of(int offset, int line, int column) {
+        return (long) Math.min(line, MAX_LINE) << LINE_SHIFT
+                | (long) Math.min(column, MAX_COLUMN) << COLUMN_SHIFT
+                | offset;
+    }
+
+    public static int offset(long position) {
+        return (int) (position & Integer.MAX_VALUE);
+    }
+
+    public static int line(long position) {
+        return (int) (position >>> LINE_SHIFT);
+    }
+
+    public static int column(long position) {
+        return (int) (position >>> COLUMN_SHIFT) & MAX_COLUMN;
+    }
+
+    /**
+     * @return line:column, with a + after a saturated value
+     */
+    public static String toString(long position) {
+        int line = line(position);
+        int column = column(position);
+        return line + (line == MAX_LINE ? "+:" : ":") + column + (column == MAX_COLUMN ? "+" : "");
+    }
+}
@@ -0,0 +1,71 @@
+package lexical.analysis;
+
+/**
+ * Backend whose characters can be revisited, any offset at any time
+ */
+interface RandomAccessSourceInput extends SourceInput {
+    /**
+     * @return the number of characters in the whole source
+     */
+    int length();
+
+    /**
+     * @param offset from the beginning of the source, independent of what was already read
+     */
+    char charAt(int offset);
+
+    /**
+     * @return the characters in [start, end) as a new String
+     */
+    String spelling(int start, int end);
+
+    /**
+     * @return the offset of the character the next {@link #read()} returns
+     */
+    int position();
+
+    /**
+     * Makes the next {@link #read()} return the character at offset
+     */
+    void seek(int offset);
+
+    /**
+     * @return an independent input over the characters [start, end), sharing this input's storage
+     */
+    RandomAccessSourceInput slice(int start, int end);
+
+    @Override
+    default LineIndex lines() {
+        return LineIndex.of(this);
+    }
+
+    /**
+     * Skips the run of separators that starts at the next character: blanks, and '#' comments
+     * up to and including their end of line. Nothing is copied
+     *
+     * @param inComment whether the character read last opened a comment
+     * @return the number of characters skipped
+     */
+    default int skipSeparators(boolean inComment) {
+        int from = position();
+        int limit = length();
+        int i = from;
+        while (true) {
+            if (inComment) {
+                while (i < limit && charAt(i) != SourceFile.EOL && charAt(i) != SourceFile.EOT)
+                    i++;
+                if (i == limit || charAt(i) != SourceFile.EOL)
+                    break;
+                i++;
+            }
+            while (i < limit && SeparatorSkipper.isBlank(charAt(i)))
+                i++;
+            if (i == limit || charAt(i) != '#')
+                break;
+            i++;
+            inComment = true;
+        }
+        seek(i);
+        return i - from;
+    }
+}
@@ -0,0 +1,34 @@
+package lexical.analysis;
+
+/**
+ * One byte at a time, with a lookup table for blanks
+ */
+final class ScalarSeparatorSkipper extends SeparatorSkipper {
+    private static final boolean[] BLANK = new boolean[256];
+
+    static {
+        for (char c = 0; c < BLANK.length; c++)
+            BLANK[c] = isBlank(c);
+    }
+
+    @Override
+    int commentEnd(byte[] bytes, int from, int limit) {
+        int i = from;
+        while (i < limit && bytes[i] != SourceFile.EOL && bytes[i] != SourceFile.EOT)
+            i++;
+        return i;
+    }
+
+    @Override
+    int blanksEnd(byte[] bytes, int from, int limit) {
+        int i = from;
+        while (i < limit && BLANK[bytes[i] & 0xFF])
+            i++;
+        return i;
+    }
+
+    @Override
+    String name() {
+        return "scalar";
+    }
+}
@@ -1,14 +1,20 @@
 package lexical.analysis;
 
+import java.util.Arrays;
+
 public class Scanner {
     private final SourceFile sourceFile;
+    private final boolean bulkSkip;
     private char currentChar;
-    private StringBuffer currentSpelling;
+    private int currentOffset;
+    private char[] currentSpelling;
+    private int spellingLength;
 
     public Scanner(SourceFile sourceFile) {
         this.sourceFile = sourceFile;
+        this.bulkSkip = sourceFile.isRandomAccess();
         currentChar = sourceFile.getSource();
-        currentSpelling = new StringBuffer();
+        currentSpelling = new char[64];
     }
 
     /**
@@ -16,8 +22,18 @@ public class Scanner {
      * then gets the next character from the src file
      */
     private void takeIt() {
-        currentSpelling.append(currentChar);
+        if (spellingLength == currentSpelling.length)
+            currentSpelling = Arrays.copyOf(currentSpelling, spellingLength * 2);
+        currentSpelling[spellingLength++] = currentChar;
+        skipIt();
+    }
+
+    /**
+     * Gets the next character from the src file without recording the current one
+     */
+    private void skipIt() {
         currentChar = sourceFile.getSource();
+        currentOffset++;
     }
 
     private boolean isLetter(char c) {
@@ -28,10 +44,6 @@ public class Scanner {
         return (c >= '0' && c <= '9');
     }
 
-    private boolean isBooleanValue(char c) {
-        return (c == 't' || c == 'f');
-    }
-
     private boolean isBoolean(char curCharacter) {
         return curCharacter == 'b';
     }
@@ -47,54 +59,20 @@ public class Scanner {
     private void scanSeparator() {
         switch (currentChar) {
             case '#' -> {
-                takeIt();
-                while (currentChar != SourceFile.EOL && currentChar != SourceFile.EOT) takeIt();
-                if (currentChar == SourceFile.EOL) takeIt();
+                skipIt();
+                while (currentChar != SourceFile.EOL && currentChar != SourceFile.EOT) skipIt();
+                if (currentChar == SourceFile.EOL) skipIt();
             }
-            case ' ', '\n', '\r', '\t' -> takeIt();
+            case ' ', '\n', '\r', '\t' -> skipIt();
         }
     }
 
     private TokenKind scanToken() {
-         if (isLetter(currentChar)) {
-            if(currentChar == 'b'){
-                takeIt();
-                if(currentChar=='>'){
-                    return TokenKind.BOOLEAN;
-                }
-                else{
-                    while (isLetter(currentChar) || isDigit(currentChar)) {
-                        takeIt();
-                    } return TokenKind.IDENTIFIER;
-                }
-            }
-             if(currentChar == 'i'){
-                 takeIt();
-                 if(currentChar=='>'){
-                     return TokenKind.INTEGER;
-                 }
-                 else{
-                     while (isLetter(currentChar) || isDigit(currentChar)) {
-                         takeIt();
-                     } return TokenKind.IDENTIFIER;
-                 }
-             }
-
-
-
+        if (isLetter(currentChar)) {
             while (isLetter(currentChar) || isDigit(currentChar)) {
                 takeIt();
             }
-            if(currentSpelling.toString().equals("func")){
-                return TokenKind.FUNC;
-            }
-            if(currentSpelling.toString().equals("while")){
-                return TokenKind.WHILE;
-            }
-            if (currentSpelling.length()==1 && isBooleanValue(currentSpelling.charAt(0))) {
-                return TokenKind.BOOLEAN_LITERAL;
-            }
-            return TokenKind.IDENTIFIER;
+            return Keywords.kind(currentSpelling, 0, spellingLength);
         } else if (isDigit(currentChar)) {
             takeIt();
             while (isDigit(currentChar)) {
@@ -155,13 +133,68 @@ public class Scanner {
     }
 
 
-    public Token scan() {
-        while (currentChar == '#' || currentChar == '\n' || currentChar == '\r' || currentChar == '\t' || currentChar == ' ')
+    private boolean isSeparator(char c) {
+        return c == '#' || c == '\n' || c == '\r' || c == '\t' || c == ' ';
+    }
+
+    /**
+     * Skips the whole run of separators in front of the next token, in bulk over the
+     * source buffer when the source is random access
+     */
+    private void skipSeparators() {
+        if (bulkSkip) {
+            if (isSeparator(currentChar)) {
+                currentOffset += 1 + sourceFile.skipSeparators(currentChar == '#');
+                currentChar = sourceFile.getSource();
+            }
+            return;
+        }
+        while (isSeparator(currentChar))
             scanSeparator();
+    }
+
+    public Token scan() {
+        skipSeparators();
 
-        currentSpelling = new StringBuffer();
+        spellingLength = 0;
+        int start = currentOffset;
         TokenKind kind = scanToken();
 
-        return new Token(kind, new String(currentSpelling));
+        return new Token(kind, new String(currentSpelling, 0, spellingLength), start);
+    }
+
+    public SourceFile getSourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     * Scans the rest of the source into a packed {@link TokenStream} without creating
+     * a {@link Token} or a String per token, up to and including {@link TokenKind#EOT}
+     *
+     * @throws IllegalArgumentException if the source has no random access, the stream could not
+     * spell its tokens
+     */
+    public TokenStream scanAll() {
+        if (!sourceFile.isRandomAccess())
+            throw new IllegalArgumentException("A token stream needs a random access source, use SourceMode.BUFFERED or MAPPED");
+        TokenStream tokens = new TokenStream(sourceFile, sourceFile.length() / 4);
+        TokenKind kind;
+        do {
+            kind = scanInto(tokens, 0);
+        } while (kind != TokenKind.EOT);
+        return tokens;
+    }
+
+    /**
+     * Scans the next token into tokens, with its offsets moved by shift
+     */
+    TokenKind scanInto(TokenStream tokens, int shift) {
+        skipSeparators();
+
+        spellingLength = 0;
+        int start = currentOffset;
+        TokenKind kind = scanToken();
+        tokens.add(kind, start + shift, currentOffset + shift);
+        return kind;
     }
 }
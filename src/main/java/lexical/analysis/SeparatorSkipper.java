@@ -0,0 +1,60 @@
+package lexical.analysis;
+
+/**
+ * Skips runs of separators over a byte buffer in bulk: blanks, and '#' comments up to and
+ * including their end of line. Nothing is copied, only the index where the next token starts
+ * is computed. {@link #BEST} uses {@code jdk.incubator.vector} when that module is present
+ * (run with {@code --add-modules jdk.incubator.vector}) and a scalar loop otherwise
+ */
+abstract class SeparatorSkipper {
+    static final SeparatorSkipper SCALAR = new ScalarSeparatorSkipper();
+    static final SeparatorSkipper BEST = vectorSkipper();
+
+    private static SeparatorSkipper vectorSkipper() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return SCALAR;
+        try {
+            return new VectorSeparatorSkipper();
+        } catch (LinkageError ex) {
+            return SCALAR;
+        }
+    }
+
+    static boolean isBlank(char c) {
+        return c == ' ' || c == SourceFile.EOL || c == '\r' || c == '\t';
+    }
+
+    /**
+     * @param inComment whether the byte before {@code from} opened a comment
+     * @return the index of the first byte in [from, limit) that does not belong to a separator,
+     * or limit. A NUL byte ends the source, as in {@link SourceFile#getSource()}
+     */
+    final int skip(byte[] bytes, int from, int limit, boolean inComment) {
+        int i = from;
+        while (true) {
+            if (inComment) {
+                i = commentEnd(bytes, i, limit);
+                if (i == limit || bytes[i] != SourceFile.EOL)
+                    return i;
+                i++;
+            }
+            i = blanksEnd(bytes, i, limit);
+            if (i == limit || bytes[i] != '#')
+                return i;
+            i++;
+            inComment = true;
+        }
+    }
+
+    /**
+     * @return the index of the first end of line or NUL in [from, limit), or limit
+     */
+    abstract int commentEnd(byte[] bytes, int from, int limit);
+
+    /**
+     * @return the index of the first byte in [from, limit) that is not blank, or limit
+     */
+    abstract int blanksEnd(byte[] bytes, int from, int limit);
+
+    abstract String name();
+}
@@ -1,39 +1,242 @@
 package lexical.analysis;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class SourceFile {
     public static final char EOL = '\n';
     public static final char EOT = 0;
 
+    /**
+     * Files at least this large are memory-mapped in {@link SourceMode#AUTO} mode
+     */
+    public static final long MAPPED_THRESHOLD = 8L * 1024 * 1024;
 
-    private FileInputStream source;
 
+    private final SourceInput source;
+    private volatile LineIndex lines;
 
 
-    public SourceFile(String sourceFileName )
+
+    /**
+     * @throws UncheckedIOException if the file does not exist or cannot be read
+     */
+    public SourceFile( String sourceFileName )
+    {
+        this( sourceFileName, SourceMode.AUTO );
+    }
+
+
+    /**
+     * @throws UncheckedIOException if the file does not exist or cannot be read
+     */
+    public SourceFile( String sourceFileName, SourceMode mode )
     {
         try {
-            source = new FileInputStream( sourceFileName );
-        } catch( FileNotFoundException ex ) {
-            System.out.println( "*** FILE NOT FOUND *** (" + sourceFileName + ")" );
-            System.exit( 1 );
+            source = open( sourceFileName, mode );
+        } catch( FileNotFoundException | NoSuchFileException ex ) {
+            throw new UncheckedIOException( "File not found (" + sourceFileName + ")", ex );
+        } catch( IOException ex ) {
+            throw new UncheckedIOException( "File not readable (" + sourceFileName + ")", ex );
+        }
+    }
+
+
+    private SourceFile( SourceInput source )
+    {
+        this.source = source;
+    }
+
+
+    /**
+     * Source held in memory, e.g. a snippet received as a request payload
+     */
+    public static SourceFile of( CharSequence text )
+    {
+        return new SourceFile( new CharSequenceSourceInput( text ) );
+    }
+
+
+    /**
+     * Source held in memory, each byte is taken as one ISO-8859-1 character
+     */
+    public static SourceFile of( byte[] bytes )
+    {
+        return new SourceFile( new ByteArraySourceInput( bytes, 0, bytes.length ) );
+    }
+
+
+    /**
+     * Source made of the remaining bytes of the buffer, each byte is taken as one
+     * ISO-8859-1 character. The position of the given buffer is left untouched
+     */
+    public static SourceFile of( ByteBuffer buffer )
+    {
+        if( buffer.hasArray() )
+            return new SourceFile( new ByteArraySourceInput( buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() ) );
+        return new SourceFile( new ByteBufferSourceInput( buffer.slice() ) );
+    }
+
+
+    /**
+     * Source drained from the reader, which is read to the end but not closed
+     */
+    public static SourceFile of( Reader reader ) throws IOException
+    {
+        CharBuffer text = CharBuffer.allocate( 8192 );
+        while( reader.read( text ) >= 0 ) {
+            if( !text.hasRemaining() ) {
+                CharBuffer larger = CharBuffer.allocate( text.capacity() * 2 );
+                larger.put( text.flip() );
+                text = larger;
+            }
         }
+        return new SourceFile( new CharSequenceSourceInput( text.flip() ) );
     }
 
 
     public char getSource()
     {
-        try {
-            int c = source.read();
-            if( c < 0 )
-                return EOT;
-            else
-                return (char) c;
-        } catch( IOException ex ) {
-            return EOT;
+        return source.read();
+    }
+
+
+    /**
+     * @return whether the characters can be revisited after {@link #getSource()} has passed them,
+     * only {@link SourceMode#STREAM} sources cannot
+     */
+    public boolean isRandomAccess()
+    {
+        return source instanceof RandomAccessSourceInput;
+    }
+
+
+    /**
+     * @throws IllegalStateException if the source has no random access
+     */
+    public int length()
+    {
+        return random().length();
+    }
+
+
+    /**
+     * @throws IllegalStateException if the source has no random access
+     */
+    public char charAt( int offset )
+    {
+        return random().charAt( offset );
+    }
+
+
+    /**
+     * @return the characters in [start, end) of the source
+     * @throws IllegalStateException if the source has no random access
+     */
+    public String spelling( int start, int end )
+    {
+        return random().spelling( start, end );
+    }
+
+
+    /**
+     * @return the packed {@link Position} of the offset. The lines are indexed on the first call,
+     * in one pass over the source, then each call is a binary search over the line starts.
+     * A source without random access only knows the lines of the characters it has read
+     */
+    public long position( int offset )
+    {
+        LineIndex lines = lines();
+        int line = lines.line( offset );
+        return Position.of( offset, line, offset - lines.start( line ) + 1 );
+    }
+
+
+    /**
+     * @return the line of the offset, from 1, whatever the size of the source
+     */
+    public int line( int offset )
+    {
+        return lines().line( offset );
+    }
+
+
+    /**
+     * @return the column of the offset, from 1, whatever the length of its line
+     */
+    public int column( int offset )
+    {
+        LineIndex lines = lines();
+        return offset - lines.start( lines.line( offset ) ) + 1;
+    }
+
+
+    private LineIndex lines()
+    {
+        LineIndex lines = this.lines;
+        if( lines == null )
+            this.lines = lines = source.lines();
+        return lines;
+    }
+
+
+    /**
+     * @return an independent source over the characters [start, end) of this one, sharing its storage,
+     * random access sources only
+     */
+    SourceFile slice( int start, int end )
+    {
+        return new SourceFile( random().slice( start, end ) );
+    }
+
+
+    /**
+     * Bulk-skips the separators following the character read last, random access sources only
+     *
+     * @param inComment whether the character read last opened a comment
+     * @return the number of characters skipped
+     */
+    int skipSeparators( boolean inComment )
+    {
+        return random().skipSeparators( inComment );
+    }
+
+
+    private RandomAccessSourceInput random()
+    {
+        if( source instanceof RandomAccessSourceInput random )
+            return random;
+        throw new IllegalStateException( "Stream sources have no random access, use SourceMode.BUFFERED or MAPPED" );
+    }
+
+
+    private static SourceInput open( String sourceFileName, SourceMode mode ) throws IOException
+    {
+        if( mode == SourceMode.STREAM )
+            return new StreamSourceInput( sourceFileName );
+
+        try( FileChannel channel = FileChannel.open( Path.of( sourceFileName ), StandardOpenOption.READ ) ) {
+            long size = channel.size();
+            if( size > Integer.MAX_VALUE )
+                throw new IOException( "Source file larger than 2 GB: " + sourceFileName );
+
+            if( mode == SourceMode.MAPPED || ( mode == SourceMode.AUTO && size >= MAPPED_THRESHOLD ) )
+                return new ByteBufferSourceInput( channel.map( FileChannel.MapMode.READ_ONLY, 0, size ) );
+
+            byte[] bytes = new byte[(int) size];
+            ByteBuffer buffer = ByteBuffer.wrap( bytes );
+            while( buffer.hasRemaining() && channel.read( buffer ) >= 0 ) {
+                // a single read normally fills the buffer, loop for short reads
+            }
+            return new ByteArraySourceInput( bytes, 0, buffer.position() );
         }
     }
 }
@@ -0,0 +1,18 @@
+package lexical.analysis;
+
+/**
+ * Backend a {@link SourceFile} pulls its characters from, in order. Backends that can also revisit
+ * them are {@link RandomAccessSourceInput}s
+ */
+interface SourceInput {
+    /**
+     * @return the next character of the source, or {@link SourceFile#EOT} once it is exhausted
+     */
+    char read();
+
+    /**
+     * @return the line starts of the source, those of the characters read so far for a source
+     * without random access
+     */
+    LineIndex lines();
+}
@@ -0,0 +1,27 @@
+package lexical.analysis;
+
+/**
+ * Selects the input backend a {@link SourceFile} reads its characters from
+ */
+public enum SourceMode {
+    /**
+     * One {@code FileInputStream.read()} call per character, kept for comparison
+     */
+    STREAM,
+
+    /**
+     * The whole file is read into a heap buffer with large bulk reads
+     */
+    BUFFERED,
+
+    /**
+     * The file is memory-mapped with {@code FileChannel.map}
+     */
+    MAPPED,
+
+    /**
+     * {@link #MAPPED} for files of at least {@link SourceFile#MAPPED_THRESHOLD} bytes,
+     * {@link #BUFFERED} otherwise
+     */
+    AUTO
+}
@@ -0,0 +1,40 @@
+package lexical.analysis;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * Reads one byte per call straight from a {@link FileInputStream},
+ * characters that were already read cannot be revisited, so lines are indexed while reading
+ * and there is no random access
+ */
+final class StreamSourceInput implements SourceInput {
+    private final FileInputStream source;
+    private final LineIndex lines = new LineIndex();
+    private int read;
+
+    StreamSourceInput(String sourceFileName) throws FileNotFoundException {
+        source = new FileInputStream(sourceFileName);
+    }
+
+    @Override
+    public char read() {
+        try {
+            int c = source.read();
+            if (c < 0)
+                return SourceFile.EOT;
+            if (c == SourceFile.EOL)
+                lines.add(read + 1);
+            read++;
+            return (char) c;
+        } catch (IOException ex) {
+            return SourceFile.EOT;
+        }
+    }
+
+    @Override
+    public LineIndex lines() {
+        return lines;
+    }
+}
@@ -0,0 +1,170 @@
+package lexical.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lexer engine driven by precomputed tables instead of branches: every character below 128 maps
+ * to a character class, and a flat state-transition table indexed by state and class drives a
+ * maximal-munch DFA. Punctuation states are derived from the {@link TokenKind} spellings,
+ * identifiers are classified through {@link Keywords}.
+ * Produces exactly the tokens of {@link Scanner}, the source must be random access
+ */
+public class TableScanner {
+    // character classes with a fixed meaning, punctuation classes are numbered after them
+    private static final int OTHER = 0;
+    private static final int END = 1;
+    private static final int LETTER = 2;
+    private static final int DIGIT = 3;
+    private static final int SPACE = 4;
+    private static final int NEWLINE = 5;
+    private static final int HASH = 6;
+    private static final int ARITHMETIC = 7;
+    private static final int FIRST_PUNCTUATION = 8;
+
+    // states with a fixed meaning, punctuation states are numbered after them
+    private static final int STOP = -1;
+    private static final int START = 0;
+    private static final int COMMENT = 1;
+    private static final int IDENTIFIER = 2;
+    private static final int NUMBER = 3;
+    private static final int OPERATOR = 4;
+    private static final int ERROR = 5;
+    private static final int FIRST_PUNCTUATION_STATE = 6;
+
+    private static final String ARITHMETIC_OPERATORS = "+-*/";
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final int CLASSES;
+    private static final int[] TRANSITIONS;
+    private static final TokenKind[] ACCEPT;
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = LETTER;
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = DIGIT;
+        CHAR_CLASS[' '] = SPACE;
+        CHAR_CLASS['\t'] = SPACE;
+        CHAR_CLASS['\r'] = SPACE;
+        CHAR_CLASS[SourceFile.EOL] = NEWLINE;
+        CHAR_CLASS['#'] = HASH;
+        CHAR_CLASS[SourceFile.EOT] = END;
+        for (char c : ARITHMETIC_OPERATORS.toCharArray()) CHAR_CLASS[c] = ARITHMETIC;
+
+        // punctuation spellings, e.g. ">", "=" and "==", form a trie of states
+        List<String> punctuation = new ArrayList<>();
+        List<TokenKind> punctuationKinds = new ArrayList<>();
+        int classes = FIRST_PUNCTUATION;
+        for (TokenKind kind : TokenKind.values()) {
+            String spelling = kind.getSpelling();
+            if (spelling == null || CHAR_CLASS[spelling.charAt(0)] == LETTER)
+                continue;
+            punctuation.add(spelling);
+            punctuationKinds.add(kind);
+            for (char c : spelling.toCharArray())
+                if (CHAR_CLASS[c] == OTHER)
+                    CHAR_CLASS[c] = (byte) classes++;
+        }
+        CLASSES = classes;
+
+        List<String> prefixes = new ArrayList<>();
+        for (String spelling : punctuation)
+            for (int length = 1; length <= spelling.length(); length++)
+                if (!prefixes.contains(spelling.substring(0, length)))
+                    prefixes.add(spelling.substring(0, length));
+
+        int states = FIRST_PUNCTUATION_STATE + prefixes.size();
+        TRANSITIONS = new int[states * CLASSES];
+        ACCEPT = new TokenKind[states];
+        Arrays.fill(TRANSITIONS, STOP);
+
+        for (int c = 0; c < CLASSES; c++)
+            TRANSITIONS[START * CLASSES + c] = ERROR;
+        TRANSITIONS[START * CLASSES + END] = STOP;
+        TRANSITIONS[START * CLASSES + SPACE] = START;
+        TRANSITIONS[START * CLASSES + NEWLINE] = START;
+        TRANSITIONS[START * CLASSES + HASH] = COMMENT;
+        TRANSITIONS[START * CLASSES + LETTER] = IDENTIFIER;
+        TRANSITIONS[START * CLASSES + DIGIT] = NUMBER;
+        TRANSITIONS[START * CLASSES + ARITHMETIC] = OPERATOR;
+        ACCEPT[START] = TokenKind.EOT;
+
+        for (int c = 0; c < CLASSES; c++)
+            TRANSITIONS[COMMENT * CLASSES + c] = COMMENT;
+        TRANSITIONS[COMMENT * CLASSES + NEWLINE] = START;
+        TRANSITIONS[COMMENT * CLASSES + END] = STOP;
+        ACCEPT[COMMENT] = TokenKind.EOT;
+
+        TRANSITIONS[IDENTIFIER * CLASSES + LETTER] = IDENTIFIER;
+        TRANSITIONS[IDENTIFIER * CLASSES + DIGIT] = IDENTIFIER;
+        ACCEPT[IDENTIFIER] = TokenKind.IDENTIFIER;
+
+        TRANSITIONS[NUMBER * CLASSES + DIGIT] = NUMBER;
+        ACCEPT[NUMBER] = TokenKind.INTEGER_LITERAL;
+
+        ACCEPT[OPERATOR] = TokenKind.OPERATOR;
+        ACCEPT[ERROR] = TokenKind.ERROR;
+
+        for (int p = 0; p < prefixes.size(); p++) {
+            String prefix = prefixes.get(p);
+            int state = FIRST_PUNCTUATION_STATE + p;
+            int from = prefix.length() == 1 ? START : FIRST_PUNCTUATION_STATE + prefixes.indexOf(prefix.substring(0, prefix.length() - 1));
+            TRANSITIONS[from * CLASSES + CHAR_CLASS[prefix.charAt(prefix.length() - 1)]] = state;
+            int kind = punctuation.indexOf(prefix);
+            ACCEPT[state] = kind >= 0 ? punctuationKinds.get(kind) : TokenKind.ERROR;
+        }
+    }
+
+    private final SourceFile sourceFile;
+    private final int length;
+    private int position;
+    // the identifier being classified by keyword(), if it is short enough to be one
+    private final char[] spelling = new char[Keywords.MAX_LENGTH];
+
+    public TableScanner(SourceFile sourceFile) {
+        this.sourceFile = sourceFile;
+        this.length = sourceFile.length();
+    }
+
+    /**
+     * Scans the whole source into a packed {@link TokenStream}, up to and including {@link TokenKind#EOT}
+     */
+    public TokenStream scanAll() {
+        TokenStream tokens = new TokenStream(sourceFile, length / 4);
+        TokenKind kind;
+        do {
+            int state = START;
+            int start = position;
+            while (true) {
+                char c = position < length ? sourceFile.charAt(position) : SourceFile.EOT;
+                int next = TRANSITIONS[state * CLASSES + (c < 128 ? CHAR_CLASS[c] : OTHER)];
+                if (next == STOP)
+                    break;
+                position++;
+                state = next;
+                if (state == START)
+                    start = position;
+            }
+            kind = ACCEPT[state];
+            if (kind == TokenKind.IDENTIFIER)
+                kind = keyword(start, position);
+            else if (kind == TokenKind.EOT)
+                start = position;
+            tokens.add(kind, start, position);
+        } while (kind != TokenKind.EOT);
+        return tokens;
+    }
+
+    /**
+     * @return the keyword spelled by the source characters [start, end), or {@link TokenKind#IDENTIFIER}.
+     * They are copied into a buffer so that {@link Keywords} has a single lookup, over a char array
+     */
+    private TokenKind keyword(int start, int end) {
+        if (end - start > spelling.length)
+            return TokenKind.IDENTIFIER;
+        for (int i = start; i < end; i++)
+            spelling[i - start] = sourceFile.charAt(i);
+        return Keywords.kind(spelling, 0, end - start);
+    }
+}
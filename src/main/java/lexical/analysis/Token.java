@@ -4,6 +4,8 @@ public class Token {
 
     public TokenKind kind;
     public String spelling;
+    /** Offset of the token in its source, -1 when it was not scanned from one */
+    public int offset = -1;
 
 
     public Token( TokenKind kind, String spelling )
@@ -12,11 +14,18 @@ public class Token {
         this.spelling = spelling;
 
         if( kind == TokenKind.IDENTIFIER )
-            for( TokenKind tk: KEYWORDS )
-                if( spelling.equals( tk.getSpelling() ) ) {
-                    this.kind = tk;
-                    break;
-                }
+            this.kind = Keywords.kind( spelling );
+    }
+
+
+    /**
+     * For kinds the scanner has already classified against {@link Keywords}
+     */
+    Token( TokenKind kind, String spelling, int offset )
+    {
+        this.kind = kind;
+        this.spelling = spelling;
+        this.offset = offset;
     }
 
 
@@ -45,7 +54,21 @@ public class Token {
     }
 
 
-    private boolean containsOperator(String spelling, String[] OPS)
+    /**
+     * Binding strength of a binary operator: MULOPS bind tighter than ADDOPS,
+     * which bind tighter than == and any other spelling, at 0
+     */
+    public static int precedence( String spelling )
+    {
+        if( containsOperator( spelling, MULOPS ) )
+            return 2;
+        if( containsOperator( spelling, ADDOPS ) )
+            return 1;
+        return 0;
+    }
+
+
+    private static boolean containsOperator(String spelling, String[] OPS)
     {
         for (String op : OPS)
             if (spelling.equals(op))
@@ -54,9 +77,6 @@ public class Token {
         return false;
     }
 
-    private static final TokenKind[] KEYWORDS = { TokenKind.DECLARE, TokenKind.DECLARE_VAR_TYPE, TokenKind.DO, TokenKind.ELSE,  TokenKind.FUNC, TokenKind.IF,  TokenKind.RETURN, TokenKind.SAY, TokenKind.THEN, TokenKind.WHILE, TokenKind.VOID, TokenKind.INTEGER, TokenKind.BOOLEAN, TokenKind.INPUT, TokenKind.OUTPUT, TokenKind.ASSIGNMENT_OPERATOR, TokenKind.COMMA, TokenKind.SEMICOLON, TokenKind.LEFT_PARAM, TokenKind.RIGHT_PARAM, TokenKind.LEFT_BRACE, TokenKind.RIGHT_BRACE, TokenKind.INTEGER_LITERAL, TokenKind.BOOLEAN_LITERAL};
-
-
     private static final String[] ASSIGNOPS =
             {
                     "=",
@@ -0,0 +1,20 @@
+package lexical.analysis;
+
+/**
+ * The tokens of an edited source, as {@link IncrementalLexer} found them: tokens before
+ * {@link #first} are the old ones, tokens [first, newEnd) replace the old [first, oldEnd),
+ * and tokens from newEnd on are the old ones from oldEnd on, moved by the length change of the edit
+ */
+public final class TokenEdit {
+    public final TokenStream tokens;
+    public final int first;
+    public final int oldEnd;
+    public final int newEnd;
+
+    TokenEdit(TokenStream tokens, int first, int oldEnd, int newEnd) {
+        this.tokens = tokens;
+        this.first = first;
+        this.oldEnd = oldEnd;
+        this.newEnd = newEnd;
+    }
+}
@@ -0,0 +1,120 @@
+package lexical.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Packed form of the tokens of a source: kind and [start, end) offsets are kept in
+ * parallel int arrays over the source buffer, spellings are only materialized on request.
+ * The last token is always {@link TokenKind#EOT}
+ */
+public final class TokenStream {
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    private final SourceFile sourceFile;
+    private int[] kinds;
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    TokenStream(SourceFile sourceFile, int capacity) {
+        this.sourceFile = sourceFile;
+        int initial = Math.max(capacity, 16);
+        kinds = new int[initial];
+        starts = new int[initial];
+        ends = new int[initial];
+    }
+
+    void add(TokenKind kind, int start, int end) {
+        if (size == kinds.length) {
+            int grown = size + (size >> 1);
+            kinds = Arrays.copyOf(kinds, grown);
+            starts = Arrays.copyOf(starts, grown);
+            ends = Arrays.copyOf(ends, grown);
+        }
+        kinds[size] = kind.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    /**
+     * Appends the first count tokens of other, with their offsets moved by shift
+     */
+    void append(TokenStream other, int count, int shift) {
+        append(other, 0, count, shift);
+    }
+
+    /**
+     * Appends the tokens [from, to) of other, with their offsets moved by shift
+     */
+    void append(TokenStream other, int from, int to, int shift) {
+        int count = to - from;
+        if (size + count > kinds.length) {
+            int grown = Math.max(size + count, size + (size >> 1));
+            kinds = Arrays.copyOf(kinds, grown);
+            starts = Arrays.copyOf(starts, grown);
+            ends = Arrays.copyOf(ends, grown);
+        }
+        System.arraycopy(other.kinds, from, kinds, size, count);
+        for (int i = 0; i < count; i++) {
+            starts[size + i] = other.starts[from + i] + shift;
+            ends[size + i] = other.ends[from + i] + shift;
+        }
+        size += count;
+    }
+
+    /**
+     * Drops the tokens from index size on
+     */
+    void truncate(int size) {
+        this.size = size;
+    }
+
+    public SourceFile getSourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     * @return the number of tokens, including the final {@link TokenKind#EOT}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the kind of token i, indexes past the end answer {@link TokenKind#EOT}
+     */
+    public TokenKind kind(int i) {
+        return i < size ? KINDS[kinds[i]] : TokenKind.EOT;
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int end(int i) {
+        return ends[i];
+    }
+
+    /**
+     * @return the packed {@link Position} of the start of token i, worked out from its offset
+     * so that no position is stored per token
+     */
+    public long position(int i) {
+        return sourceFile.position(starts[i]);
+    }
+
+    /**
+     * Materializes the spelling of token i, the source must be random access
+     */
+    public String spelling(int i) {
+        return sourceFile.spelling(starts[i], ends[i]);
+    }
+
+    /**
+     * @return a {@link Token} view of token i, for code written against the Token API
+     */
+    public Token token(int i) {
+        return new Token(kind(i), spelling(i), starts[i]);
+    }
+}
@@ -0,0 +1,48 @@
+package lexical.analysis;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compares a whole vector of bytes per step with the preferred SIMD width of the platform,
+ * the tail shorter than one vector is finished by the scalar loop.
+ * Only loaded when the jdk.incubator.vector module is present
+ */
+final class VectorSeparatorSkipper extends SeparatorSkipper {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    int commentEnd(byte[] bytes, int from, int limit) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(limit - from);
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector chunk = ByteVector.fromArray(SPECIES, bytes, i);
+            VectorMask<Byte> end = chunk.eq((byte) SourceFile.EOL).or(chunk.eq((byte) SourceFile.EOT));
+            if (end.anyTrue())
+                return i + end.firstTrue();
+        }
+        return SCALAR.commentEnd(bytes, i, limit);
+    }
+
+    @Override
+    int blanksEnd(byte[] bytes, int from, int limit) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(limit - from);
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector chunk = ByteVector.fromArray(SPECIES, bytes, i);
+            VectorMask<Byte> blank = chunk.eq((byte) ' ')
+                    .or(chunk.eq((byte) SourceFile.EOL))
+                    .or(chunk.eq((byte) '\r'))
+                    .or(chunk.eq((byte) '\t'));
+            if (!blank.allTrue())
+                return i + blank.not().firstTrue();
+        }
+        return SCALAR.blanksEnd(bytes, i, limit);
+    }
+
+    @Override
+    String name() {
+        return "vector " + SPECIES.vectorBitSize() + " bit";
+    }
+}
@@ -0,0 +1,230 @@
+package runner;
+
+import ast.Program;
+import runtime.ProgramIO;
+import runtime.VirtualThreads;
+import vm.Budget;
+import vm.BudgetExceededException;
+import vm.RegisterCompiler;
+import vm.VirtualMachine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs many programs at once, each on a {@link VirtualMachine} of its own and within its own
+ * {@link Budget}. A program runs in slices of steps: at the end of a slice it pauses at a whl back
+ * edge or a function entry and is submitted again behind the slices already waiting, so a program
+ * that loops forever takes its turns with the others until its budget runs out, however few the threads.
+ * The default executor starts a virtual thread per slice when the JVM has them, else it is a fixed pool,
+ * any other can be given.
+ * Cancelling the future of a program stops it at the end of its slice
+ */
+public class ProgramRunner implements AutoCloseable {
+    public static final long DEFAULT_SLICE = 100_000;
+
+    private final ExecutorService executor;
+    private final long slice;
+    private final long created = System.nanoTime();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder budgetExceeded = new LongAdder();
+    private final LongAdder running = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder slices = new LongAdder();
+    private final LongAdder steps = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    // programs submitted and not ended, guarded by this
+    private int unfinished;
+    private boolean closed;
+
+    /**
+     * @param threads size of the pool run on when the JVM has no virtual threads
+     */
+    public ProgramRunner(int threads) {
+        this(defaultExecutor(threads), DEFAULT_SLICE);
+    }
+
+    /**
+     * @param executor runs the slices, it should take tasks in the order submitted and is shut down by {@link #close()}
+     * @param slice    steps a program runs before letting the others take their turn
+     */
+    public ProgramRunner(ExecutorService executor, long slice) {
+        this.executor = executor;
+        this.slice = slice;
+    }
+
+    /**
+     * @param program a program decorated by {@link semantic.analysis.SemanticAnalyzer}, compiled when it
+     *                first runs, it is only read so it may be submitted any number of times
+     * @return the result, completed when the program ends whichever way
+     * @throws IllegalStateException if the runner is closed
+     */
+    public CompletableFuture<RunResult> submit(Program program, ProgramIO io, Budget budget) {
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("The runner is closed");
+            unfinished++;
+        }
+        submitted.increment();
+        Run run = new Run(program, io, budget);
+        try {
+            enqueue(run);
+        } catch (RejectedExecutionException e) {
+            queued.decrement();
+            ended();
+            throw e;
+        }
+        return run.result;
+    }
+
+    public RunnerMetrics metrics() {
+        return new RunnerMetrics(submitted.sum(), completed.sum(), failed.sum(), budgetExceeded.sum(),
+                running.sum(), queued.sum(), slices.sum(), steps.sum(), queueNanos.sum(), runNanos.sum(),
+                System.nanoTime() - created);
+    }
+
+    /**
+     * Stops taking programs, waits for the ones submitted to end, then shuts the executor down.
+     * Interrupted, it stops waiting and keeps the interrupt status, the programs still running
+     * then end failed after their current slice
+     */
+    @Override
+    public void close() {
+        try {
+            synchronized (this) {
+                closed = true;
+                while (unfinished > 0)
+                    wait();
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            executor.shutdown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Run run) {
+        run.enqueued = System.nanoTime();
+        queued.increment();
+        executor.execute(run);
+    }
+
+    private synchronized void ended() {
+        if (--unfinished == 0)
+            notifyAll();
+    }
+
+    private static ExecutorService defaultExecutor(int threads) {
+        ExecutorService virtual = VirtualThreads.perTaskExecutor();
+        return virtual != null ? virtual : Executors.newFixedThreadPool(threads, ProgramRunner::daemon);
+    }
+
+    private static Thread daemon(Runnable task) {
+        Thread thread = new Thread(task, "shortsy-runner");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * A program being run, one slice each time it is executed
+     */
+    private final class Run implements Runnable {
+        private final Program program;
+        private final ProgramIO io;
+        private final Budget budget;
+        private final CompletableFuture<RunResult> result = new CompletableFuture<>();
+
+        private VirtualMachine vm;
+        private long enqueued;
+        private long stepsCharged;
+        private int sliceCount;
+        private long waited;
+        private long ran;
+
+        Run(Program program, ProgramIO io, Budget budget) {
+            this.program = program;
+            this.io = io;
+            this.budget = budget;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            queued.decrement();
+            waited += start - enqueued;
+            queueNanos.add(start - enqueued);
+            if (result.isCancelled()) {
+                if (vm != null)
+                    running.decrement();
+                ended();
+                return;
+            }
+            RunResult.Status status = null;
+            Throwable error = null;
+            try {
+                if (vm == null) {
+                    running.increment();
+                    vm = new VirtualMachine(io);
+                    vm.start(new RegisterCompiler(true).compile(program), budget);
+                }
+                if (vm.resume(slice))
+                    status = RunResult.Status.COMPLETED;
+            } catch (BudgetExceededException e) {
+                status = RunResult.Status.BUDGET_EXCEEDED;
+                error = e;
+            } catch (Throwable e) {
+                // whatever one program runs into, a stack overflow compiling it included, ends it alone
+                status = RunResult.Status.FAILED;
+                error = e;
+            }
+            long end = System.nanoTime();
+            ran += end - start;
+            runNanos.add(end - start);
+            sliceCount++;
+            slices.increment();
+            long charged = vm != null ? vm.steps() : 0;
+            steps.add(charged - stepsCharged);
+            stepsCharged = charged;
+
+            if (status == null) {
+                try {
+                    enqueue(this);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    queued.decrement();
+                    status = RunResult.Status.FAILED;
+                    error = e;
+                }
+            }
+            end(status, error);
+        }
+
+        private void end(RunResult.Status status, Throwable error) {
+            try {
+                if (error != null) {
+                    // keeps what the program wrote before failing
+                    try {
+                        io.flush();
+                    } catch (Throwable ignored) {
+                    }
+                }
+                (status == RunResult.Status.COMPLETED ? completed : status == RunResult.Status.FAILED ? failed : budgetExceeded).increment();
+                Budget.Resource exceeded = error instanceof BudgetExceededException e ? e.resource : null;
+                result.complete(new RunResult(status, exceeded, error, stepsCharged, sliceCount, waited, ran));
+            } finally {
+                running.decrement();
+                ended();
+            }
+        }
+    }
+}
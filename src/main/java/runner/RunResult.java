@@ -0,0 +1,44 @@
+package runner;
+
+import vm.Budget;
+
+/**
+ * How a program submitted to a {@link ProgramRunner} ended
+ */
+public final class RunResult {
+    public enum Status {
+        COMPLETED,
+        /** Failed compiling or at run time, dividing by zero or running out of input */
+        FAILED,
+        BUDGET_EXCEEDED
+    }
+
+    public final Status status;
+    /** The resource run out of when the budget was exceeded, else null */
+    public final Budget.Resource exceeded;
+    /** What the program failed or went over its budget with, else null */
+    public final Throwable error;
+    public final long steps;
+    public final int slices;
+    /** Nanoseconds spent waiting for a thread, before the first slice and between slices */
+    public final long queueNanos;
+    /** Nanoseconds spent running slices, compiling included */
+    public final long runNanos;
+
+    RunResult(Status status, Budget.Resource exceeded, Throwable error, long steps, int slices, long queueNanos, long runNanos) {
+        this.status = status;
+        this.exceeded = exceeded;
+        this.error = error;
+        this.steps = steps;
+        this.slices = slices;
+        this.queueNanos = queueNanos;
+        this.runNanos = runNanos;
+    }
+
+    @Override
+    public String toString() {
+        String outcome = exceeded != null ? status + " " + exceeded : error != null ? status + " " + error : status.toString();
+        return String.format("%s after %d steps in %d slices, %.3f ms queued, %.3f ms running",
+                outcome, steps, slices, queueNanos / 1e6, runNanos / 1e6);
+    }
+}
@@ -0,0 +1,66 @@
+package runner;
+
+/**
+ * Totals of a {@link ProgramRunner} since it was created, as read by {@link ProgramRunner#metrics()}.
+ * The counters are read one after the other while programs run, so they agree with each other
+ * only approximately
+ */
+public final class RunnerMetrics {
+    public final long submitted;
+    public final long completed;
+    public final long failed;
+    public final long budgetExceeded;
+    /** Programs started and not ended */
+    public final long running;
+    /** Slices waiting for a thread, of programs started or not */
+    public final long queued;
+    public final long slices;
+    public final long steps;
+    /** Nanoseconds slices spent waiting for a thread, in total */
+    public final long queueNanos;
+    /** Nanoseconds spent running slices, in total over every thread */
+    public final long runNanos;
+    public final long elapsedNanos;
+
+    RunnerMetrics(long submitted, long completed, long failed, long budgetExceeded, long running, long queued,
+                  long slices, long steps, long queueNanos, long runNanos, long elapsedNanos) {
+        this.submitted = submitted;
+        this.completed = completed;
+        this.failed = failed;
+        this.budgetExceeded = budgetExceeded;
+        this.running = running;
+        this.queued = queued;
+        this.slices = slices;
+        this.steps = steps;
+        this.queueNanos = queueNanos;
+        this.runNanos = runNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long ended() {
+        return completed + failed + budgetExceeded;
+    }
+
+    /**
+     * @return programs ended per second since the runner was created
+     */
+    public double programsPerSecond() {
+        return elapsedNanos == 0 ? 0 : ended() * 1e9 / elapsedNanos;
+    }
+
+    public double stepsPerSecond() {
+        return elapsedNanos == 0 ? 0 : steps * 1e9 / elapsedNanos;
+    }
+
+    public double meanQueueMillis() {
+        return slices == 0 ? 0 : queueNanos / 1e6 / slices;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d submitted, %d completed, %d failed, %d over budget, %d running, %d queued; "
+                        + "%.1f programs/s, %.0f steps/s, %.3f ms mean queue wait over %d slices",
+                submitted, completed, failed, budgetExceeded, running, queued,
+                programsPerSecond(), stepsPerSecond(), meanQueueMillis(), slices);
+    }
+}
@@ -0,0 +1,272 @@
+package runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Program I/O over byte channels through one buffer each way. Input values are separated by
+ * whitespace and parsed straight from the input buffer, booleans are spelled t and f as in the source.
+ * Output values are formatted straight into the output buffer, one per line, which is written out
+ * when full, on {@link #flush()} and as the {@link FlushPolicy} asks. Nothing builds a String per value.
+ * Output still buffered when a program fails is written by {@link #flush()} or {@link #close()}
+ */
+public class BufferedIO implements ProgramIO, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // longest value written, -2147483648 and its line end
+    private static final int MAX_VALUE_LENGTH = 12;
+
+    private final ReadableByteChannel in;
+    private final WritableByteChannel out;
+    // the stream behind out if there is one, flushed after the buffer is written to it
+    private final Flushable outStream;
+    private final FlushPolicy policy;
+
+    private final byte[] input;
+    private final ByteBuffer inputBuffer;
+    private int position;
+    private int limit;
+
+    private final byte[] output;
+    private final ByteBuffer outputBuffer;
+    private int length;
+
+    /**
+     * @param bufferSize size of each buffer, which also bounds the length of an input value
+     */
+    public BufferedIO(ReadableByteChannel in, WritableByteChannel out, FlushPolicy policy, int bufferSize) {
+        this(in, out, null, policy, bufferSize);
+    }
+
+    public BufferedIO(InputStream in, OutputStream out, FlushPolicy policy) {
+        this(Channels.newChannel(in), Channels.newChannel(out), out, policy, DEFAULT_BUFFER_SIZE);
+    }
+
+    private BufferedIO(ReadableByteChannel in, WritableByteChannel out, Flushable outStream, FlushPolicy policy, int bufferSize) {
+        if (bufferSize < MAX_VALUE_LENGTH)
+            throw new IllegalArgumentException("Buffer size " + bufferSize + " is below " + MAX_VALUE_LENGTH);
+        this.in = in;
+        this.out = out;
+        this.outStream = outStream;
+        this.policy = policy;
+        input = new byte[bufferSize];
+        inputBuffer = ByteBuffer.wrap(input);
+        output = new byte[bufferSize];
+        outputBuffer = ByteBuffer.wrap(output);
+    }
+
+    /**
+     * Reads the input file and writes the output file through file channels, {@link #close()} closes both
+     */
+    public static BufferedIO files(Path input, Path output, FlushPolicy policy) throws IOException {
+        FileChannel in = FileChannel.open(input, READ);
+        try {
+            return new BufferedIO(in, FileChannel.open(output, WRITE, CREATE, TRUNCATE_EXISTING), policy, DEFAULT_BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the given text and writes to output, for tests and embedding. The output is complete
+     * once the program ends or {@link #flush()} is called
+     */
+    public static BufferedIO inMemory(CharSequence input, ByteArrayOutputStream output) {
+        byte[] bytes = input.toString().getBytes(StandardCharsets.ISO_8859_1);
+        return new BufferedIO(new ByteArrayInputStream(bytes), output, FlushPolicy.WHEN_FULL);
+    }
+
+    @Override
+    public int readInt() {
+        int end = token();
+        int start = position;
+        position = end;
+        return parseInt(input, start, end);
+    }
+
+    @Override
+    public boolean readBoolean() {
+        int end = token();
+        boolean value = end - position == 1 && input[position] == 't';
+        position = end;
+        return value;
+    }
+
+    @Override
+    public void writeInt(int value) {
+        if (output.length - length < MAX_VALUE_LENGTH)
+            writeBuffer();
+        if (value < 0)
+            output[length++] = '-';
+        // digits are taken from the negative value, which -2147483648 has
+        int negative = value < 0 ? value : -value;
+        int end = length + digits(negative);
+        for (int i = end - 1; i >= length; i--) {
+            output[i] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        }
+        output[end] = '\n';
+        length = end + 1;
+        if (policy == FlushPolicy.EVERY_VALUE)
+            flush();
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        if (output.length - length < 2)
+            writeBuffer();
+        output[length++] = (byte) (value ? 't' : 'f');
+        output[length++] = '\n';
+        if (policy == FlushPolicy.EVERY_VALUE)
+            flush();
+    }
+
+    @Override
+    public void flush() {
+        writeBuffer();
+        if (outStream != null) {
+            try {
+                outStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Flushes, then closes both channels
+     */
+    @Override
+    public void close() throws IOException {
+        try (in; out) {
+            flush();
+        }
+    }
+
+    /**
+     * Skips the whitespace before the next input value and makes sure all of it is in the buffer
+     *
+     * @return the end of the value, which starts at position
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    private int token() {
+        if (policy == FlushPolicy.BEFORE_INPUT)
+            flush();
+        while (true) {
+            while (position < limit && input[position] <= ' ')
+                position++;
+            if (position < limit)
+                break;
+            if (!fill())
+                throw new NoSuchElementException("End of input");
+        }
+        int end = position;
+        while (true) {
+            while (end < limit && input[end] > ' ')
+                end++;
+            if (end < limit)
+                return end;
+            // the value may go on past what was read, fill moves it to the start of the buffer
+            end -= position;
+            if (!fill())
+                return position + end;
+            end += position;
+        }
+    }
+
+    /**
+     * Moves the unread input to the start of the buffer and reads more after it
+     *
+     * @return false at the end of the input, or when the unread input already fills the buffer
+     */
+    private boolean fill() {
+        System.arraycopy(input, position, input, 0, limit - position);
+        limit -= position;
+        position = 0;
+        if (limit == input.length)
+            return false;
+        try {
+            inputBuffer.limit(input.length).position(limit);
+            int read;
+            do {
+                read = in.read(inputBuffer);
+            } while (read == 0);
+            if (read < 0)
+                return false;
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBuffer() {
+        try {
+            outputBuffer.limit(length).position(0);
+            while (outputBuffer.hasRemaining())
+                out.write(outputBuffer);
+            length = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses as {@link Integer#parseInt(String)} does, an optional sign then decimal digits
+     */
+    static int parseInt(byte[] bytes, int start, int end) {
+        int i = start;
+        boolean negative = i < end && bytes[i] == '-';
+        if (negative || i < end && bytes[i] == '+')
+            i++;
+        if (i == end)
+            throw notAnInteger(bytes, start, end);
+        // accumulated negatively, so that -2147483648 fits
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int lastLimit = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || result < lastLimit)
+                throw notAnInteger(bytes, start, end);
+            result *= 10;
+            if (result < limit + digit)
+                throw notAnInteger(bytes, start, end);
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * @return the number of digits of a negative or zero value
+     */
+    private static int digits(int negative) {
+        int digits = 1;
+        for (int bound = -10; digits < 10 && negative <= bound; bound *= 10)
+            digits++;
+        return digits;
+    }
+
+    private static NumberFormatException notAnInteger(byte[] bytes, int start, int end) {
+        return new NumberFormatException("For input string: \"" + new String(bytes, start, end - start, StandardCharsets.ISO_8859_1) + "\"");
+    }
+}
@@ -0,0 +1,21 @@
+package runtime;
+
+/**
+ * Reads whitespace separated values, usually one per line, from standard input and prints one
+ * value per line to standard output, booleans are spelled t and f as in the source.
+ * Output is buffered and written out before waiting for input and when the program ends
+ */
+public class ConsoleIO extends BufferedIO {
+
+    public ConsoleIO() {
+        super(System.in, System.out, FlushPolicy.BEFORE_INPUT);
+    }
+
+    /**
+     * Only flushes, standard input and output stay open for the rest of the process
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+}
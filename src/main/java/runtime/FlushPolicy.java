@@ -0,0 +1,20 @@
+package runtime;
+
+/**
+ * When a {@link BufferedIO} writes its buffered output out, besides when the buffer is full and
+ * when the program ends
+ */
+public enum FlushPolicy {
+    /**
+     * Never otherwise, for batch runs
+     */
+    WHEN_FULL,
+    /**
+     * Before waiting for input, so whoever types the input sees the output asked for first
+     */
+    BEFORE_INPUT,
+    /**
+     * After every value, output appears as soon as it is written
+     */
+    EVERY_VALUE
+}
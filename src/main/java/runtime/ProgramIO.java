@@ -0,0 +1,28 @@
+package runtime;
+
+/**
+ * Where a running Shortsy program reads its in() values from and writes its out() values to
+ */
+public interface ProgramIO {
+    /**
+     * @return the next integer of the input
+     * @throws java.util.NoSuchElementException if the input is exhausted
+     */
+    int readInt();
+
+    /**
+     * @return the next boolean of the input, t or f
+     * @throws java.util.NoSuchElementException if the input is exhausted
+     */
+    boolean readBoolean();
+
+    void writeInt(int value);
+
+    void writeBoolean(boolean value);
+
+    /**
+     * Pushes out any buffered output, called once the program ends
+     */
+    default void flush() {
+    }
+}
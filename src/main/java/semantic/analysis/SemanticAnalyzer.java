@@ -0,0 +1,420 @@
+package semantic.analysis;
+
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Expression;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.Identifier;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.Terminal;
+import ast.Type;
+import ast.UnaryExpression;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
+import exceptions.SemanticException;
+import syntatic.analysis.Diagnostic;
+import syntatic.analysis.DiagnosticSink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Semantic analyzer checks the scope and type rules of a parsed {@link Program} and decorates
+ * its tree for execution: every {@link Identifier} is resolved to its declaration and a frame slot,
+ * every {@link Expression} gets its {@link Type} and every function the sizes of its frame.
+ * Names are resolved through a {@link SymbolTable} of interned spellings, in constant time whatever
+ * the number of declarations and the depth of the scopes.
+ * Variables declared outside functions live in the global frame. A function sees its own parameters
+ * and variables, and the global ones declared before it. Function names are global and visible
+ * everywhere, so functions may call each other in any order and recurse.
+ * One analyzer may analyze any number of programs in turn, also after one of them failed
+ */
+public class SemanticAnalyzer {
+    private static final int NO_CHECK = 0;
+    private static final int HAS_VALUE = 1;
+    private static final int HAS_TYPE = 2;
+
+    private final DiagnosticSink sink;
+
+    private final SymbolTable symbols = new SymbolTable();
+    // functions by symbol id of their name
+    private FunctionDeclaration[] functions = new FunctionDeclaration[64];
+    private Program program;
+    // calls typed from their context while the ret type of the callee was not known yet
+    private final List<CallExpression> assumedCalls = new ArrayList<>();
+    private FunctionDeclaration currentFunction;
+    private int intSlots;
+    private int booleanSlots;
+
+    // the expressions being typed, innermost last, with the operand each one is at and its check
+    private Expression[] walked = new Expression[16];
+    private int[] steps = new int[16];
+    private Type[] expectations = new Type[16];
+    private int[] checks = new int[16];
+    private int depth;
+
+    public SemanticAnalyzer() {
+        this(DiagnosticSink.NONE);
+    }
+
+    /**
+     * @param sink where the error is reported before it is thrown
+     */
+    public SemanticAnalyzer(DiagnosticSink sink) {
+        this.sink = sink;
+    }
+
+    public void analyze(Program program) throws SemanticException {
+        reset();
+        this.program = program;
+        program.functions.clear();
+        collectFunctions(program.block);
+        symbols.enterScope();
+        block(program.block);
+        symbols.exitScope();
+        program.intGlobals = intSlots;
+        program.booleanGlobals = booleanSlots;
+
+        for (CallExpression call : assumedCalls) {
+            FunctionDeclaration function = (FunctionDeclaration) call.name.declaration;
+            if (call.type != function.returnType)
+                throw error(String.format("Function %s returns %s where %s is expected", function.name.spelling, function.returnType, call.type), call.name);
+        }
+    }
+
+    /**
+     * Forgets what the previous analysis left, whether it ended or threw
+     */
+    private void reset() {
+        symbols.clear();
+        Arrays.fill(functions, null);
+        assumedCalls.clear();
+        currentFunction = null;
+        intSlots = 0;
+        booleanSlots = 0;
+        Arrays.fill(walked, 0, depth, null);
+        depth = 0;
+    }
+
+    private void collectFunctions(Block block) throws SemanticException {
+        for (Declaration declaration : block.declarations.dec)
+            collectFunction(declaration);
+        collectFunctions(block.statements);
+    }
+
+    private void collectFunctions(Statements statements) throws SemanticException {
+        if (statements == null)
+            return;
+        for (Statement statement : statements.stat) {
+            if (statement instanceof DeclarationStatement declaration) {
+                collectFunction(declaration.declaration);
+            } else if (statement instanceof IfStatement ifStatement) {
+                collectFunctions(ifStatement.ifStatement);
+                collectFunctions(ifStatement.elseStatement);
+            } else if (statement instanceof WhileStatement whileStatement) {
+                collectFunctions(whileStatement.stats);
+            }
+        }
+    }
+
+    private void collectFunction(Declaration declaration) throws SemanticException {
+        if (declaration instanceof FunctionDeclaration function) {
+            int symbol = symbols.intern(function.name.spelling);
+            if (symbol >= functions.length)
+                functions = Arrays.copyOf(functions, Math.max(symbol + 1, functions.length * 2));
+            if (functions[symbol] != null)
+                throw error(String.format("Function %s is already declared", function.name.spelling), function.name);
+            functions[symbol] = function;
+            function.name.declaration = function;
+            function.index = program.functions.size();
+            program.functions.add(function);
+            collectFunctions(function.block);
+        }
+    }
+
+    private void block(Block block) throws SemanticException {
+        for (Declaration declaration : block.declarations.dec)
+            declaration(declaration);
+        for (Statement statement : block.statements.stat)
+            statement(statement);
+    }
+
+    private void declaration(Declaration declaration) throws SemanticException {
+        if (declaration instanceof VariableDeclaration variable)
+            variableDeclaration(variable);
+        else
+            functionDeclaration((FunctionDeclaration) declaration);
+    }
+
+    /**
+     * Untyped parameters are integers
+     */
+    private void variableDeclaration(VariableDeclaration variable) throws SemanticException {
+        if (variable.type == null)
+            variable.type = Type.INTEGER;
+        if (variable.initializer != null)
+            expect(variable.initializer, variable.type);
+
+        Identifier identifier = variable.identifier;
+        if (!symbols.declare(symbols.intern(identifier.spelling), variable, currentFunction))
+            throw error(String.format("Variable %s is already declared", identifier.spelling), identifier);
+        identifier.declaration = variable;
+        identifier.type = variable.type;
+        identifier.slot = variable.type == Type.INTEGER ? intSlots++ : booleanSlots++;
+        identifier.global = currentFunction == null;
+    }
+
+    private void functionDeclaration(FunctionDeclaration function) throws SemanticException {
+        FunctionDeclaration enclosing = currentFunction;
+        int enclosingIntSlots = intSlots;
+        int enclosingBooleanSlots = booleanSlots;
+        currentFunction = function;
+        intSlots = 0;
+        booleanSlots = 0;
+
+        symbols.enterScope();
+        for (Declaration parameter : function.parameters.dec)
+            variableDeclaration((VariableDeclaration) parameter);
+        block(function.block);
+        if (function.expression != null)
+            function.returnType = typed(function.expression, null);
+        symbols.exitScope();
+
+        function.intFrameSize = intSlots;
+        function.booleanFrameSize = booleanSlots;
+        currentFunction = enclosing;
+        intSlots = enclosingIntSlots;
+        booleanSlots = enclosingBooleanSlots;
+    }
+
+    private void statements(Statements statements) throws SemanticException {
+        symbols.enterScope();
+        for (Statement statement : statements.stat)
+            statement(statement);
+        symbols.exitScope();
+    }
+
+    private void statement(Statement statement) throws SemanticException {
+        if (statement instanceof AssignStatement assign) {
+            expect(assign.exp, variable(assign.identifier).type);
+        } else if (statement instanceof DeclarationStatement declaration) {
+            declaration(declaration.declaration);
+        } else if (statement instanceof ExpressionStatement expression) {
+            expression(expression.exp, null);
+        } else if (statement instanceof IfStatement ifStatement) {
+            expect(ifStatement.exp, Type.BOOLEAN);
+            statements(ifStatement.ifStatement);
+            if (ifStatement.elseStatement != null)
+                statements(ifStatement.elseStatement);
+        } else if (statement instanceof WhileStatement whileStatement) {
+            expect(whileStatement.exp, Type.BOOLEAN);
+            statements(whileStatement.stats);
+        } else if (statement instanceof InStatement in) {
+            if (in.exp != null)
+                typed(in.exp, null);
+        } else {
+            typed(((OutStatement) statement).exp, null);
+        }
+    }
+
+    private void expect(Expression expression, Type type) throws SemanticException {
+        walk(expression, type, HAS_TYPE);
+    }
+
+    /**
+     * @return the type of an expression that must have a value
+     */
+    private Type typed(Expression expression, Type expected) throws SemanticException {
+        return walk(expression, expected, HAS_VALUE);
+    }
+
+    /**
+     * @param expected type the context asks for, null when any is fine
+     * @return the type of the expression, null for a procedure call
+     */
+    private Type expression(Expression expression, Type expected) throws SemanticException {
+        return walk(expression, expected, NO_CHECK);
+    }
+
+    /**
+     * Types the expression and its operands, left to right and each operand before the operator
+     * applied to it, over explicit stacks so that the Java stack stays flat however deep the nesting.
+     * What an operand is checked for, a value or a value of a given type, is decided by the
+     * expression using it when the walk reaches it
+     *
+     * @param check what the type found is checked for, one of NO_CHECK, HAS_VALUE and HAS_TYPE
+     */
+    private Type walk(Expression root, Type expected, int check) throws SemanticException {
+        depth = 0;
+        push(root, expected, check);
+        Type type = null;
+        while (depth > 0) {
+            int top = depth - 1;
+            Expression expression = walked[top];
+            int step = steps[top]++;
+            if (step == 0)
+                enter(expression);
+
+            if (expression instanceof BinaryExpression binary && step < 2) {
+                if (step == 1)
+                    push(binary.operand2, binary.operator.spelling.equals("==") ? binary.operand1.type : Type.INTEGER, HAS_TYPE);
+                else if (binary.operator.spelling.equals("=="))
+                    push(binary.operand1, null, HAS_VALUE);
+                else
+                    push(binary.operand1, Type.INTEGER, HAS_TYPE);
+                continue;
+            }
+            if (expression instanceof UnaryExpression unary && step == 0) {
+                push(unary.operand, Type.INTEGER, HAS_TYPE);
+                continue;
+            }
+            if (expression instanceof CallExpression call && step < call.listofExpressions.exp.size()) {
+                FunctionDeclaration function = (FunctionDeclaration) call.name.declaration;
+                Type parameterType = ((VariableDeclaration) function.parameters.dec.get(step)).type;
+                push(call.listofExpressions.exp.get(step), parameterType == null ? Type.INTEGER : parameterType, HAS_TYPE);
+                continue;
+            }
+
+            type = type(expression, expectations[top]);
+            expression.type = type;
+            if (checks[top] != NO_CHECK && type == null)
+                throw error(String.format("Procedure %s has no value", ((CallExpression) expression).name.spelling), ((CallExpression) expression).name);
+            if (checks[top] == HAS_TYPE && type != expectations[top])
+                throw error(String.format("Expected a value of type %s, found %s", expectations[top], type), terminal(expression));
+            walked[top] = null;
+            depth--;
+        }
+        return type;
+    }
+
+    /**
+     * Checks what an expression needs before its operands are typed
+     */
+    private void enter(Expression expression) throws SemanticException {
+        if (expression instanceof UnaryExpression unary) {
+            String operator = unary.operator.spelling;
+            if (!operator.equals("-") && !operator.equals("+"))
+                throw error(String.format("%s is not a unary operator", operator), unary.operator);
+        } else if (expression instanceof CallExpression call) {
+            int symbol = symbols.intern(call.name.spelling);
+            FunctionDeclaration function = symbol < functions.length ? functions[symbol] : null;
+            if (function == null)
+                throw error(String.format("Function %s is not declared", call.name.spelling), call.name);
+            call.name.declaration = function;
+
+            int parameters = function.parameters.dec.size();
+            int arguments = call.listofExpressions.exp.size();
+            if (parameters != arguments)
+                throw error(String.format("Function %s takes %d arguments, found %d", function.name.spelling, parameters, arguments), call.name);
+        }
+    }
+
+    /**
+     * @param expected type the context asks for, null when any is fine
+     * @return the type of an expression whose operands are typed, null for a procedure call
+     */
+    private Type type(Expression expression, Type expected) throws SemanticException {
+        if (expression instanceof VarExpression variable)
+            return variable(variable.name).type;
+        if (expression instanceof IntLiteralExpression literal) {
+            try {
+                literal.value = Integer.parseInt(literal.literal.spelling);
+            } catch (NumberFormatException e) {
+                throw error(String.format("Integer literal %s is out of range", literal.literal.spelling), literal.literal);
+            }
+            return Type.INTEGER;
+        }
+        if (expression instanceof BoolLiteralExpression literal) {
+            literal.value = literal.literal.spelling.equals("t");
+            return Type.BOOLEAN;
+        }
+        if (expression instanceof BinaryExpression binary)
+            return binary.operator.spelling.equals("==") ? Type.BOOLEAN : Type.INTEGER;
+        if (expression instanceof UnaryExpression)
+            return Type.INTEGER;
+
+        CallExpression call = (CallExpression) expression;
+        FunctionDeclaration function = (FunctionDeclaration) call.name.declaration;
+        if (function.expression == null)
+            return null;
+        if (function.returnType != null)
+            return function.returnType;
+        // the callee is analyzed later or is being analyzed, checked once it is done
+        assumedCalls.add(call);
+        return expected != null ? expected : Type.INTEGER;
+    }
+
+    private void push(Expression expression, Type expected, int check) {
+        if (depth == walked.length) {
+            walked = Arrays.copyOf(walked, depth * 2);
+            steps = Arrays.copyOf(steps, depth * 2);
+            expectations = Arrays.copyOf(expectations, depth * 2);
+            checks = Arrays.copyOf(checks, depth * 2);
+        }
+        walked[depth] = expression;
+        steps[depth] = 0;
+        expectations[depth] = expected;
+        checks[depth++] = check;
+    }
+
+    /**
+     * Resolves a variable use and decorates its identifier
+     */
+    private VariableDeclaration variable(Identifier identifier) throws SemanticException {
+        int index = symbols.lookup(symbols.intern(identifier.spelling));
+        if (index < 0)
+            throw error(String.format("Variable %s is not declared", identifier.spelling), identifier);
+        FunctionDeclaration owner = symbols.owner(index);
+        if (owner != null && owner != currentFunction)
+            throw error(String.format("Variable %s of function %s is not visible here", identifier.spelling, owner.name.spelling), identifier);
+        VariableDeclaration variable = symbols.declaration(index);
+        identifier.declaration = variable;
+        identifier.type = variable.type;
+        identifier.slot = variable.identifier.slot;
+        identifier.global = variable.identifier.global;
+        return variable;
+    }
+
+    /**
+     * @param at terminal of the construct in error, which locates it
+     */
+    private SemanticException error(String message, Terminal at) {
+        Diagnostic diagnostic = program.source != null && at.offset >= 0
+                ? Diagnostic.at("Semantic error: " + message, -1, program.source, at.offset)
+                : new Diagnostic("Semantic error: " + message, -1);
+        if (sink != DiagnosticSink.NONE)
+            sink.report(diagnostic);
+        return new SemanticException(diagnostic.message, diagnostic.position);
+    }
+
+    /**
+     * @return the terminal an expression is reported at: its operator, or its only terminal
+     */
+    private static Terminal terminal(Expression expression) {
+        if (expression instanceof VarExpression variable)
+            return variable.name;
+        if (expression instanceof IntLiteralExpression literal)
+            return literal.literal;
+        if (expression instanceof BoolLiteralExpression literal)
+            return literal.literal;
+        if (expression instanceof BinaryExpression binary)
+            return binary.operator;
+        if (expression instanceof UnaryExpression unary)
+            return unary.operator;
+        return ((CallExpression) expression).name;
+    }
+}
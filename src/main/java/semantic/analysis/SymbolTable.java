@@ -0,0 +1,150 @@
+package semantic.analysis;
+
+import ast.FunctionDeclaration;
+import ast.VariableDeclaration;
+
+import java.util.Arrays;
+
+/**
+ * Scoped symbol table over interned identifiers. Spellings are interned once into dense int ids,
+ * then the open scopes are one stack of declarations: {@code binding[id]} is the stack index of the
+ * innermost visible declaration of id, {@code shadowed[index]} the one it hides and
+ * {@code scopeStarts} the first index of each open scope. Declaring, looking up and leaving a scope
+ * take constant time and allocate nothing once the arrays have grown
+ */
+final class SymbolTable {
+    private static final int NONE = -1;
+
+    // interning, open addressing over the spelling hash codes
+    private String[] keys = new String[1024];
+    private int[] keyIds = new int[1024];
+    private int symbolCount;
+
+    private int[] binding = new int[256];
+
+    private int[] symbols = new int[256];
+    private int[] shadowed = new int[256];
+    private VariableDeclaration[] declarations = new VariableDeclaration[256];
+    private FunctionDeclaration[] owners = new FunctionDeclaration[256];
+    private int size;
+
+    private int[] scopeStarts = new int[32];
+    private int scopeDepth;
+
+    SymbolTable() {
+        Arrays.fill(binding, NONE);
+    }
+
+    /**
+     * @return the dense id of the spelling, the same for every equal spelling
+     */
+    int intern(String spelling) {
+        int mask = keys.length - 1;
+        int slot = mix(spelling.hashCode()) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(spelling))
+                return keyIds[slot];
+            slot = slot + 1 & mask;
+        }
+        keys[slot] = spelling;
+        keyIds[slot] = symbolCount;
+        if (++symbolCount * 2 > keys.length)
+            rehash();
+        if (symbolCount > binding.length) {
+            int old = binding.length;
+            binding = Arrays.copyOf(binding, old * 2);
+            Arrays.fill(binding, old, binding.length, NONE);
+        }
+        return symbolCount - 1;
+    }
+
+    int symbolCount() {
+        return symbolCount;
+    }
+
+    void enterScope() {
+        if (scopeDepth == scopeStarts.length)
+            scopeStarts = Arrays.copyOf(scopeStarts, scopeDepth * 2);
+        scopeStarts[scopeDepth++] = size;
+    }
+
+    /**
+     * Drops the declarations of the innermost scope, uncovering the ones they shadowed
+     */
+    void exitScope() {
+        int start = scopeStarts[--scopeDepth];
+        while (size > start) {
+            size--;
+            binding[symbols[size]] = shadowed[size];
+            declarations[size] = null;
+            owners[size] = null;
+        }
+    }
+
+    /**
+     * Drops every open scope, the interned spellings are kept
+     */
+    void clear() {
+        while (scopeDepth > 0)
+            exitScope();
+    }
+
+    /**
+     * @param owner function declaring the variable, null outside functions
+     * @return false, declaring nothing, if the symbol is already declared in the innermost scope
+     */
+    boolean declare(int symbol, VariableDeclaration declaration, FunctionDeclaration owner) {
+        int visible = binding[symbol];
+        if (visible != NONE && visible >= scopeStarts[scopeDepth - 1])
+            return false;
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+            shadowed = Arrays.copyOf(shadowed, size * 2);
+            declarations = Arrays.copyOf(declarations, size * 2);
+            owners = Arrays.copyOf(owners, size * 2);
+        }
+        symbols[size] = symbol;
+        shadowed[size] = visible;
+        declarations[size] = declaration;
+        owners[size] = owner;
+        binding[symbol] = size++;
+        return true;
+    }
+
+    /**
+     * @return the stack index of the visible declaration of the symbol, -1 if there is none
+     */
+    int lookup(int symbol) {
+        return binding[symbol];
+    }
+
+    VariableDeclaration declaration(int index) {
+        return declarations[index];
+    }
+
+    FunctionDeclaration owner(int index) {
+        return owners[index];
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldIds = keyIds;
+        keys = new String[oldKeys.length * 2];
+        keyIds = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = mix(oldKeys[i].hashCode()) & mask;
+            while (keys[slot] != null)
+                slot = slot + 1 & mask;
+            keys[slot] = oldKeys[i];
+            keyIds[slot] = oldIds[i];
+        }
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+}
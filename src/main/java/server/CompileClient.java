@@ -0,0 +1,55 @@
+package server;
+
+import driver.Compilation;
+import driver.CompilationResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compiles through the {@link CompileServer} listening on a socket, or in this process when
+ * there is none or it fails to answer
+ */
+public class CompileClient {
+    private final Path socket;
+
+    public CompileClient() {
+        this(CompileServer.DEFAULT_SOCKET);
+    }
+
+    public CompileClient(Path socket) {
+        this.socket = socket;
+    }
+
+    public CompilationResult compile(byte[] source) {
+        if (source.length <= CompileServer.MAX_SOURCE_BYTES && Files.exists(socket)) {
+            try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                out.writeInt(source.length);
+                out.write(source);
+                out.flush();
+                return CompilationResult.readFrom(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))));
+            } catch (IOException e) {
+                // no server behind the socket, or it went away
+            }
+        }
+        return Compilation.compile(source);
+    }
+
+    static boolean isListening(Path socket) {
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socket)).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package server;
+
+import driver.Compilation;
+import driver.CompilationResult;
+import runtime.VirtualThreads;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiles sources sent over a Unix domain socket, so that a caller running the compiler many times
+ * pays for JVM startup and the warm-up of the front end once. A request is the length of a source as an
+ * int followed by its bytes, the reply a {@link CompilationResult}, and a connection may carry
+ * any number of requests. Each connection is served on its own thread, a virtual one when the JVM has them
+ */
+public class CompileServer implements Closeable {
+    public static final Path DEFAULT_SOCKET = Path.of(System.getProperty("java.io.tmpdir"), "shortsy-compile.sock");
+    static final int MAX_SOURCE_BYTES = 64 << 20;
+    // longest wait between two accepts that failed in a row, in milliseconds
+    static final long MAX_ACCEPT_BACKOFF = 1000;
+
+    private final Path socket;
+    private final ServerSocketChannel channel;
+    private final ThreadFactory connectionThreads = connectionThreads();
+    private final Thread acceptor;
+    // connections being served and their threads
+    private final Map<SocketChannel, Thread> connections = new ConcurrentHashMap<>();
+    private final AtomicLong compiled = new AtomicLong();
+    private volatile IOException acceptError;
+
+    private CompileServer(Path socket, ServerSocketChannel channel) {
+        this.socket = socket;
+        this.channel = channel;
+        acceptor = new Thread(this::accept, "shortsy-compile-server");
+    }
+
+    /**
+     * Binds the socket, replacing a file left behind by a server that is gone, and starts accepting
+     */
+    public static CompileServer start(Path socket) throws IOException {
+        if (Files.exists(socket)) {
+            if (CompileClient.isListening(socket))
+                throw new IOException("A compile server already listens on " + socket);
+            Files.delete(socket);
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.bind(UnixDomainSocketAddress.of(socket));
+        return start(socket, channel);
+    }
+
+    /**
+     * Starts accepting on a channel already bound to the socket
+     */
+    static CompileServer start(Path socket, ServerSocketChannel channel) {
+        CompileServer server = new CompileServer(socket, channel);
+        server.acceptor.start();
+        return server;
+    }
+
+    /**
+     * @return how many sources have been compiled so far
+     */
+    public long compiled() {
+        return compiled.get();
+    }
+
+    /**
+     * @return the last error accepting a connection, or null if there was none
+     */
+    public IOException acceptError() {
+        return acceptError;
+    }
+
+    /**
+     * Stops accepting and removes the socket file. Connections being served are finished: each one
+     * answers the request it is reading or compiling, then ends as if its client had closed it
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        acceptor.interrupt();
+        try {
+            acceptor.join();
+            for (Map.Entry<SocketChannel, Thread> connection : connections.entrySet()) {
+                try {
+                    connection.getKey().shutdownInput();
+                } catch (IOException e) {
+                    // already closed by its thread
+                }
+                connection.getValue().join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Files.deleteIfExists(socket);
+    }
+
+    /**
+     * Accepts until the channel is closed. A failure, such as running out of file descriptors, is
+     * recorded and the next accept waits twice as long as the last one, up to {@link #MAX_ACCEPT_BACKOFF}
+     */
+    private void accept() {
+        long backoff = 0;
+        while (true) {
+            SocketChannel connection;
+            try {
+                connection = channel.accept();
+                backoff = 0;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                acceptError = e;
+                backoff = Math.min(Math.max(2 * backoff, 10), MAX_ACCEPT_BACKOFF);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            Thread thread = connectionThreads.newThread(() -> serve(connection));
+            connections.put(connection, thread);
+            thread.start();
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)));
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (length < 0 || length > MAX_SOURCE_BYTES)
+                    return;
+                byte[] source = in.readNBytes(length);
+                if (source.length < length)
+                    return;
+                CompilationResult result = Compilation.compile(source);
+                compiled.incrementAndGet();
+                result.writeTo(out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away, nothing to answer
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * @return a factory of virtual threads when the JVM has them, else of daemon platform threads
+     */
+    static ThreadFactory connectionThreads() {
+        ThreadFactory virtual = VirtualThreads.factory();
+        if (virtual != null)
+            return virtual;
+        return task -> {
+            Thread thread = new Thread(task, "shortsy-compile-connection");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Serves until the JVM is stopped, on the socket given as argument or {@link #DEFAULT_SOCKET}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        CompileServer server = start(args.length > 0 ? Path.of(args[0]) : DEFAULT_SOCKET);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // the socket file stays behind, the next server replaces it
+            }
+        }));
+        server.acceptor.join();
+    }
+}
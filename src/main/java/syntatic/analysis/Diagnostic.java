@@ -0,0 +1,58 @@
+package syntatic.analysis;
+
+import lexical.analysis.Position;
+import lexical.analysis.SourceFile;
+
+/**
+ * An error found by an analyzer, reported to a {@link DiagnosticSink}
+ */
+public final class Diagnostic {
+    public final String message;
+    /** Index of the token the error was found at, counted from 0, -1 past parsing */
+    public final int token;
+    /** Packed {@link Position} of the error in the source, {@link Position#NONE} if unknown */
+    public final long position;
+    /** Line and column of the error, exact where the packed position saturates, 0 if unknown */
+    public final int line;
+    public final int column;
+
+    public Diagnostic(String message, int token) {
+        this(message, token, Position.NONE);
+    }
+
+    public Diagnostic(String message, int token, long position) {
+        this(message, token, position, Position.line(position), Position.column(position));
+    }
+
+    public Diagnostic(String message, int token, long position, int line, int column) {
+        this.message = message;
+        this.token = token;
+        this.position = position;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * @return a diagnostic at the offset in the source, whose line and column are exact whatever its size
+     */
+    public static Diagnostic at(String message, int token, SourceFile source, int offset) {
+        long position = source.position(offset);
+        int line = Position.line(position);
+        int column = Position.column(position);
+        if (line == Position.MAX_LINE)
+            line = source.line(offset);
+        if (column == Position.MAX_COLUMN)
+            column = source.column(offset);
+        return new Diagnostic(message, token, position, line, column);
+    }
+
+    /**
+     * @return line:column: message, or token index: message when the position is unknown
+     */
+    @Override
+    public String toString() {
+        if (position != Position.NONE)
+            return line + ":" + column + ": " + message;
+        return String.format("token %d: %s", token, message);
+    }
+}
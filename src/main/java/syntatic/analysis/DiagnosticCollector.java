@@ -0,0 +1,29 @@
+package syntatic.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the diagnostics reported to it in memory, in order
+ */
+public class DiagnosticCollector implements DiagnosticSink {
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        diagnostics.add(diagnostic);
+    }
+
+    public List<Diagnostic> diagnostics() {
+        return Collections.unmodifiableList(diagnostics);
+    }
+
+    public boolean isEmpty() {
+        return diagnostics.isEmpty();
+    }
+
+    public void clear() {
+        diagnostics.clear();
+    }
+}
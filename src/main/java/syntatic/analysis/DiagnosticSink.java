@@ -0,0 +1,21 @@
+package syntatic.analysis;
+
+/**
+ * Where the analyzers report their errors. The default, {@link #NONE}, drops them, so no logging
+ * framework is loaded unless {@link #log4j(Class)} is asked for
+ */
+@FunctionalInterface
+public interface DiagnosticSink {
+    DiagnosticSink NONE = diagnostic -> {
+    };
+
+    void report(Diagnostic diagnostic);
+
+    /**
+     * @return a sink logging each diagnostic as an error of the logger of source,
+     * log4j is loaded on this first call
+     */
+    static DiagnosticSink log4j(Class<?> source) {
+        return new Log4jDiagnosticSink(source);
+    }
+}
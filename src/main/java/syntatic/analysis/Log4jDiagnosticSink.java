@@ -0,0 +1,21 @@
+package syntatic.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Logs diagnostics through log4j, configured by the log4j2.properties on the class path.
+ * Only referenced from {@link DiagnosticSink#log4j(Class)}, so log4j stays unloaded until then
+ */
+final class Log4jDiagnosticSink implements DiagnosticSink {
+    private final Logger logger;
+
+    Log4jDiagnosticSink(Class<?> source) {
+        logger = LogManager.getLogger(source);
+    }
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        logger.error(diagnostic.message);
+    }
+}
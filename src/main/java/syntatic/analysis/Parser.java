@@ -1,313 +1,615 @@
 package syntatic.analysis;
 
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.BooleanLiteral;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Declarations;
+import ast.Expression;
+import ast.ExpressionList;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.Identifier;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.IntegerLiteral;
+import ast.Operator;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.Terminal;
+import ast.Type;
+import ast.UnaryExpression;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
 import exceptions.SyntaticException;
+import lexical.analysis.Position;
 import lexical.analysis.Scanner;
 import lexical.analysis.Token;
 import lexical.analysis.TokenKind;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import lexical.analysis.TokenStream;
+
+import java.util.Arrays;
+import java.util.List;
 
 import static lexical.analysis.TokenKind.*;
 
 /**
  * The Syntax analyzer (Parser) takes a string of tokens from the Lexical analyzer (Scanner),
  * and verifies that the string input of tokens can be generated by accordance to the grammar
- * of the source language, returns any syntax error for the source language
+ * of the source language, returns any syntax error for the source language.
+ * On success it returns the {@link Program} tree of the source.
+ * {@link #parseProgram(List)} parses in recovering mode instead, collecting every error in one pass
  */
 public class Parser {
     private final Scanner scanner;
+    private final TokenStream tokens;
+    private int currentIndex;
     private Token currentTerminal;
-    private static final Logger logger = LogManager.getLogger(Parser.class);
+    private TokenKind currentKind;
+    private final DiagnosticSink sink;
+    // unwinds a recovering parse to the enclosing statement or declaration, the error is already collected
+    private static final SyntaticException RECOVER = new SyntaticException("Syntax error, recovering");
+    // where a recovering parse reports its errors, null when the first error throws
+    private DiagnosticSink recovering;
+
+    // kinds of what is pending in an expression, binary operators are pending with their precedence
+    private static final int UNARY = -1;
+    private static final int PARENTHESIS = -2;
+    private static final int CALL = -3;
+    // stacks of the expression parser, reused from one expression to the next
+    private Expression[] operands = new Expression[16];
+    private int operandCount;
+    private int[] pendingKinds = new int[16];
+    private Object[] pending = new Object[16];
+    private int pendingCount;
 
     public Parser(Scanner scanner) {
-        System.setProperty("log4j.configurationFile", "src/main/resources/log4j2.properties");
+        this(scanner, DiagnosticSink.NONE);
+    }
+
+    /**
+     * @param sink where the error is reported before it is thrown
+     */
+    public Parser(Scanner scanner, DiagnosticSink sink) {
+        this.sink = sink;
         this.scanner = scanner;
+        this.tokens = null;
         currentTerminal = scanner.scan();
+        currentKind = currentTerminal.kind;
+    }
+
+    /**
+     * Parses a packed token stream, no {@link Token} objects are created
+     */
+    public Parser(TokenStream tokens) {
+        this(tokens, DiagnosticSink.NONE);
+    }
+
+    public Parser(TokenStream tokens, DiagnosticSink sink) {
+        this.sink = sink;
+        this.scanner = null;
+        this.tokens = tokens;
+        currentIndex = 0;
+        currentKind = tokens.kind(0);
+    }
+
+    public Program parseProgram() throws SyntaticException {
+        Program program = program(parseBlock());
+        if (currentKind != EOT)
+            throw error("Tokens found after the end of the program");
+        return program;
+    }
+
+    /**
+     * Parses the source in recovering mode, adding each error to diagnostics
+     */
+    public Program parseProgram(List<Diagnostic> diagnostics) {
+        return parseProgram(diagnostics::add);
+    }
+
+    /**
+     * Parses the source whatever its errors: each one is reported to recovering, instead of the sink
+     * of the parser, and parsing resumes after the next ; or at the next } or statement keyword.
+     * Statements and declarations in error are left out of the program returned,
+     * which is empty when the source does not even start with go {
+     */
+    public Program parseProgram(DiagnosticSink recovering) {
+        this.recovering = recovering;
+        try {
+            Block block = parseBlock();
+            if (currentKind != EOT)
+                report("Tokens found after the end of the program");
+            return program(block);
+        } catch (SyntaticException e) {
+            return program(new Block(new Declarations(), new Statements()));
+        } finally {
+            this.recovering = null;
+        }
+    }
+
+    /**
+     * Moves a parser over a packed stream to token index, to parse part of the tokens again
+     * with {@link #parseDeclaration(DiagnosticSink)} and {@link #parseStatement(DiagnosticSink)}
+     */
+    public void seek(int index) {
+        if (tokens == null)
+            throw new IllegalStateException("Only a parser over a TokenStream can seek");
+        currentIndex = index;
+        currentKind = tokens.kind(index);
+    }
+
+    /**
+     * @return index of the current token, the next one to parse
+     */
+    public int position() {
+        return currentIndex;
+    }
+
+    /**
+     * @return whether the current token starts a declaration
+     */
+    public boolean atDeclaration() {
+        return currentKind == FUNC || currentKind == BOOLEAN || currentKind == INTEGER;
+    }
+
+    /**
+     * @return whether the current token ends the statements of a block, } or the end of the text
+     */
+    public boolean atBlockEnd() {
+        return currentKind == RIGHT_BRACE || currentKind == EOT;
     }
 
-    public void parseProgram() throws SyntaticException {
-        parseBlock();
-        if (currentTerminal.kind != EOT) {
-            logger.error("Syntax error: Tokens found after end of program");
-            throw new SyntaticException("Tokens found after the end of the program");
+    /**
+     * Parses one declaration of a block in recovering mode, as {@link #parseProgram(DiagnosticSink)} does
+     *
+     * @return the declaration, null when it was in error
+     */
+    public Declaration parseDeclaration(DiagnosticSink recovering) {
+        this.recovering = recovering;
+        try {
+            return parseDeclarationItem();
+        } catch (SyntaticException e) {
+            return null;
+        } finally {
+            this.recovering = null;
+        }
+    }
+
+    /**
+     * Parses one statement of a block in recovering mode, as {@link #parseProgram(DiagnosticSink)} does,
+     * skipping to the next statement a token that starts none
+     *
+     * @return the statement, null when it was in error
+     */
+    public Statement parseStatement(DiagnosticSink recovering) {
+        this.recovering = recovering;
+        try {
+            return parseStatementItem();
+        } catch (SyntaticException e) {
+            return null;
+        } finally {
+            this.recovering = null;
         }
     }
 
     /**
      * Check if declaration of a block is valid
      */
-    private void parseBlock() throws SyntaticException {
+    private Block parseBlock() throws SyntaticException {
         accept(DECLARE);
         accept(LEFT_BRACE);
-        parseDeclarations();
-        parseStatements();
-        accept(RIGHT_BRACE);
+        Declarations declarations = parseDeclarations();
+        Statements statements = parseStatements();
+        acceptClosing(RIGHT_BRACE);
+        return new Block(declarations, statements);
     }
 
 
-    private void parseDeclarations() throws SyntaticException {
-        while (currentTerminal.kind == EOT || currentTerminal.kind == FUNC|| currentTerminal.kind == BOOLEAN|| currentTerminal.kind == INTEGER)
-            parseOneDeclaration();
+    private Declarations parseDeclarations() throws SyntaticException {
+        Declarations declarations = new Declarations();
+        while (atDeclaration() || currentKind == EOT && recovering == null) {
+            Declaration declaration = parseDeclarationItem();
+            if (declaration != null)
+                declarations.dec.add(declaration);
+        }
+        return declarations;
     }
 
+    /**
+     * At the end of the text a declaration is reported missing, unless recovering where the } is
+     *
+     * @return the declaration, null when it was in error and skipped while recovering
+     */
+    private Declaration parseDeclarationItem() throws SyntaticException {
+        int start = currentIndex;
+        try {
+            return parseOneDeclaration();
+        } catch (SyntaticException e) {
+            synchronize(e, start);
+            return null;
+        }
+    }
 
-    private void parseOneDeclaration() throws SyntaticException {
-        switch (currentTerminal.kind) {
-            case INTEGER, BOOLEAN -> {
-                if (currentTerminal.kind == INTEGER) {accept(INTEGER);}
-                if (currentTerminal.kind == BOOLEAN) {accept(BOOLEAN);}
-                accept(DECLARE_VAR_TYPE);
-                accept(IDENTIFIER);
-                if (currentTerminal.kind == ASSIGNMENT_OPERATOR) {
-                    accept(ASSIGNMENT_OPERATOR);
-                }
-                if (currentTerminal.kind == BOOLEAN_LITERAL) {
-                    accept(BOOLEAN_LITERAL);
-                } else if (currentTerminal.kind == INTEGER_LITERAL) {
-                    accept(INTEGER_LITERAL);
-                }
+    private Declaration parseOneDeclaration() throws SyntaticException {
+        Declaration declaration;
+        switch (currentKind) {
+            case INTEGER, BOOLEAN -> declaration = parseVariableDeclaration();
+            case FUNC -> declaration = parseFunctionDeclaration();
+            default -> throw error("Variable or function expected when parsing single declaration");
+        }
+        if (currentKind == SEMICOLON) {
+            accept(SEMICOLON);
+        }
+        return declaration;
+    }
 
-            }
+    /**
+     * i> name [= expression] or b> name [= expression]
+     */
+    private VariableDeclaration parseVariableDeclaration() throws SyntaticException {
+        Type type = parseType();
+        Identifier identifier = parseIdentifier();
+        Expression initializer = null;
+        if (currentKind == ASSIGNMENT_OPERATOR) {
+            accept(ASSIGNMENT_OPERATOR);
+            initializer = parseExpression();
+        }
+        return new VariableDeclaration(type, identifier, initializer);
+    }
 
-            case FUNC -> {
-                accept(FUNC);
-                accept(IDENTIFIER);
-                accept(LEFT_PARAM);
-                if (currentTerminal.kind == IDENTIFIER) parseIdList();
-                accept(RIGHT_PARAM);
-                parseBlock();
-                accept(RETURN);
-                parseExpression();
+    private Type parseType() throws SyntaticException {
+        Type type;
+        if (currentKind == INTEGER) {
+            accept(INTEGER);
+            type = Type.INTEGER;
+        } else {
+            accept(BOOLEAN);
+            type = Type.BOOLEAN;
+        }
+        accept(DECLARE_VAR_TYPE);
+        return type;
+    }
 
-            }
-            default -> {
-                logger.error("Syntax error: Variable or function expected");
-                throw new SyntaticException("Variable or function expected when parsing single declaration");
+    /**
+     * func name(parameters) go { ... } ret expression, a function with a value,
+     * or func name(parameters) { statements }, a procedure
+     */
+    private FunctionDeclaration parseFunctionDeclaration() throws SyntaticException {
+        accept(FUNC);
+        Identifier name = parseIdentifier();
+        accept(LEFT_PARAM);
+        Declarations parameters = new Declarations();
+        if (currentKind == IDENTIFIER || currentKind == INTEGER || currentKind == BOOLEAN) {
+            parameters.dec.add(parseParameter());
+            while (currentKind == COMMA) {
+                accept(COMMA);
+                parameters.dec.add(parseParameter());
             }
         }
-        if (currentTerminal.kind == RIGHT_PARAM) {
-            accept(RIGHT_PARAM);
-        } if (currentTerminal.kind == SEMICOLON) {
-            accept(SEMICOLON);
+        accept(RIGHT_PARAM);
+
+        if (currentKind == DECLARE) {
+            Block block = parseBlock();
+            accept(RETURN);
+            return new FunctionDeclaration(name, parameters, block, parseExpression());
         }
+        accept(LEFT_BRACE);
+        Statements statements = parseStatements();
+        acceptClosing(RIGHT_BRACE);
+        return new FunctionDeclaration(name, parameters, new Block(new Declarations(), statements), null);
+    }
 
+    private VariableDeclaration parseParameter() throws SyntaticException {
+        Type type = null;
+        if (currentKind == INTEGER || currentKind == BOOLEAN)
+            type = parseType();
+        return new VariableDeclaration(type, parseIdentifier(), null);
     }
 
-    private void parseIdList() throws SyntaticException {
-        accept(IDENTIFIER);
+    private Statements parseStatements() throws SyntaticException {
+        Statements statements = new Statements();
+        while (atStatement() || recovering != null && !atBlockEnd()) {
+            Statement statement = parseStatementItem();
+            if (statement != null)
+                statements.stat.add(statement);
+        }
+        return statements;
+    }
 
-        while (currentTerminal.kind == COMMA) {
-            accept(COMMA);
-            accept(IDENTIFIER);
+    /**
+     * @return the statement, null when it was in error, or not a statement, and skipped while recovering
+     */
+    private Statement parseStatementItem() throws SyntaticException {
+        int start = currentIndex;
+        if (!atStatement()) {
+            // only } can follow the statements, reached only when recovering
+            report(String.format("Syntax error: Statement expected, found [%s]", currentKind));
+            skip(start);
+            return null;
+        }
+        try {
+            return parseOneStatement();
+        } catch (SyntaticException e) {
+            synchronize(e, start);
+            return null;
         }
     }
 
-    private void parseStatements() throws SyntaticException {
-        while (currentTerminal.kind == IDENTIFIER || currentTerminal.kind == OPERATOR || currentTerminal.kind == INTEGER || currentTerminal.kind == BOOLEAN || currentTerminal.kind == LEFT_PARAM || currentTerminal.kind == IF || currentTerminal.kind == WHILE || currentTerminal.kind == INPUT || currentTerminal.kind == OUTPUT || currentTerminal.kind == FUNC)
-            parseOneStatement();
+    private boolean atStatement() {
+        return currentKind == IDENTIFIER || currentKind == OPERATOR || currentKind == LEFT_PARAM || isStatementKeyword(currentKind);
     }
-    private void parseArguments() throws SyntaticException {
-        accept(LEFT_PARAM);
-        switch (currentTerminal.kind) {
-            case INTEGER, BOOLEAN -> {
-                parseExpression();
-                accept(DECLARE_VAR_TYPE);
-                accept(IDENTIFIER);
-            }
-        }
-        accept(RIGHT_PARAM);
+
+    private static boolean isStatementKeyword(TokenKind kind) {
+        return kind == INTEGER || kind == BOOLEAN || kind == IF || kind == WHILE || kind == INPUT || kind == OUTPUT || kind == FUNC;
     }
-    private void parseOneStatement() throws SyntaticException {
-        switch (currentTerminal.kind)
+
+    private Statement parseOneStatement() throws SyntaticException {
+        Statement statement;
+        switch (currentKind)
         {
-            case IDENTIFIER:
-                parseExpression();
-                if (currentTerminal.kind == SEMICOLON) {
-                    accept(SEMICOLON);
-                    break;
-                } else if (currentTerminal.kind == ASSIGNMENT_OPERATOR) {
+            case IDENTIFIER: {
+                Identifier identifier = parseIdentifier();
+                if (currentKind == ASSIGNMENT_OPERATOR) {
                     accept(ASSIGNMENT_OPERATOR);
-                    if (currentTerminal.kind == BOOLEAN_LITERAL) {
-                        accept(BOOLEAN_LITERAL);
-                    } else if (currentTerminal.kind == INTEGER_LITERAL) {
-                        accept(INTEGER_LITERAL);
-                    } else if (currentTerminal.kind == IDENTIFIER) {
-                        accept(IDENTIFIER);
-                        accept(OPERATOR);
-                        if (currentTerminal.kind == BOOLEAN_LITERAL) {
-                            accept(BOOLEAN_LITERAL);
-                        } else if (currentTerminal.kind == INTEGER_LITERAL) {
-                            accept(INTEGER_LITERAL);
-                        }
+                    if (currentKind == INPUT) {
+                        parseInput();
+                        statement = new InStatement(new VarExpression(identifier));
+                    } else {
+                        statement = new AssignStatement(identifier, parseExpression());
                     }
-                    else if(currentTerminal.kind == INPUT){
-                        parseOneStatement();
-                        break;
-                    }
-                    accept(SEMICOLON);
-                    break;
+                } else {
+                    statement = new ExpressionStatement(parseExpression(identifier));
                 }
+                accept(SEMICOLON);
                 break;
+            }
             case OPERATOR:
             case LEFT_PARAM:
-                parseExpression();
+                statement = new ExpressionStatement(parseExpression());
                 accept(SEMICOLON);
                 break;
             case INTEGER:
             case BOOLEAN:
-                parseExpression();
-                accept(DECLARE_VAR_TYPE);
-                accept(IDENTIFIER);
-                if (currentTerminal.kind == ASSIGNMENT_OPERATOR) {
-                    accept(ASSIGNMENT_OPERATOR);
-                }
-                if (currentTerminal.kind == BOOLEAN_LITERAL) {
-                    accept(BOOLEAN_LITERAL);
-                } else if (currentTerminal.kind == INTEGER_LITERAL) {
-                    accept(INTEGER_LITERAL);
-                }
+                statement = new DeclarationStatement(parseVariableDeclaration());
                 accept(SEMICOLON);
                 break;
 
-            case IF:
+            case IF: {
                 accept(IF);
-                parseExpression();
+                Expression condition = parseExpression();
                 accept(DO);
-                accept(LEFT_BRACE);
-                parseStatements();
-                accept(RIGHT_BRACE);
-                if (currentTerminal.kind == ELSE) {
+                Statements thenPart = parseBracedStatements();
+                Statements elsePart = null;
+                if (currentKind == ELSE) {
                     accept(ELSE);
-                    accept(LEFT_BRACE);
-                    parseStatements();
-                    accept(RIGHT_BRACE);
+                    elsePart = parseBracedStatements();
                 }
-
+                statement = new IfStatement(condition, thenPart, elsePart);
                 break;
+            }
 
-            case WHILE:
+            case WHILE: {
                 accept(WHILE);
-                parseExpression();
+                Expression condition = parseExpression();
                 accept(DO);
-                accept(LEFT_BRACE);
-                parseStatements();
-                accept(RIGHT_BRACE);
+                statement = new WhileStatement(condition, parseBracedStatements());
                 break;
+            }
 
             case INPUT:
-                accept(INPUT);
-                parseExpression();
+                statement = new InStatement(parseInput());
                 accept(SEMICOLON);
                 break;
             case OUTPUT:
                 accept(OUTPUT);
-                parseExpression();
+                statement = new OutStatement(parseExpression());
                 accept(SEMICOLON);
                 break;
-            case FUNC:
-                accept(FUNC);
-                accept(IDENTIFIER);
-
-                parseArguments();
-                accept(LEFT_BRACE);
-                parseStatements();
-                accept(RIGHT_BRACE);
             default:
+                statement = new DeclarationStatement(parseFunctionDeclaration());
                 break;
         }
+        return statement;
     }
 
-    private void parseExpression() throws SyntaticException {
-        parsePrimary();
-        while (currentTerminal.kind == OPERATOR) {
-            accept(OPERATOR);
-            parsePrimary();
-        }
+    private Statements parseBracedStatements() throws SyntaticException {
+        accept(LEFT_BRACE);
+        Statements statements = parseStatements();
+        acceptClosing(RIGHT_BRACE);
+        return statements;
+    }
 
-        while (currentTerminal.kind == COMMA) {
-            accept(COMMA);
-            parsePrimary();
+    /**
+     * in(), in(name) or in name
+     *
+     * @return the variable read into, null when the input is discarded
+     */
+    private Expression parseInput() throws SyntaticException {
+        accept(INPUT);
+        Expression target = null;
+        if (currentKind == LEFT_PARAM) {
+            accept(LEFT_PARAM);
+            if (currentKind == IDENTIFIER)
+                target = new VarExpression(parseIdentifier());
+            accept(RIGHT_PARAM);
+        } else {
+            target = new VarExpression(parseIdentifier());
         }
+        return target;
     }
 
-    private void parsePrimary() throws SyntaticException {
-        switch (currentTerminal.kind) {
-            case IDENTIFIER:
-                accept(IDENTIFIER);
-                if(currentTerminal.kind == ASSIGNMENT_OPERATOR){
-                    accept(ASSIGNMENT_OPERATOR);
-                    if(currentTerminal.kind == BOOLEAN_LITERAL){
-                        accept(BOOLEAN_LITERAL);
-                        accept(SEMICOLON);
-                    }
-                    else if(currentTerminal.kind== INTEGER_LITERAL){
-                        accept(INTEGER_LITERAL); accept(SEMICOLON);
+    private Expression parseExpression() throws SyntaticException {
+        return parseExpression(null);
+    }
+
+    /**
+     * Precedence climbing over explicit stacks, so that the Java stack stays flat however deep
+     * the nesting. A unary operator applies to the primary after it, then * and / bind tighter
+     * than + and -, which bind tighter than ==, all from left to right.
+     * Each token is pushed and popped once, the tree is built in linear time
+     *
+     * @param first identifier the expression starts with, already consumed, or null
+     */
+    private Expression parseExpression(Identifier first) throws SyntaticException {
+        operandCount = 0;
+        pendingCount = 0;
+        Identifier identifier = first;
+        while (true) {
+            // before an operand, whatever opens up around it is pending
+            if (identifier == null) {
+                switch (currentKind) {
+                    case OPERATOR:
+                        push(UNARY, located(new Operator(currentSpelling())));
+                        advance();
+                        continue;
+                    case LEFT_PARAM:
+                        push(PARENTHESIS, null);
+                        advance();
+                        continue;
+                    case IDENTIFIER:
+                        identifier = parseIdentifier();
+                        break;
+                    case INTEGER_LITERAL:
+                        pushOperand(new IntLiteralExpression(located(new IntegerLiteral(currentSpelling()))));
+                        advance();
+                        break;
+                    case BOOLEAN_LITERAL:
+                        pushOperand(new BoolLiteralExpression(located(new BooleanLiteral(currentSpelling()))));
+                        advance();
+                        break;
+                    default:
+                        throw error(String.format("Syntax error: Expression expected, found [%s]", currentKind));
+                }
+            }
+            if (identifier != null) {
+                if (currentKind == LEFT_PARAM) {
+                    advance();
+                    CallExpression call = new CallExpression(identifier, new ExpressionList());
+                    identifier = null;
+                    if (currentKind != RIGHT_PARAM) {
+                        push(CALL, call);
+                        continue;
                     }
+                    advance();
+                    pushOperand(call);
+                } else {
+                    pushOperand(new VarExpression(identifier));
+                    identifier = null;
                 }
-                if (currentTerminal.kind == EQUALS) {
-                    accept(EQUALS);
-                    if (currentTerminal.kind == IDENTIFIER || currentTerminal.kind == INTEGER_LITERAL || currentTerminal.kind == BOOLEAN_LITERAL)
-                        parseExpressionList();
-
+            }
 
+            // after an operand, close what it completes until an operator asks for the next one
+            while (true) {
+                while (pendingCount > 0 && pendingKinds[pendingCount - 1] == UNARY)
+                    pushOperand(new UnaryExpression((Operator) pending[--pendingCount], popOperand()));
+                if (currentKind == OPERATOR || currentKind == EQUALS) {
+                    Operator operator = located(new Operator(currentSpelling()));
+                    int precedence = Token.precedence(operator.spelling);
+                    reduce(precedence);
+                    push(precedence, operator);
+                    advance();
+                    break;
                 }
-                if (currentTerminal.kind == LEFT_PARAM) {
-                    accept(LEFT_PARAM);
-
-                    if (currentTerminal.kind == IDENTIFIER || currentTerminal.kind == INTEGER || currentTerminal.kind == BOOLEAN || currentTerminal.kind == OPERATOR || currentTerminal.kind == LEFT_PARAM)
-                        parseExpressionList();
-
-
+                reduce(0);
+                int open = pendingCount > 0 ? pendingKinds[pendingCount - 1] : UNARY;
+                if (open == CALL && (currentKind == COMMA || currentKind == RIGHT_PARAM)) {
+                    CallExpression call = (CallExpression) pending[pendingCount - 1];
+                    call.listofExpressions.exp.add(popOperand());
+                    boolean more = currentKind == COMMA;
+                    advance();
+                    if (more)
+                        break;
+                    pendingCount--;
+                    pushOperand(call);
+                } else if (open == PARENTHESIS && currentKind == RIGHT_PARAM) {
+                    pendingCount--;
+                    advance();
+                } else if (pendingCount == 0) {
+                    return popOperand();
+                } else {
                     accept(RIGHT_PARAM);
                 }
-                break;
+            }
+        }
+    }
 
-            case INTEGER:
-                accept(INTEGER);
-                break;
-            case BOOLEAN:
-                accept(BOOLEAN);
-                break;
+    /**
+     * Builds the pending binary expressions whose operators bind at least as tight as precedence
+     */
+    private void reduce(int precedence) {
+        while (pendingCount > 0 && pendingKinds[pendingCount - 1] >= precedence) {
+            Operator operator = (Operator) pending[--pendingCount];
+            Expression right = popOperand();
+            Expression left = popOperand();
+            pushOperand(new BinaryExpression(operator, left, right));
+        }
+    }
 
-            case OPERATOR:
-                accept(OPERATOR);
-                parsePrimary();
-                break;
+    private void push(int kind, Object item) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+            pendingKinds = Arrays.copyOf(pendingKinds, pendingCount * 2);
+        }
+        pendingKinds[pendingCount] = kind;
+        pending[pendingCount++] = item;
+    }
 
-            case LEFT_PARAM:
-            case RIGHT_PARAM:
-                accept(LEFT_PARAM);
-                if (currentTerminal.kind != RIGHT_PARAM && currentTerminal.kind != INTEGER && currentTerminal.kind != BOOLEAN) {
-                    parseExpression();
-                }
-                if (currentTerminal.kind == INTEGER || currentTerminal.kind == BOOLEAN) {
-                    parseStatements();
-                }
+    private void pushOperand(Expression operand) {
+        if (operandCount == operands.length)
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        operands[operandCount++] = operand;
+    }
 
-                accept(RIGHT_PARAM);
-                break;
+    private Expression popOperand() {
+        Expression operand = operands[--operandCount];
+        operands[operandCount] = null;
+        return operand;
+    }
 
+    private Identifier parseIdentifier() throws SyntaticException {
+        Identifier identifier = located(new Identifier(currentKind == IDENTIFIER ? currentSpelling() : null));
+        accept(IDENTIFIER);
+        return identifier;
+    }
 
-            case INTEGER_LITERAL:
-            case BOOLEAN_LITERAL:
-                if (currentTerminal.kind == INTEGER_LITERAL) {
-                    accept(INTEGER_LITERAL);
-                } else {
-                    accept(BOOLEAN_LITERAL);
-                }
-                break;
-            default:
-                break;
-        }
+    private Program program(Block block) {
+        Program program = new Program(block);
+        program.source = tokens != null ? tokens.getSourceFile() : scanner.getSourceFile();
+        return program;
     }
 
+    /**
+     * Sets the offset of a terminal made of the current token
+     */
+    private <T extends Terminal> T located(T terminal) {
+        terminal.offset = currentOffset();
+        return terminal;
+    }
 
-    private void parseExpressionList() throws SyntaticException {
-        parseExpression();
-        while (currentTerminal.kind == COMMA) {
-            accept(COMMA);
-            parseExpression();
-        }
+    private int currentOffset() {
+        return tokens != null ? tokens.start(currentIndex) : currentTerminal.offset;
+    }
+
+    /**
+     * @return a diagnostic at the current token
+     */
+    private Diagnostic currentDiagnostic(String message) {
+        return Diagnostic.at(message, currentIndex, tokens != null ? tokens.getSourceFile() : scanner.getSourceFile(), currentOffset());
+    }
+
+    /**
+     * @return the spelling of the current token, materialized from the packed stream when parsing one
+     */
+    private String currentSpelling() {
+        return tokens != null ? tokens.spelling(currentIndex) : currentTerminal.spelling;
     }
 
     /**
@@ -317,11 +619,74 @@ public class Parser {
      * @param expected token
      */
     private void accept(TokenKind expected) throws SyntaticException {
-        if (currentTerminal.kind == expected) {
-            currentTerminal = scanner.scan();
+        if (currentKind != expected)
+            throw error(String.format("Syntax error: Expected token of kind [%s]", expected));
+        advance();
+    }
+
+    /**
+     * accept for a token closing a construct, when recovering a missing one is reported
+     * and parsing goes on as if it were there
+     */
+    private void acceptClosing(TokenKind expected) throws SyntaticException {
+        if (currentKind == expected || recovering == null)
+            accept(expected);
+        else
+            report(String.format("Syntax error: Expected token of kind [%s]", expected));
+    }
+
+    private void advance() {
+        currentIndex++;
+        if (tokens != null) {
+            currentKind = tokens.kind(currentIndex);
         } else {
-            logger.error(String.format("Syntax error: Expected token of kind [%s]", expected));
-            throw new SyntaticException(String.format("Syntax error: Expected token of kind [%s]", expected));
+            currentTerminal = scanner.scan();
+            currentKind = currentTerminal.kind;
+        }
+    }
+
+    /**
+     * @return the exception to throw for a syntax error, reported to the sink, or when recovering
+     * the shared one unwinding to the enclosing statement, with the error reported
+     */
+    private SyntaticException error(String message) {
+        if (recovering != null) {
+            report(message);
+            return RECOVER;
+        }
+        Diagnostic diagnostic = currentDiagnostic(message);
+        if (sink != DiagnosticSink.NONE)
+            sink.report(diagnostic);
+        return new SyntaticException(message, diagnostic.position);
+    }
+
+    private void report(String message) {
+        recovering.report(currentDiagnostic(message));
+    }
+
+    /**
+     * Rethrows the error unless recovering, else skips to a point where parsing can resume
+     *
+     * @param start index of the first token of the construct in error
+     */
+    private void synchronize(SyntaticException error, int start) throws SyntaticException {
+        if (recovering == null)
+            throw error;
+        skip(start);
+    }
+
+    /**
+     * Skips past the next ; or to the next } or statement keyword, always moving past start
+     * so that parsing cannot loop on one token
+     */
+    private void skip(int start) {
+        if (currentIndex == start && currentKind != EOT)
+            advance();
+        while (currentKind != EOT && currentKind != RIGHT_BRACE && !isStatementKeyword(currentKind)) {
+            boolean semicolon = currentKind == SEMICOLON;
+            advance();
+            if (semicolon)
+                return;
         }
     }
 }
@@ -0,0 +1,32 @@
+package vm;
+
+/**
+ * Limits of a program run by {@link VirtualMachine#start(RegisterProgram, Budget)}, checked at the
+ * {@link Opcode#CHECK}s of code compiled with checkpoints and when the stacks grow.
+ * A step is one int of code: each pass through a whl loop is charged the length of the loop, each call
+ * the length of the function, so the steps charged bound the code executed but for the statements of
+ * the program outside loops, which run once
+ */
+public final class Budget {
+    public static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * What a program can run out of
+     */
+    public enum Resource {
+        STEPS,
+        CALL_DEPTH,
+        /** Bytes of the register and call stacks */
+        MEMORY
+    }
+
+    public final long steps;
+    public final int callDepth;
+    public final long memoryBytes;
+
+    public Budget(long steps, int callDepth, long memoryBytes) {
+        this.steps = steps;
+        this.callDepth = callDepth;
+        this.memoryBytes = memoryBytes;
+    }
+}
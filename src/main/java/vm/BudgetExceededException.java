@@ -0,0 +1,13 @@
+package vm;
+
+/**
+ * Thrown by the {@link VirtualMachine} when a program goes over its {@link Budget}
+ */
+public class BudgetExceededException extends RuntimeException {
+    public final Budget.Resource resource;
+
+    public BudgetExceededException(Budget.Resource resource, String message) {
+        super(message, null, false, false);
+        this.resource = resource;
+    }
+}
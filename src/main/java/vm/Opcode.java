@@ -0,0 +1,106 @@
+package vm;
+
+/**
+ * Instruction set of the register {@link VirtualMachine}.
+ * <p>
+ * Code is a flat int array: each instruction is its opcode followed by its operands, one int each,
+ * so an instruction takes 1 to 4 ints. Operands named r are registers of the current frame,
+ * g is a register of the global frame, imm an immediate value, target an absolute code index,
+ * function an index into {@link RegisterProgram}'s function tables.
+ * <p>
+ * Every call has its own register window on one shared stack. Integers and booleans (0 or 1)
+ * share the registers: variables come first, parameters of a function in their order, then the
+ * temporaries. The window of a callee starts at the register of its first argument in the
+ * caller, so arguments are passed without copying. The program's own frame is the global frame,
+ * functions reach it through {@link #GGET} and {@link #GSET}.
+ * <p>
+ * The superinstructions fuse the sequences loops are made of: {@link #ADD_IMM} covers
+ * {@code k = k + 1}, {@link #JUMP_EQ_IMM} and {@link #JUMP_NE_IMM} cover the load, compare and
+ * branch of {@code whl (k == n) == f do} and {@code if x == 0 do}
+ */
+public final class Opcode {
+    /** r, imm: r = imm */
+    public static final int CONST = 0;
+    /** r, r1: r = r1 */
+    public static final int MOVE = 1;
+    /** r, r1, r2: r = r1 + r2 */
+    public static final int ADD = 2;
+    /** r, r1, r2: r = r1 - r2 */
+    public static final int SUB = 3;
+    /** r, r1, r2: r = r1 * r2 */
+    public static final int MUL = 4;
+    /** r, r1, r2: r = r1 / r2 */
+    public static final int DIV = 5;
+    /** r, r1: r = -r1 */
+    public static final int NEG = 6;
+    /** r, r1, r2: r = r1 == r2 ? 1 : 0 */
+    public static final int EQ = 7;
+    /** r, r1, imm: r = r1 + imm */
+    public static final int ADD_IMM = 8;
+    /** r, g: r = global g */
+    public static final int GGET = 9;
+    /** g, r: global g = r */
+    public static final int GSET = 10;
+    /** target */
+    public static final int JUMP = 11;
+    /** r, target: jump when r is 0 */
+    public static final int JUMP_FALSE = 12;
+    /** r, target: jump when r is not 0 */
+    public static final int JUMP_TRUE = 13;
+    /** r1, r2, target: jump when r1 == r2 */
+    public static final int JUMP_EQ = 14;
+    /** r1, r2, target: jump when r1 != r2 */
+    public static final int JUMP_NE = 15;
+    /** r, imm, target: jump when r == imm */
+    public static final int JUMP_EQ_IMM = 16;
+    /** r, imm, target: jump when r != imm */
+    public static final int JUMP_NE_IMM = 17;
+    /** r, function, first: calls function with the window starting at register first, r = its result */
+    public static final int CALL = 18;
+    /** r: returns r to the caller */
+    public static final int RET = 19;
+    /** returns from a procedure */
+    public static final int RET_VOID = 20;
+    /** r: r = next integer of the input */
+    public static final int IN_INT = 21;
+    /** r: r = next boolean of the input */
+    public static final int IN_BOOL = 22;
+    /** reads and drops the next integer of the input */
+    public static final int IN_SKIP = 23;
+    /** r: writes r as an integer */
+    public static final int OUT_INT = 24;
+    /** r: writes r as a boolean */
+    public static final int OUT_BOOL = 25;
+    /** ends the program */
+    public static final int HALT = 26;
+    /** steps: charges steps to the {@link Budget}, checks the call depth and lets the program pause */
+    public static final int CHECK = 27;
+
+    private static final String[] NAMES = {
+            "CONST", "MOVE", "ADD", "SUB", "MUL", "DIV", "NEG", "EQ", "ADD_IMM", "GGET", "GSET",
+            "JUMP", "JUMP_FALSE", "JUMP_TRUE", "JUMP_EQ", "JUMP_NE", "JUMP_EQ_IMM", "JUMP_NE_IMM",
+            "CALL", "RET", "RET_VOID", "IN_INT", "IN_BOOL", "IN_SKIP", "OUT_INT", "OUT_BOOL", "HALT",
+            "CHECK",
+    };
+
+    private static final int[] OPERANDS = {
+            2, 2, 3, 3, 3, 3, 2, 3, 3, 2, 2,
+            1, 2, 2, 3, 3, 3, 3,
+            3, 1, 0, 1, 1, 0, 1, 1, 0,
+            1,
+    };
+
+    private Opcode() {
+    }
+
+    public static String name(int opcode) {
+        return NAMES[opcode];
+    }
+
+    /**
+     * @return the number of ints following the opcode
+     */
+    public static int operands(int opcode) {
+        return OPERANDS[opcode];
+    }
+}
@@ -0,0 +1,478 @@
+package vm;
+
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.Block;
+import ast.BoolLiteralExpression;
+import ast.CallExpression;
+import ast.Declaration;
+import ast.DeclarationStatement;
+import ast.Expression;
+import ast.ExpressionStatement;
+import ast.FunctionDeclaration;
+import ast.Identifier;
+import ast.IfStatement;
+import ast.InStatement;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.Statement;
+import ast.Statements;
+import ast.Type;
+import ast.UnaryExpression;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import ast.WhileStatement;
+
+import java.util.Arrays;
+
+import static vm.Opcode.*;
+
+/**
+ * Compiles a {@link Program} decorated by {@link semantic.analysis.SemanticAnalyzer} to the
+ * register code described in {@link Opcode}. Expressions are evaluated into the register of their
+ * destination where possible, temporaries are allocated as a stack above the variables.
+ * Conditions compile to compare-and-branch instructions, with an immediate when one side is a literal,
+ * and whl loops test their condition at the bottom, so an iteration of
+ * {@code whl (k == n) == f do { ... k = k + 1; }} ends in one ADD_IMM and one JUMP_NE_IMM.
+ * With checkpoints, each whl body and each function starts with a {@link Opcode#CHECK} charging
+ * its length, for programs run within a {@link Budget}
+ */
+public class RegisterCompiler {
+    private final boolean checkpoints;
+
+    private int[] code = new int[256];
+    private int length;
+
+    private Program program;
+    // register of each variable slot in the frame being compiled
+    private int[] intRegisters;
+    private int[] booleanRegisters;
+    private boolean inFunction;
+    // first free temporary, and the highest register used so far by the frame
+    private int top;
+    private int frameSize;
+
+    // the expressions being compiled, innermost last, with the operand each one is at, its target,
+    // the first temporary it took and the registers of its operands, the first argument for a call
+    private Expression[] pending = new Expression[16];
+    private int[] steps = new int[16];
+    private int[] targets = new int[16];
+    private int[] marks = new int[16];
+    private int[] lefts = new int[16];
+    private int[] rights = new int[16];
+    private int depth;
+
+    public RegisterCompiler() {
+        this(false);
+    }
+
+    public RegisterCompiler(boolean checkpoints) {
+        this.checkpoints = checkpoints;
+    }
+
+    public RegisterProgram compile(Program program) {
+        this.program = program;
+        length = 0;
+        int[] entries = new int[program.functions.size()];
+        int[] frameSizes = new int[program.functions.size()];
+
+        intRegisters = new int[program.intGlobals];
+        booleanRegisters = new int[program.booleanGlobals];
+        for (int slot = 0; slot < intRegisters.length; slot++)
+            intRegisters[slot] = slot;
+        for (int slot = 0; slot < booleanRegisters.length; slot++)
+            booleanRegisters[slot] = program.intGlobals + slot;
+        inFunction = false;
+        startFrame(program.intGlobals + program.booleanGlobals);
+        block(program.block);
+        emit(HALT);
+        int globalFrameSize = frameSize;
+
+        inFunction = true;
+        for (FunctionDeclaration function : program.functions) {
+            entries[function.index] = length;
+            function(function);
+            frameSizes[function.index] = frameSize;
+        }
+        return new RegisterProgram(Arrays.copyOf(code, length), globalFrameSize, entries, frameSizes);
+    }
+
+    /**
+     * Parameters take the first registers in their order, the other variables follow
+     */
+    private void function(FunctionDeclaration function) {
+        intRegisters = new int[function.intFrameSize];
+        booleanRegisters = new int[function.booleanFrameSize];
+        Arrays.fill(intRegisters, -1);
+        Arrays.fill(booleanRegisters, -1);
+        int register = 0;
+        for (Declaration declaration : function.parameters.dec) {
+            VariableDeclaration parameter = (VariableDeclaration) declaration;
+            (parameter.type == Type.INTEGER ? intRegisters : booleanRegisters)[parameter.identifier.slot] = register++;
+        }
+        for (int slot = 0; slot < intRegisters.length; slot++)
+            if (intRegisters[slot] < 0)
+                intRegisters[slot] = register++;
+        for (int slot = 0; slot < booleanRegisters.length; slot++)
+            if (booleanRegisters[slot] < 0)
+                booleanRegisters[slot] = register++;
+        startFrame(register);
+
+        int entry = length;
+        int check = checkpoint();
+        block(function.block);
+        if (function.expression == null) {
+            emit(RET_VOID);
+        } else {
+            int mark = top;
+            emit(RET, value(function.expression));
+            top = mark;
+        }
+        charge(check, entry);
+    }
+
+    private void startFrame(int variables) {
+        top = variables;
+        frameSize = variables;
+    }
+
+    private void block(Block block) {
+        for (Declaration declaration : block.declarations.dec)
+            if (declaration instanceof VariableDeclaration variable)
+                declare(variable);
+        statements(block.statements);
+    }
+
+    private void statements(Statements statements) {
+        for (Statement statement : statements.stat)
+            statement(statement);
+    }
+
+    private void statement(Statement statement) {
+        int mark = top;
+        if (statement instanceof AssignStatement assign) {
+            assign(assign.identifier, assign.exp);
+        } else if (statement instanceof IfStatement ifStatement) {
+            int elseJump = jumpIfFalse(ifStatement.exp);
+            statements(ifStatement.ifStatement);
+            if (ifStatement.elseStatement == null) {
+                patch(elseJump, length);
+            } else {
+                int endJump = emitJump(JUMP);
+                patch(elseJump, length);
+                statements(ifStatement.elseStatement);
+                patch(endJump, length);
+            }
+        } else if (statement instanceof WhileStatement whileStatement) {
+            int conditionJump = emitJump(JUMP);
+            int body = length;
+            int check = checkpoint();
+            statements(whileStatement.stats);
+            patch(conditionJump, length);
+            jumpIfTrue(whileStatement.exp, body);
+            charge(check, body);
+        } else if (statement instanceof ExpressionStatement expression) {
+            value(expression.exp);
+        } else if (statement instanceof OutStatement out) {
+            emit(out.exp.type == Type.INTEGER ? OUT_INT : OUT_BOOL, value(out.exp));
+        } else if (statement instanceof DeclarationStatement declaration) {
+            if (declaration.declaration instanceof VariableDeclaration variable)
+                declare(variable);
+        } else {
+            read((InStatement) statement);
+        }
+        top = mark;
+    }
+
+    private void declare(VariableDeclaration variable) {
+        if (variable.initializer == null)
+            emit(CONST, register(variable.identifier), 0);
+        else
+            assign(variable.identifier, variable.initializer);
+    }
+
+    private void assign(Identifier identifier, Expression expression) {
+        if (isGlobalFromFunction(identifier)) {
+            emit(GSET, globalRegister(identifier), value(expression));
+        } else {
+            valueTo(expression, register(identifier));
+        }
+    }
+
+    private void read(InStatement in) {
+        if (in.exp == null) {
+            emit(IN_SKIP);
+            return;
+        }
+        Identifier identifier = ((VarExpression) in.exp).name;
+        int opcode = in.exp.type == Type.INTEGER ? IN_INT : IN_BOOL;
+        if (isGlobalFromFunction(identifier)) {
+            int temporary = temporary();
+            emit(opcode, temporary);
+            emit(GSET, globalRegister(identifier), temporary);
+        } else {
+            emit(opcode, register(identifier));
+        }
+    }
+
+    /**
+     * @return the position of the target operand of a forward jump taken when the condition is false
+     */
+    private int jumpIfFalse(Expression condition) {
+        return conditionalJump(condition, false);
+    }
+
+    private void jumpIfTrue(Expression condition, int target) {
+        patch(conditionalJump(condition, true), target);
+    }
+
+    /**
+     * Emits a jump taken when the condition equals when, with its target left to patch.
+     * e == t and e == f are branches on e itself, other comparisons fuse into one instruction
+     */
+    private int conditionalJump(Expression condition, boolean when) {
+        while (condition instanceof BinaryExpression binary && binary.operator.spelling.equals("==")
+                && binary.operand2 instanceof BoolLiteralExpression literal) {
+            when = literal.value == when;
+            condition = binary.operand1;
+        }
+        int mark = top;
+        int jump;
+        if (condition instanceof BinaryExpression binary && binary.operator.spelling.equals("==")) {
+            if (binary.operand2 instanceof IntLiteralExpression literal) {
+                jump = emitJump(when ? JUMP_EQ_IMM : JUMP_NE_IMM, value(binary.operand1), literal.value);
+            } else {
+                int left = leftValue(binary.operand1, binary.operand2);
+                jump = emitJump(when ? JUMP_EQ : JUMP_NE, left, value(binary.operand2));
+            }
+        } else if (condition instanceof BoolLiteralExpression literal) {
+            // always or never taken, the never taken jump goes to the next instruction
+            jump = literal.value == when ? emitJump(JUMP) : emitJump(JUMP_FALSE, constant(1));
+        } else {
+            jump = emitJump(when ? JUMP_TRUE : JUMP_FALSE, value(condition));
+        }
+        top = mark;
+        return jump;
+    }
+
+    /**
+     * @return the register holding the value of the expression, a variable is used in place
+     */
+    private int value(Expression expression) {
+        if (expression instanceof VarExpression variable && !isGlobalFromFunction(variable.name))
+            return register(variable.name);
+        int temporary = temporary();
+        valueTo(expression, temporary);
+        return temporary;
+    }
+
+    /**
+     * Compiles the expression, each operand before the operator applied to it, over explicit
+     * stacks so that the Java stack stays flat however deep the nesting. Temporaries taken
+     * by an expression are given back once it is computed
+     */
+    private void valueTo(Expression root, int target) {
+        depth = 0;
+        push(root, target);
+        while (depth > 0) {
+            int frame = depth - 1;
+            Expression expression = pending[frame];
+            int step = steps[frame]++;
+            if (expression instanceof BinaryExpression binary) {
+                String operator = binary.operator.spelling;
+                boolean immediate = binary.operand2 instanceof IntLiteralExpression && (operator.equals("+") || operator.equals("-"));
+                // the register is known before the operand is pushed, which may grow the stacks
+                if (step == 0) {
+                    int left = immediate ? operand(binary.operand1) : leftOperand(binary.operand1, binary.operand2);
+                    lefts[frame] = left;
+                    continue;
+                }
+                if (step == 1 && !immediate) {
+                    int right = operand(binary.operand2);
+                    rights[frame] = right;
+                    continue;
+                }
+                binary(binary, targets[frame], lefts[frame], rights[frame]);
+            } else if (expression instanceof UnaryExpression unary) {
+                boolean negate = unary.operator.spelling.equals("-");
+                if (step == 0) {
+                    if (negate) {
+                        int negated = operand(unary.operand);
+                        lefts[frame] = negated;
+                    } else {
+                        push(unary.operand, targets[frame]);
+                    }
+                    continue;
+                }
+                if (negate)
+                    emit(NEG, targets[frame], lefts[frame]);
+            } else if (expression instanceof CallExpression call) {
+                // arguments are evaluated straight into the first registers of the callee's window
+                int arguments = call.listofExpressions.exp.size();
+                if (step == 0) {
+                    lefts[frame] = top;
+                    for (int i = 0; i < arguments; i++)
+                        temporary();
+                }
+                if (step < arguments) {
+                    push(call.listofExpressions.exp.get(step), lefts[frame] + step);
+                    continue;
+                }
+                emit(CALL, targets[frame], ((FunctionDeclaration) call.name.declaration).index, lefts[frame]);
+            } else {
+                leaf(expression, targets[frame]);
+            }
+            top = marks[frame];
+            pending[frame] = null;
+            depth--;
+        }
+    }
+
+    /**
+     * @return the register an operand is computed into, pushing it unless it is a variable used in place
+     */
+    private int operand(Expression expression) {
+        if (expression instanceof VarExpression variable && !isGlobalFromFunction(variable.name))
+            return register(variable.name);
+        int temporary = temporary();
+        push(expression, temporary);
+        return temporary;
+    }
+
+    private int leftValue(Expression left, Expression right) {
+        if (!copiedOut(left, right))
+            return value(left);
+        int temporary = temporary();
+        valueTo(left, temporary);
+        return temporary;
+    }
+
+    private int leftOperand(Expression left, Expression right) {
+        if (!copiedOut(left, right))
+            return operand(left);
+        int temporary = temporary();
+        push(left, temporary);
+        return temporary;
+    }
+
+    /**
+     * Whether the left operand of a binary operator is copied out of a global variable, as the
+     * right operand may call a function assigning it and the operand is read before the call
+     */
+    private boolean copiedOut(Expression left, Expression right) {
+        return !inFunction && left instanceof VarExpression && !(right instanceof VarExpression || right instanceof IntLiteralExpression || right instanceof BoolLiteralExpression);
+    }
+
+    private void leaf(Expression expression, int target) {
+        if (expression instanceof VarExpression variable) {
+            if (isGlobalFromFunction(variable.name))
+                emit(GGET, target, globalRegister(variable.name));
+            else if (register(variable.name) != target)
+                emit(MOVE, target, register(variable.name));
+        } else if (expression instanceof IntLiteralExpression literal) {
+            emit(CONST, target, literal.value);
+        } else {
+            emit(CONST, target, ((BoolLiteralExpression) expression).value ? 1 : 0);
+        }
+    }
+
+    private void binary(BinaryExpression binary, int target, int left, int right) {
+        String operator = binary.operator.spelling;
+        if (binary.operand2 instanceof IntLiteralExpression literal && (operator.equals("+") || operator.equals("-"))) {
+            emit(ADD_IMM, target, left, operator.equals("+") ? literal.value : -literal.value);
+            return;
+        }
+        int opcode = switch (operator) {
+            case "+" -> ADD;
+            case "-" -> SUB;
+            case "*" -> MUL;
+            case "/" -> DIV;
+            default -> EQ;
+        };
+        emit(opcode, target, left, right);
+    }
+
+    /**
+     * Pushes an expression to compute into target, the temporaries above are its own
+     */
+    private void push(Expression expression, int target) {
+        if (depth == pending.length) {
+            pending = Arrays.copyOf(pending, depth * 2);
+            steps = Arrays.copyOf(steps, depth * 2);
+            targets = Arrays.copyOf(targets, depth * 2);
+            marks = Arrays.copyOf(marks, depth * 2);
+            lefts = Arrays.copyOf(lefts, depth * 2);
+            rights = Arrays.copyOf(rights, depth * 2);
+        }
+        pending[depth] = expression;
+        steps[depth] = 0;
+        targets[depth] = target;
+        marks[depth++] = top;
+    }
+
+    private int constant(int value) {
+        int temporary = temporary();
+        emit(CONST, temporary, value);
+        return temporary;
+    }
+
+    private int temporary() {
+        frameSize = Math.max(frameSize, top + 1);
+        return top++;
+    }
+
+    private int register(Identifier identifier) {
+        boolean integer = identifier.type == Type.INTEGER;
+        return (integer ? intRegisters : booleanRegisters)[identifier.slot];
+    }
+
+    private boolean isGlobalFromFunction(Identifier identifier) {
+        return inFunction && identifier.global;
+    }
+
+    private int globalRegister(Identifier identifier) {
+        boolean integer = identifier.type == Type.INTEGER;
+        return integer ? identifier.slot : program.intGlobals + identifier.slot;
+    }
+
+    /**
+     * @return the position of the target operand, the last one, to patch
+     */
+    private int emitJump(int opcode, int... operands) {
+        int[] withTarget = Arrays.copyOf(operands, operands.length + 1);
+        withTarget[operands.length] = -1;
+        emit(opcode, withTarget);
+        return length - 1;
+    }
+
+    /**
+     * @return the position of the steps operand of the CHECK emitted, -1 without checkpoints
+     */
+    private int checkpoint() {
+        if (!checkpoints)
+            return -1;
+        emit(CHECK, 0);
+        return length - 1;
+    }
+
+    /**
+     * Sets the steps of the CHECK to the length of the code from start
+     */
+    private void charge(int check, int start) {
+        if (check >= 0)
+            patch(check, length - start);
+    }
+
+    private void patch(int position, int target) {
+        code[position] = target;
+    }
+
+    private void emit(int opcode, int... operands) {
+        if (length + 1 + operands.length > code.length)
+            code = Arrays.copyOf(code, code.length * 2);
+        code[length++] = opcode;
+        for (int operand : operands)
+            code[length++] = operand;
+    }
+}
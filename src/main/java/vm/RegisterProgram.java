@@ -0,0 +1,70 @@
+package vm;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Code of a program for the {@link VirtualMachine}, see {@link Opcode} for its format.
+ * The statements of the program start at index 0, functions follow
+ */
+public final class RegisterProgram {
+    final int[] code;
+    final int globalFrameSize;
+    final int[] entries;
+    final int[] frameSizes;
+
+    RegisterProgram(int[] code, int globalFrameSize, int[] entries, int[] frameSizes) {
+        this.code = code;
+        this.globalFrameSize = globalFrameSize;
+        this.entries = entries;
+        this.frameSizes = frameSizes;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        writeInts(out, code);
+        out.writeInt(globalFrameSize);
+        writeInts(out, entries);
+        writeInts(out, frameSizes);
+    }
+
+    /**
+     * Reads a program written by {@link #writeTo(DataOutput)}
+     */
+    public static RegisterProgram readFrom(DataInput in) throws IOException {
+        int[] code = readInts(in);
+        int globalFrameSize = in.readInt();
+        return new RegisterProgram(code, globalFrameSize, readInts(in), readInts(in));
+    }
+
+    private static void writeInts(DataOutput out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values)
+            out.writeInt(value);
+    }
+
+    private static int[] readInts(DataInput in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = in.readInt();
+        return values;
+    }
+
+    public int codeLength() {
+        return code.length;
+    }
+
+    /**
+     * @return one line per instruction, "index: NAME operands"
+     */
+    public String disassemble() {
+        StringBuilder text = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc += 1 + Opcode.operands(code[pc])) {
+            text.append(pc).append(": ").append(Opcode.name(code[pc]));
+            for (int i = 1; i <= Opcode.operands(code[pc]); i++)
+                text.append(' ').append(code[pc + i]);
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,243 @@
+package vm;
+
+import runtime.ProgramIO;
+
+import java.util.Arrays;
+
+import static vm.Opcode.*;
+
+/**
+ * Runs {@link RegisterProgram}s: one switch-dispatched loop over the code array, registers in one
+ * int stack where each call takes a window, return addresses in a separate int stack.
+ * Integer arithmetic wraps around as in Java and dividing by zero throws {@link ArithmeticException}.
+ * <p>
+ * A program can also run within a {@link Budget}, in slices: {@link #start(RegisterProgram, Budget)}
+ * then {@link #resume(long)} until it returns true. Its {@link Opcode#CHECK}s charge the budget and
+ * pause it at the end of each slice, code compiled without checkpoints only has its memory checked
+ */
+public class VirtualMachine {
+    private static final int INITIAL_STACK_SIZE = 1024;
+
+    private final ProgramIO io;
+    private int[] registers = new int[INITIAL_STACK_SIZE];
+    // return address, frame pointer and result register of the caller, per active call
+    private int[] calls = new int[3 * 64];
+
+    // program started and where it stands between slices
+    private RegisterProgram program;
+    private Budget budget = Budget.UNLIMITED;
+    private long steps;
+    private int pc;
+    private int fp;
+    private int depth;
+
+    public VirtualMachine(ProgramIO io) {
+        this.io = io;
+    }
+
+    public void run(RegisterProgram program) {
+        start(program, Budget.UNLIMITED);
+        resume(Long.MAX_VALUE);
+    }
+
+    public void start(RegisterProgram program, Budget budget) {
+        this.program = program;
+        this.budget = budget;
+        Arrays.fill(ensureRegisters(program.globalFrameSize), 0, program.globalFrameSize, 0);
+        steps = 0;
+        pc = 0;
+        fp = 0;
+        depth = 0;
+    }
+
+    /**
+     * Runs the program started until it ends, or until its CHECKs have charged more than slice steps
+     *
+     * @return true when the program has ended, false when it paused and is to be resumed
+     * @throws BudgetExceededException when the program goes over its budget, it cannot be resumed
+     */
+    public boolean resume(long slice) {
+        final int[] code = program.code;
+        final int[] entries = program.entries;
+        final int[] frameSizes = program.frameSizes;
+        final int maxDepth = budget.callDepth;
+        int[] r = registers;
+        int[] calls = this.calls;
+        int depth = this.depth;
+        int fp = this.fp;
+        int pc = this.pc;
+        // steps until the slice or the budget runs out, whichever comes first
+        final long remaining = budget.steps - steps;
+        final long allowed = Math.min(slice, remaining);
+        long left = allowed;
+
+        try {
+            while (true) {
+                switch (code[pc]) {
+                    case CONST:
+                        r[fp + code[pc + 1]] = code[pc + 2];
+                        pc += 3;
+                        break;
+                    case MOVE:
+                        r[fp + code[pc + 1]] = r[fp + code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case ADD:
+                        r[fp + code[pc + 1]] = r[fp + code[pc + 2]] + r[fp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case SUB:
+                        r[fp + code[pc + 1]] = r[fp + code[pc + 2]] - r[fp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case MUL:
+                        r[fp + code[pc + 1]] = r[fp + code[pc + 2]] * r[fp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case DIV:
+                        r[fp + code[pc + 1]] = r[fp + code[pc + 2]] / r[fp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case NEG:
+                        r[fp + code[pc + 1]] = -r[fp + code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case EQ:
+                        r[fp + code[pc + 1]] = r[fp + code[pc + 2]] == r[fp + code[pc + 3]] ? 1 : 0;
+                        pc += 4;
+                        break;
+                    case ADD_IMM:
+                        r[fp + code[pc + 1]] = r[fp + code[pc + 2]] + code[pc + 3];
+                        pc += 4;
+                        break;
+                    case GGET:
+                        r[fp + code[pc + 1]] = r[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case GSET:
+                        r[code[pc + 1]] = r[fp + code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case JUMP:
+                        pc = code[pc + 1];
+                        break;
+                    case JUMP_FALSE:
+                        pc = r[fp + code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                        break;
+                    case JUMP_TRUE:
+                        pc = r[fp + code[pc + 1]] != 0 ? code[pc + 2] : pc + 3;
+                        break;
+                    case JUMP_EQ:
+                        pc = r[fp + code[pc + 1]] == r[fp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_NE:
+                        pc = r[fp + code[pc + 1]] != r[fp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_EQ_IMM:
+                        pc = r[fp + code[pc + 1]] == code[pc + 2] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_NE_IMM:
+                        pc = r[fp + code[pc + 1]] != code[pc + 2] ? code[pc + 3] : pc + 4;
+                        break;
+                    case CALL: {
+                        int function = code[pc + 2];
+                        int calleeFp = fp + code[pc + 3];
+                        if (depth * 3 + 3 > calls.length)
+                            calls = growCalls();
+                        calls[depth * 3] = pc + 4;
+                        calls[depth * 3 + 1] = fp;
+                        calls[depth * 3 + 2] = code[pc + 1];
+                        depth++;
+                        r = ensureRegisters(calleeFp + frameSizes[function]);
+                        fp = calleeFp;
+                        pc = entries[function];
+                        break;
+                    }
+                    case RET: {
+                        int result = r[fp + code[pc + 1]];
+                        depth--;
+                        pc = calls[depth * 3];
+                        fp = calls[depth * 3 + 1];
+                        r[fp + calls[depth * 3 + 2]] = result;
+                        break;
+                    }
+                    case RET_VOID:
+                        depth--;
+                        pc = calls[depth * 3];
+                        fp = calls[depth * 3 + 1];
+                        break;
+                    case IN_INT:
+                        r[fp + code[pc + 1]] = io.readInt();
+                        pc += 2;
+                        break;
+                    case IN_BOOL:
+                        r[fp + code[pc + 1]] = io.readBoolean() ? 1 : 0;
+                        pc += 2;
+                        break;
+                    case IN_SKIP:
+                        io.readInt();
+                        pc += 1;
+                        break;
+                    case OUT_INT:
+                        io.writeInt(r[fp + code[pc + 1]]);
+                        pc += 2;
+                        break;
+                    case OUT_BOOL:
+                        io.writeBoolean(r[fp + code[pc + 1]] != 0);
+                        pc += 2;
+                        break;
+                    case HALT:
+                        io.flush();
+                        return true;
+                    case CHECK:
+                        left -= code[pc + 1];
+                        pc += 2;
+                        if (left < 0 || depth > maxDepth) {
+                            this.pc = pc;
+                            this.fp = fp;
+                            this.depth = depth;
+                            if (depth > maxDepth)
+                                throw new BudgetExceededException(Budget.Resource.CALL_DEPTH, "More than " + maxDepth + " nested calls");
+                            if (allowed - left > remaining)
+                                throw new BudgetExceededException(Budget.Resource.STEPS, "More than " + budget.steps + " steps");
+                            return false;
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown opcode " + code[pc] + " at " + pc);
+                }
+            }
+        } finally {
+            steps += allowed - left;
+        }
+    }
+
+    /**
+     * @return the steps charged so far to the program started
+     */
+    public long steps() {
+        return steps;
+    }
+
+    private int[] ensureRegisters(int size) {
+        if (size > registers.length)
+            registers = Arrays.copyOf(registers, grownLength(registers.length, size, calls.length));
+        return registers;
+    }
+
+    private int[] growCalls() {
+        return calls = Arrays.copyOf(calls, grownLength(calls.length, calls.length + 3, registers.length));
+    }
+
+    /**
+     * @param other length of the other stack
+     * @return twice the length, at least size, and no more than the memory budget allows
+     * @throws BudgetExceededException when size itself does not fit in the budget
+     */
+    private int grownLength(int length, int size, int other) {
+        long budgetInts = budget.memoryBytes / Integer.BYTES - other;
+        if (size > budgetInts)
+            throw new BudgetExceededException(Budget.Resource.MEMORY, "More than " + budget.memoryBytes + " bytes of stack");
+        return (int) Math.min(Math.max(size, length * 2L), Math.min(budgetInts, Integer.MAX_VALUE));
+    }
+}
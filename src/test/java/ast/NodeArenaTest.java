@@ -0,0 +1,64 @@
+package ast;
+
+import exceptions.SyntaticException;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.junit.jupiter.api.Test;
+import syntatic.analysis.Parser;
+import test.utils.constants.PathToTestFilesConstants;
+import test.utils.constants.SamplePrograms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NodeArenaTest {
+
+    @Test
+    public void toProgram_EveryTestProgram_RoundTripsToSameArena() throws SyntaticException {
+        for (String path : PathToTestFilesConstants.ALL_PROGRAMS) {
+            NodeArena arena = NodeArena.of(parse(path));
+            NodeArena copy = NodeArena.of(arena.toProgram());
+
+            assertEquals(arena.size(), copy.size(), path);
+            for (int node = 0; node < arena.size(); node++) {
+                assertEquals(arena.kind(node), copy.kind(node), path);
+                for (int operand = 0; operand < 4; operand++)
+                    assertEquals(arena.operand(node, operand), copy.operand(node, operand), path);
+            }
+            for (int name = 0; name < arena.nameCount(); name++)
+                assertEquals(arena.name(name), copy.name(name), path);
+        }
+    }
+
+    @Test
+    public void of_AssignBoolAndInt_SpellingsInternedOnce() throws SyntaticException {
+        NodeArena arena = NodeArena.of(parse(PathToTestFilesConstants.ASSIGN_BOOL_AND_INT));
+
+        assertEquals(NodeKind.PROGRAM, arena.kind(arena.root()));
+        int block = arena.operand(arena.root(), 0);
+        int declarations = arena.operand(block, 0);
+        int statements = arena.operand(block, 1);
+        assertEquals(2, arena.childCount(declarations));
+        assertEquals(2, arena.childCount(statements));
+
+        int declared = arena.operand(arena.child(declarations, 0), 1);
+        int assigned = arena.operand(arena.child(statements, 0), 0);
+        assertEquals("number", arena.name(declared));
+        assertEquals(declared, assigned);
+        // number, counter, t, 2
+        assertEquals(4, arena.nameCount());
+    }
+
+    @Test
+    public void toProgram_HundredThousandLevelsDeep_RoundTripsToSameArena() throws SyntaticException {
+        NodeArena arena = NodeArena.of(new Parser(new Scanner(SourceFile.of(SamplePrograms.nested(100_000)))).parseProgram());
+        NodeArena copy = NodeArena.of(arena.toProgram());
+
+        assertEquals(arena.size(), copy.size());
+        for (int node = 0; node < arena.size(); node++)
+            assertEquals(arena.kind(node), copy.kind(node));
+    }
+
+    private Program parse(String path) throws SyntaticException {
+        return new Parser(new Scanner(new SourceFile(path))).parseProgram();
+    }
+}
@@ -0,0 +1,105 @@
+package code.generation;
+
+import ast.Program;
+import interpreter.Interpreter;
+import org.junit.jupiter.api.Test;
+import test.utils.RecordingIO;
+import test.utils.constants.SamplePrograms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.utils.Programs.analyze;
+
+public class BytecodeCompilerTest {
+
+    @Test
+    public void compile_SamplePrograms_SameOutputAsInterpreter() throws Exception {
+        for (String source : SamplePrograms.ALL) {
+            RecordingIO interpreted = new RecordingIO(SamplePrograms.INPUT);
+            new Interpreter(analyze(source), interpreted).run();
+            RecordingIO compiled = new RecordingIO(SamplePrograms.INPUT);
+            new BytecodeCompiler().compile(analyze(source)).run(compiled);
+
+            assertEquals(interpreted.output, compiled.output, source);
+        }
+    }
+
+    @Test
+    public void run_CalledTwice_GlobalsStartOver() throws Exception {
+        CompiledProgram program = new BytecodeCompiler().compile(analyze(SamplePrograms.ALL[2]));
+        RecordingIO first = new RecordingIO();
+        RecordingIO second = new RecordingIO();
+        program.run(first);
+        program.run(second);
+
+        assertEquals(List.of("6"), first.output);
+        assertEquals(List.of("6"), second.output);
+    }
+
+    @Test
+    public void compile_TwoThousandLevelsDeep_SameOutputAsInterpreter() throws Exception {
+        String source = SamplePrograms.nested(2_000);
+        RecordingIO interpreted = new RecordingIO();
+        new Interpreter(analyze(source), interpreted).run();
+        RecordingIO compiled = new RecordingIO();
+        new BytecodeCompiler().compile(analyze(source)).run(compiled);
+
+        assertEquals(List.of("2000", "1", "2001", "t"), compiled.output);
+        assertEquals(interpreted.output, compiled.output);
+    }
+
+    @Test
+    public void run_ConcurrentRuns_GlobalsOfTheirOwn() throws Exception {
+        CompiledProgram program = new BytecodeCompiler().compile(analyze(
+                "go { i> g = 0; func add(i> n) { g = g + n; } i> k = 0; i> n; n = in(); "
+                        + "whl (k == 100000) == f do { add(n); k = k + 1; } out(g); }"));
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> runs = new ArrayList<>();
+            for (int run = 0; run < 16; run++) {
+                String input = Integer.toString(run);
+                runs.add(threads.submit(() -> {
+                    RecordingIO io = new RecordingIO(input);
+                    program.run(io);
+                    return io.output;
+                }));
+            }
+
+            for (int run = 0; run < 16; run++)
+                assertEquals(List.of(Integer.toString(run * 100000)), runs.get(run).get());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void compile_MegabyteBody_SplitIntoMethods() throws Exception {
+        String source = "go { i> x = 0; " + "x = x + 1; ".repeat(100_000) + "out(x); }";
+        RecordingIO io = new RecordingIO();
+        new BytecodeCompiler().compile(analyze(source)).run(io);
+
+        assertEquals(List.of("100000"), io.output);
+    }
+
+    @Test
+    public void compile_FunctionTooLarge_Throws() throws Exception {
+        Program program = analyze("go { func grow(i> n) go { i> m = n; " + "m = m + 1; ".repeat(20_000) + "} ret m out(grow(1)); }");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new BytecodeCompiler().compile(program));
+        assertTrue(e.getMessage().startsWith("func grow needs"), e.getMessage());
+    }
+
+    @Test
+    public void run_DivisionByZero_Throws() throws Exception {
+        CompiledProgram program = new BytecodeCompiler().compile(analyze("go { i> a = 0; out(1 / a); }"));
+
+        assertThrows(ArithmeticException.class, () -> program.run(new RecordingIO()));
+    }
+}
@@ -0,0 +1,126 @@
+package code.optimization;
+
+import ast.AssignStatement;
+import ast.BoolLiteralExpression;
+import ast.FunctionDeclaration;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.VarExpression;
+import interpreter.Interpreter;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.junit.jupiter.api.Test;
+import syntatic.analysis.Parser;
+import test.utils.RecordingIO;
+import test.utils.constants.PathToTestFilesConstants;
+import test.utils.constants.SamplePrograms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.utils.Programs.analyze;
+import static test.utils.Programs.parse;
+
+public class OptimizerTest {
+
+    @Test
+    public void optimize_LiteralArithmetic_Folded() throws Exception {
+        Program program = optimize("go { out(2 * 3 + 1); out(-(4 - 6) == 2); }");
+
+        assertEquals(7, ((IntLiteralExpression) out(program, 0).exp).value);
+        assertEquals(true, ((BoolLiteralExpression) out(program, 1).exp).value);
+    }
+
+    @Test
+    public void optimize_DivisionByZero_LeftForRunTime() throws Exception {
+        Program program = optimize("go { out(1 / 0); }");
+
+        assertInstanceOf(ast.BinaryExpression.class, out(program, 0).exp);
+    }
+
+    @Test
+    public void optimize_IfOnLiteralInDoWithIfElse_OnlyTakenBranchLeft() throws Exception {
+        Program program = analyze(new Parser(new Scanner(new SourceFile(PathToTestFilesConstants.DECLARATION_OF_DO_WITH_IF_ELSE))).parseProgram());
+        new Optimizer(null).optimize(program);
+
+        FunctionDeclaration printNum = program.functions.get(0);
+        assertEquals(1, printNum.block.statements.stat.size());
+        assertEquals(true, ((BoolLiteralExpression) ((OutStatement) printNum.block.statements.stat.get(0)).exp).value);
+    }
+
+    @Test
+    public void optimize_WhileFalse_Dropped() throws Exception {
+        Program program = optimize("go { whl f do { out(1); } out(2); }");
+
+        assertEquals(1, program.block.statements.stat.size());
+    }
+
+    @Test
+    public void optimize_VariableAssignedOnce_PropagatedAndFolded() throws Exception {
+        Program program = optimize("go { i> n = 10; i> m; m = n * 2; if m == 20 do { out(m + 1); } }");
+
+        assertEquals(21, ((IntLiteralExpression) out(program, 1).exp).value);
+    }
+
+    @Test
+    public void optimize_VariableAssignedTwiceOrReadBeforeAssignment_NotPropagated() throws Exception {
+        Program program = optimize("go { i> n = 1; i> m; out(m); m = 2; n = 3; out(n); out(m); }");
+
+        assertInstanceOf(VarExpression.class, out(program, 0).exp);
+        assertInstanceOf(VarExpression.class, out(program, 3).exp);
+        assertInstanceOf(VarExpression.class, out(program, 4).exp);
+    }
+
+    @Test
+    public void optimize_GlobalReadByFunctionCalledFirst_NotPropagated() throws Exception {
+        Program program = optimize("go { i> limit; func get() go { } ret limit out(get()); limit = 5; out(get()); }");
+
+        assertInstanceOf(VarExpression.class, program.functions.get(0).expression);
+    }
+
+    @Test
+    public void optimize_SamplePrograms_SameOutput() throws Exception {
+        for (String source : SamplePrograms.ALL) {
+            RecordingIO plain = new RecordingIO(SamplePrograms.INPUT);
+            new Interpreter(analyze(parse(source)), plain).run();
+            RecordingIO optimized = new RecordingIO(SamplePrograms.INPUT);
+            new Interpreter(optimize(source), optimized).run();
+
+            assertEquals(plain.output, optimized.output, source);
+        }
+    }
+
+    @Test
+    public void optimize_DumpRequested_NodeCountsPrinted() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Program program = analyze(parse("go { if t do { out(1 + 2); } el { out(3); } }"));
+        new Optimizer(new PrintStream(bytes, true, StandardCharsets.UTF_8)).optimize(program);
+
+        String dump = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(dump.matches("Optimizer: \\d+ nodes before, \\d+ after\\R"), dump);
+    }
+
+    @Test
+    public void optimize_HundredThousandLevelsDeep_SumsFoldedAndConditionDropped() throws Exception {
+        Program program = optimize(SamplePrograms.nested(100_000));
+
+        assertEquals(100_000, ((IntLiteralExpression) out(program, 0).exp).value);
+        assertEquals(1, ((IntLiteralExpression) out(program, 1).exp).value);
+        assertInstanceOf(BoolLiteralExpression.class, out(program, 3).exp);
+    }
+
+    private static OutStatement out(Program program, int index) {
+        return (OutStatement) program.block.statements.stat.get(index);
+    }
+
+    private Program optimize(String source) throws Exception {
+        Program program = analyze(parse(source));
+        new Optimizer(null).optimize(program);
+        return program;
+    }
+}
@@ -0,0 +1,107 @@
+package driver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchCompilerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void compile_TestResources_ResultsInFileOrder() throws Exception {
+        List<Path> files = BatchMain.sources(Path.of("src/test/resources"));
+
+        BatchResult result = new BatchCompiler(new ForkJoinPool(4)).compile(files);
+
+        assertEquals(files.size(), result.files().size());
+        for (int i = 0; i < files.size(); i++)
+            assertEquals(files.get(i), result.files().get(i).file());
+        // if-true-do and correct-if-else-declaration read an undeclared variable, call-of-func calls one
+        assertEquals(3, result.failedCount());
+    }
+
+    @Test
+    public void printDiagnostics_AnyParallelism_SameReport() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Path file = directory.resolve(String.format("p%02d.txt", i));
+            Files.writeString(file, i % 3 == 0 ? "go { out(; x = ; }" : "go { i> x = " + i + "; out(x * 2); }");
+            files.add(file);
+        }
+
+        String sequential = diagnostics(new BatchCompiler(new ForkJoinPool(1)).compile(files));
+        String parallel = diagnostics(new BatchCompiler(new ForkJoinPool(8)).compile(files));
+
+        assertEquals(sequential, parallel);
+        assertEquals(2 * 14, sequential.lines().count());
+    }
+
+    @Test
+    public void compile_MissingFile_FailsWithDiagnostic() {
+        BatchResult result = new BatchCompiler().compile(List.of(directory.resolve("missing.txt")));
+
+        FileResult file = result.files().get(0);
+        assertFalse(file.result().succeeded());
+        assertTrue(file.result().diagnostics().get(0).message.startsWith("Cannot read the file"));
+    }
+
+    @Test
+    public void compile_FileNestedTooDeepAmongGoodOnes_OnlyItFails() throws Exception {
+        Path good = directory.resolve("good.txt");
+        Files.writeString(good, "go { i> x = 1; out(x); }");
+        Path deep = directory.resolve("deep.txt");
+        Files.writeString(deep, "go { i> x = 0; " + "whl x == 1 do { ".repeat(100_000) + "}".repeat(100_000) + " }");
+
+        BatchResult result = new BatchCompiler(new ForkJoinPool(2)).compile(List.of(good, deep, good));
+
+        assertEquals(1, result.failedCount());
+        assertTrue(result.files().get(0).result().succeeded());
+        assertTrue(result.files().get(2).result().succeeded());
+        assertTrue(result.files().get(1).result().diagnostics().get(0).message.startsWith("The compiler failed on the file"));
+    }
+
+    @Test
+    public void nanos_CompiledFile_EveryPhaseTimed() throws Exception {
+        Path source = directory.resolve("ok.txt");
+        Files.writeString(source, "go { i> x = 1; out(x); }");
+
+        FileResult file = new BatchCompiler().compile(List.of(source)).files().get(0);
+
+        for (Phase phase : Phase.values())
+            assertEquals(phase != Phase.CACHE, file.nanos(phase) > 0, phase.name());
+        assertTrue(file.totalNanos() >= file.nanos(Phase.PARSE));
+    }
+
+    @Test
+    public void compile_WithCache_SecondBatchLoadsEveryFile() throws Exception {
+        Path source = directory.resolve("ok.txt");
+        Files.writeString(source, "go { i> x = 1; out(x); }");
+        CompilationCache cache = new CompilationCache(directory.resolve("cache"), CompilationCache.DEFAULT_MAX_BYTES);
+        BatchCompiler compiler = new BatchCompiler(ForkJoinPool.commonPool(), cache);
+
+        FileResult first = compiler.compile(List.of(source)).files().get(0);
+        FileResult second = compiler.compile(List.of(source)).files().get(0);
+
+        assertTrue(first.nanos(Phase.PARSE) > 0);
+        assertEquals(0, second.nanos(Phase.PARSE));
+        assertEquals(first.result().program().disassemble(), second.result().program().disassemble());
+    }
+
+    private static String diagnostics(BatchResult result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        result.printDiagnostics(new PrintStream(bytes, true));
+        return bytes.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package driver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompilationCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void compile_SameSourceTwice_SecondLoadedFromDisk() throws Exception {
+        CompilationCache cache = new CompilationCache(directory, CompilationCache.DEFAULT_MAX_BYTES);
+        byte[] source = bytes("go { i> x = 2; out(x * 21); }");
+
+        CompilationResult compiled = cache.compile(source, new long[Phase.values().length]);
+        CompilationResult loaded = new CompilationCache(directory, CompilationCache.DEFAULT_MAX_BYTES).get(source);
+
+        assertNotNull(loaded);
+        assertEquals(compiled.program().disassemble(), loaded.program().disassemble());
+        assertEquals(1, entryCount());
+    }
+
+    @Test
+    public void get_FailedCompilation_DiagnosticsCached() throws Exception {
+        CompilationCache cache = new CompilationCache(directory, CompilationCache.DEFAULT_MAX_BYTES);
+        byte[] source = bytes("go { out(; }");
+        cache.compile(source, new long[Phase.values().length]);
+
+        CompilationResult loaded = cache.get(source);
+
+        assertFalse(loaded.succeeded());
+        assertEquals(Compilation.compile(source).diagnostics().get(0).toString(), loaded.diagnostics().get(0).toString());
+    }
+
+    @Test
+    public void key_SourceChanged_DifferentEntry() {
+        assertNotEquals(CompilationCache.key(bytes("go { out(1); }")), CompilationCache.key(bytes("go { out(2); }")));
+        assertEquals(CompilationCache.key(bytes("go { out(1); }")), CompilationCache.key(bytes("go { out(1); }")));
+    }
+
+    @Test
+    public void compile_DirectoryNotWritable_ResultStillReturned() throws Exception {
+        CompilationCache cache = new CompilationCache(directory.resolve("cache"), CompilationCache.DEFAULT_MAX_BYTES);
+        Files.delete(directory.resolve("cache"));
+
+        CompilationResult result = cache.compile(bytes("go { out(1); }"), new long[Phase.values().length]);
+
+        assertTrue(result.succeeded());
+        assertEquals(0, cache.totalBytes());
+    }
+
+    @Test
+    public void get_CorruptEntry_MissAndDeleted() throws Exception {
+        CompilationCache cache = new CompilationCache(directory, CompilationCache.DEFAULT_MAX_BYTES);
+        byte[] source = bytes("go { out(1); }");
+        Path entry = directory.resolve(CompilationCache.key(source));
+        Files.write(entry, new byte[]{1, 2, 3});
+
+        assertNull(cache.get(source));
+        assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    public void put_OverSizeLimit_LeastRecentlyUsedEvicted() throws Exception {
+        byte[] first = bytes("go { out(1); }");
+        byte[] second = bytes("go { out(2); }");
+        byte[] third = bytes("go { out(3); }");
+        CompilationCache unbounded = new CompilationCache(directory.resolve("probe"), Long.MAX_VALUE);
+        unbounded.put(first, Compilation.compile(first));
+        long entrySize = unbounded.totalBytes();
+        CompilationCache cache = new CompilationCache(directory, 2 * entrySize);
+
+        cache.put(first, Compilation.compile(first));
+        cache.put(second, Compilation.compile(second));
+        assertNotNull(cache.get(first));
+        cache.put(third, Compilation.compile(third));
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertTrue(cache.totalBytes() <= 2 * entrySize);
+    }
+
+    @Test
+    public void new_ExistingEntries_OldestEvictedFirst() throws Exception {
+        byte[] old = bytes("go { out(1); }");
+        byte[] recent = bytes("go { out(2); }");
+        CompilationCache writer = new CompilationCache(directory, Long.MAX_VALUE);
+        writer.put(old, Compilation.compile(old));
+        writer.put(recent, Compilation.compile(recent));
+        Files.setLastModifiedTime(directory.resolve(CompilationCache.key(old)), FileTime.fromMillis(1_000));
+
+        CompilationCache reopened = new CompilationCache(directory, writer.totalBytes() / 2 + 1);
+        byte[] added = bytes("go { out(3); }");
+        reopened.put(added, Compilation.compile(added));
+
+        assertNull(reopened.get(old));
+        assertNotNull(reopened.get(added));
+    }
+
+    private long entryCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(String source) {
+        return source.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
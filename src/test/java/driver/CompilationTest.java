@@ -0,0 +1,85 @@
+package driver;
+
+import org.junit.jupiter.api.Test;
+import test.utils.RecordingIO;
+import vm.RegisterProgram;
+import vm.VirtualMachine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompilationTest {
+
+    @Test
+    public void compile_ValidProgram_RunsOnVirtualMachine() {
+        CompilationResult result = compile("go { i> x = 20; out(x + 1); }");
+
+        assertTrue(result.succeeded());
+        RecordingIO io = new RecordingIO();
+        new VirtualMachine(io).run(result.program());
+        assertEquals(List.of("21"), io.output);
+    }
+
+    @Test
+    public void compile_SyntaxErrors_AllReported() {
+        CompilationResult result = compile("go { out(; out(1 +); }");
+
+        assertFalse(result.succeeded());
+        assertEquals(2, result.diagnostics().size());
+    }
+
+    @Test
+    public void compile_SemanticError_Reported() {
+        CompilationResult result = compile("go { out(y); }");
+
+        assertEquals("Semantic error: Variable y is not declared", result.diagnostics().get(0).message);
+    }
+
+    @Test
+    public void compile_SemanticErrorPastMaxColumn_PrintedAtExactColumn() {
+        CompilationResult result = compile("go { out(" + " ".repeat(2000) + "y); }");
+
+        assertEquals("1:2010: Semantic error: Variable y is not declared", result.diagnostics().get(0).toString());
+    }
+
+    @Test
+    public void compile_SyntaxErrorPastMaxColumn_PrintedAtExactColumn() {
+        CompilationResult result = compile("go {" + " ".repeat(2000) + "out(; }");
+
+        assertEquals(2009, result.diagnostics().get(0).column);
+    }
+
+    @Test
+    public void readFrom_WrittenDiagnostics_SameLineAndColumn() throws Exception {
+        CompilationResult failed = compile("go { out(" + " ".repeat(2000) + "y); }");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        failed.writeTo(new DataOutputStream(bytes));
+
+        CompilationResult read = CompilationResult.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(failed.diagnostics().get(0).toString(), read.diagnostics().get(0).toString());
+    }
+
+    @Test
+    public void readFrom_WrittenResult_SameProgram() throws Exception {
+        RegisterProgram program = compile("go { func sq(i> n) go { } ret n * n out(sq(7)); }").program();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompilationResult.succeeded(program).writeTo(new DataOutputStream(bytes));
+
+        CompilationResult read = CompilationResult.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(program.disassemble(), read.program().disassemble());
+    }
+
+    private static CompilationResult compile(String source) {
+        return Compilation.compile(source.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,184 @@
+package editor;
+
+import ast.NodeArena;
+import ast.Program;
+import exceptions.SemanticException;
+import lexical.analysis.Position;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import lexical.analysis.TokenStream;
+import org.junit.jupiter.api.Test;
+import semantic.analysis.SemanticAnalyzer;
+import syntatic.analysis.Diagnostic;
+import syntatic.analysis.Parser;
+import test.utils.constants.SamplePrograms;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EditSessionTest {
+    private static final String[] FRAGMENTS = {
+            "", " ", ";", "{", "}", "(", ")", "x", "1", "+", "==", "#", "\n", "go {", "out(x);",
+            "i> y = 2;", "if t do {", "el {", "func h() { }", "whl f do { }", "b> q",
+            "func g(i> p) go { } ret p ", "ret", ",", "in(x);", "i> z;",
+    };
+
+    @Test
+    public void edit_RandomEditsOnEveryTestProgram_SameAsParsingFromScratch() {
+        Random random = new Random(20);
+        for (String source : SamplePrograms.ALL) {
+            EditSession session = new EditSession(source);
+            assertSameAsFromScratch(session);
+            for (int i = 0; i < 300; i++) {
+                String text = session.text();
+                int offset = random.nextInt(text.length() + 1);
+                int removed = random.nextInt(Math.min(6, text.length() - offset) + 1);
+                String inserted = FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+                session.edit(offset, removed, inserted);
+                assertSameAsFromScratch(session);
+            }
+        }
+    }
+
+    @Test
+    public void edit_RandomEditsOnEveryTestFile_SameAsParsingFromScratch() throws Exception {
+        Random random = new Random(21);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(Path.of("src/test/resources"))) {
+            files = list.filter(file -> file.toString().endsWith(".txt")).sorted().toList();
+        }
+        for (Path file : files) {
+            EditSession session = new EditSession(Files.readString(file, StandardCharsets.ISO_8859_1));
+            for (int i = 0; i < 1000; i++) {
+                String text = session.text();
+                int offset = random.nextInt(text.length() + 1);
+                int removed = random.nextInt(Math.min(12, text.length() - offset) + 1);
+                session.edit(offset, removed, FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                assertSameAsFromScratch(session);
+            }
+        }
+    }
+
+    @Test
+    public void edit_FunctionInsertedBeforeFirstStatement_ParsedAsDeclaration() {
+        EditSession session = new EditSession("go { out(1); }");
+
+        session.edit(5, 0, "func g(i> p) go { } ret p ");
+
+        assertSameAsFromScratch(session);
+    }
+
+    @Test
+    public void edit_LiteralInTheMiddleOfALongProgram_OneStatementParsedAgain() {
+        EditSession session = new EditSession(program(1000));
+        int offset = session.text().indexOf("out(500)") + 4;
+
+        session.edit(offset, 3, "x + 1");
+
+        assertEquals(1, session.reparsedUnits());
+        // ( x + 1, the token before the edit is lexed again as the edit could extend it
+        assertEquals(4, session.relexedTokens());
+        assertTrue(session.diagnostics().isEmpty());
+        assertSameAsFromScratch(session);
+    }
+
+    @Test
+    public void edit_StatementsWrappedInABlock_OnlyTheBlockAndTheStatementBeforeParsedAgain() {
+        EditSession session = new EditSession(program(1000));
+        int offset = session.text().indexOf("out(500)");
+        int removed = session.text().indexOf("out(502)") - offset;
+
+        session.edit(offset, removed, "if t do { out(500); out(501); }\n    ");
+
+        // out(499); looked at the first token replaced
+        assertEquals(2, session.reparsedUnits());
+        assertEquals(999, session.program().block.statements.stat.size());
+        assertSameAsFromScratch(session);
+    }
+
+    @Test
+    public void edit_SyntaxErrorAddedThenRemoved_DiagnosticsFollow() {
+        EditSession session = new EditSession(program(100));
+        int offset = session.text().indexOf("out(50)") + 6;
+
+        session.edit(offset, 0, " +");
+        assertEquals(1, session.diagnostics().size());
+        assertEquals(99, session.program().block.statements.stat.size());
+        assertSameAsFromScratch(session);
+
+        session.edit(offset, 2, "");
+        assertTrue(session.diagnostics().isEmpty());
+        assertEquals(100, session.program().block.statements.stat.size());
+        assertSameAsFromScratch(session);
+    }
+
+    @Test
+    public void edit_ProgramStartRemovedThenRestored_ParsedWhole() {
+        EditSession session = new EditSession(program(10));
+
+        session.edit(0, 2, "");
+        assertSameAsFromScratch(session);
+        assertEquals(0, session.program().block.statements.stat.size());
+
+        session.edit(0, 0, "go");
+        assertTrue(session.diagnostics().isEmpty());
+        assertEquals(10, session.program().block.statements.stat.size());
+        assertSameAsFromScratch(session);
+    }
+
+    @Test
+    public void edit_LinesInsertedBeforeKeptStatements_ErrorsLocatedInTheEditedText() throws Exception {
+        EditSession session = new EditSession("go {\n i> x = 1;\n out(x);\n out(y);\n}\n");
+
+        session.edit(5, 0, "\n\n\n\n");
+
+        SemanticException edited = assertThrows(SemanticException.class, () -> new SemanticAnalyzer().analyze(session.program()));
+        Program parsed = new Parser(new Scanner(SourceFile.of(session.text()))).parseProgram();
+        SemanticException fresh = assertThrows(SemanticException.class, () -> new SemanticAnalyzer().analyze(parsed));
+        assertEquals("8:6", Position.toString(fresh.position));
+        assertEquals(Position.toString(fresh.position), Position.toString(edited.position));
+    }
+
+    private static String program(int statements) {
+        StringBuilder text = new StringBuilder("go {\n    i> x = 1;\n");
+        for (int i = 0; i < statements; i++)
+            text.append("    out(").append(i).append(");\n");
+        return text.append("}\n").toString();
+    }
+
+    private static void assertSameAsFromScratch(EditSession session) {
+        String text = session.text();
+        TokenStream expectedTokens = new Scanner(SourceFile.of(text)).scanAll();
+        TokenStream tokens = session.tokens();
+        assertEquals(expectedTokens.size(), tokens.size(), text);
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(expectedTokens.kind(i), tokens.kind(i), text);
+            assertEquals(expectedTokens.start(i), tokens.start(i), text);
+            assertEquals(expectedTokens.end(i), tokens.end(i), text);
+        }
+
+        List<Diagnostic> expectedDiagnostics = new ArrayList<>();
+        Program expected = new Parser(expectedTokens).parseProgram(expectedDiagnostics);
+        assertEquals(expectedDiagnostics.toString(), session.diagnostics().toString(), text);
+
+        NodeArena expectedArena = NodeArena.of(expected);
+        NodeArena arena = NodeArena.of(session.program());
+        assertEquals(expectedArena.size(), arena.size(), text);
+        for (int node = 0; node < arena.size(); node++) {
+            assertEquals(expectedArena.kind(node), arena.kind(node), text);
+            for (int operand = 0; operand < 4; operand++)
+                assertEquals(expectedArena.operand(node, operand), arena.operand(node, operand), text);
+        }
+        for (int name = 0; name < arena.nameCount(); name++)
+            assertEquals(expectedArena.name(name), arena.name(name), text);
+    }
+}
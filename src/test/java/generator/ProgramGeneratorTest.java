@@ -0,0 +1,107 @@
+package generator;
+
+import code.generation.BytecodeCompiler;
+import driver.Compilation;
+import driver.CompilationResult;
+import interpreter.Interpreter;
+import org.junit.jupiter.api.Test;
+import test.utils.RecordingIO;
+import vm.VirtualMachine;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.utils.Programs.analyze;
+
+public class ProgramGeneratorTest {
+
+    @Test
+    public void generate_ManySeeds_CompilesAndRunsAlikeOnEveryEngine() throws Exception {
+        for (long seed = 0; seed < 40; seed++) {
+            String source = generate(new ProgramGenerator(seed, 4096, 6, (int) seed % 5, 1 + (int) seed % 13, 0.2));
+            CompilationResult result = Compilation.compile(source.getBytes(StandardCharsets.ISO_8859_1));
+            assertTrue(result.succeeded(), () -> result.diagnostics() + "\n" + source);
+
+            RecordingIO compiled = new RecordingIO();
+            new VirtualMachine(compiled).run(result.program());
+            RecordingIO interpreted = new RecordingIO();
+            new Interpreter(analyze(source), interpreted).run();
+            assertEquals(interpreted.output, compiled.output, source);
+            RecordingIO bytecode = new RecordingIO();
+            new BytecodeCompiler().compile(analyze(source)).run(bytecode);
+            assertEquals(interpreted.output, bytecode.output, source);
+        }
+    }
+
+    @Test
+    public void generate_SameSeed_SameProgram() throws IOException {
+        ProgramGenerator generator = new ProgramGenerator(42, 16 * 1024, 8, 4, 20, 0.1);
+
+        assertEquals(generate(generator), generate(generator));
+        assertNotEquals(generate(generator), generate(new ProgramGenerator(43, 16 * 1024, 8, 4, 20, 0.1)));
+    }
+
+    @Test
+    public void generate_Settings_FollowedByTheProgram() throws IOException {
+        String source = generate(new ProgramGenerator(7, 64 * 1024, 12, 9, 30, 0));
+
+        assertTrue(source.length() >= 64 * 1024);
+        assertTrue(source.length() < 65 * 1024, Integer.toString(source.length()));
+        assertFalse(source.contains("#"));
+        assertTrue(source.contains("func step8("));
+        assertFalse(source.contains("func step9("));
+        assertTrue(source.contains(ProgramGenerator.variable(29)));
+        assertFalse(source.contains(ProgramGenerator.variable(30)));
+        int depth = 0;
+        int maxDepth = 0;
+        for (char c : source.toCharArray()) {
+            if (c == '{')
+                maxDepth = Math.max(maxDepth, ++depth);
+            else if (c == '}')
+                depth--;
+        }
+        assertEquals(0, depth);
+        // the program block and 12 nested blocks
+        assertEquals(13, maxDepth);
+    }
+
+    @Test
+    public void generate_ToFile_SameAsToWriter() throws IOException {
+        ProgramGenerator generator = new ProgramGenerator(3, 8192, 4, 2, 8, 0.5);
+        Path file = Files.createTempFile("shortsy-generated-", ".txt");
+        try {
+            generator.generate(file);
+
+            assertEquals(generate(generator), Files.readString(file, StandardCharsets.ISO_8859_1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void newProgramGenerator_NoIdentifier_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ProgramGenerator(1, 1024, 4, 2, 0, 0.1));
+    }
+
+    @Test
+    public void bytes_Suffixes_Multiplied() {
+        assertEquals(512, GeneratorMain.bytes("512"));
+        assertEquals(64 * 1024, GeneratorMain.bytes("64k"));
+        assertEquals(3L << 30, GeneratorMain.bytes("3G"));
+    }
+
+    private static String generate(ProgramGenerator generator) throws IOException {
+        Writer out = new StringWriter();
+        generator.generate(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package interpreter;
+
+import ast.Program;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.junit.jupiter.api.Test;
+import runtime.ProgramIO;
+import semantic.analysis.SemanticAnalyzer;
+import syntatic.analysis.Parser;
+import test.utils.RecordingIO;
+import test.utils.constants.PathToTestFilesConstants;
+import test.utils.constants.SamplePrograms;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InterpreterTest {
+
+    @Test
+    public void run_InputOutput_EchoesInput() throws Exception {
+        RecordingIO io = new RecordingIO("42");
+        run(new Parser(new Scanner(new SourceFile(PathToTestFilesConstants.INPUT_OUTPUT))).parseProgram(), io);
+
+        assertEquals(List.of("234234325", "42"), io.output);
+    }
+
+    @Test
+    public void run_RecursiveFunction_ReturnsValue() throws Exception {
+        RecordingIO io = run("go { func fact(i> n) go { i> r = 1; if (n == 0) == f do { r = n * fact(n - 1); } } ret r out(fact(10)); }");
+
+        assertEquals(List.of("3628800"), io.output);
+    }
+
+    @Test
+    public void run_CountingLoop_RunsUntilConditionFails() throws Exception {
+        RecordingIO io = run("go { i> k = 0; i> sum = 0; whl (k == 5) == f do { k = k + 1; sum = sum + k; } out(sum); out(k == 5); }");
+
+        assertEquals(List.of("15", "t"), io.output);
+    }
+
+    @Test
+    public void run_ProcedureUpdatesGlobal_GlobalChanged() throws Exception {
+        RecordingIO io = run("go { i> starter; starter = 1; func Add(i> by) { starter = starter + by; } Add(2); Add(3); out(starter); }");
+
+        assertEquals(List.of("6"), io.output);
+    }
+
+    @Test
+    public void run_NestedCallsInArguments_FramesKeptApart() throws Exception {
+        RecordingIO io = run("go { func add(i> x, i> y) go { i> s = x + y; } ret s out(add(add(1, 2), add(add(3, 4), 5))); }");
+
+        assertEquals(List.of("15"), io.output);
+    }
+
+    @Test
+    public void run_BooleanFunctionAndElse_ElseTaken() throws Exception {
+        RecordingIO io = run("go { func isZero(i> n) go { } ret n == 0 b> z = isZero(-3); if z do { out(1); } el { out(z); } }");
+
+        assertEquals(List.of("f"), io.output);
+    }
+
+    @Test
+    public void run_DivisionByZero_Throws() {
+        assertThrows(ArithmeticException.class, () -> run("go { i> a = 0; out(1 / a); }"));
+    }
+
+    @Test
+    public void run_HundredThousandLevelsDeep_NoStackOverflow() throws Exception {
+        RecordingIO io = run(SamplePrograms.nested(100_000));
+
+        assertEquals(List.of("100000", "1", "100001", "t"), io.output);
+    }
+
+    private RecordingIO run(String source) throws Exception {
+        RecordingIO io = new RecordingIO();
+        run(new Parser(new Scanner(SourceFile.of(source))).parseProgram(), io);
+        return io;
+    }
+
+    private void run(Program program, ProgramIO io) throws Exception {
+        new SemanticAnalyzer().analyze(program);
+        new Interpreter(program, io).run();
+    }
+}
@@ -0,0 +1,39 @@
+package lexical.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class KeywordsTest {
+
+    @Test
+    public void kindOf_EveryTokenKindSpelling_ThatKind() {
+        for (TokenKind kind : TokenKind.values()) {
+            String spelling = kind.getSpelling();
+            if (spelling == null)
+                continue;
+            assertEquals(kind, Keywords.kind(spelling));
+            assertEquals(kind, Keywords.kind(("  " + spelling).toCharArray(), 2, spelling.length()));
+        }
+    }
+
+    @Test
+    public void kindOf_ScannerSpellings_WhileAndBooleanLiterals() {
+        assertEquals(TokenKind.WHILE, Keywords.kind("while"));
+        assertEquals(TokenKind.BOOLEAN_LITERAL, Keywords.kind("t"));
+        assertEquals(TokenKind.BOOLEAN_LITERAL, Keywords.kind("f"));
+    }
+
+    @Test
+    public void kindOf_NearMisses_Identifier() {
+        for (String spelling : new String[]{"", "g", "goo", "og", "whle", "whiles", "int", "input", "ifs", "fun", "funcs", "bb", "ii", "tt", "Out", "DO", "counter", "a1"})
+            assertEquals(TokenKind.IDENTIFIER, Keywords.kind(spelling), spelling);
+    }
+
+    @Test
+    public void newToken_IdentifierSpelledLikeKeyword_KindReclassified() {
+        assertEquals(TokenKind.DECLARE, new Token(TokenKind.IDENTIFIER, "go").kind);
+        assertEquals(TokenKind.IDENTIFIER, new Token(TokenKind.IDENTIFIER, "going").kind);
+        assertEquals(TokenKind.INTEGER_LITERAL, new Token(TokenKind.INTEGER_LITERAL, "12").kind);
+    }
+}
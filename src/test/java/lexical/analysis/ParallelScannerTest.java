@@ -0,0 +1,52 @@
+package lexical.analysis;
+
+import org.junit.jupiter.api.Test;
+import test.utils.constants.PathToTestFilesConstants;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ParallelScannerTest {
+
+    @Test
+    public void scanAll_TestProgramsInSmallChunks_IdenticalToSequentialScan() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (String program : PathToTestFilesConstants.ALL_PROGRAMS)
+            text.append(Files.readString(Path.of(program), StandardCharsets.ISO_8859_1)).append("\n# comment { with ; tokens\n");
+        String source = text.toString().repeat(20);
+
+        for (int chunkSize : new int[]{1, 7, 64, 1000, source.length() + 1})
+            assertIdentical(source, chunkSize);
+    }
+
+    @Test
+    public void scanAll_NulCharacterInLaterChunk_EndsWhereSequentialScanEnds() {
+        String source = "go {\n i> x = 1;\n out(x);\n".repeat(50) + "\0 out(2);\n" + "out(3);\n".repeat(50);
+        assertIdentical(source, 16);
+    }
+
+    @Test
+    public void new_ChunkSizeBelowOne_ThrowsIllegalArgument() {
+        SourceFile source = SourceFile.of("go { out(1); }");
+
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScanner(source, ForkJoinPool.commonPool(), 0));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScanner(source, ForkJoinPool.commonPool(), -1));
+    }
+
+    private void assertIdentical(String source, int chunkSize) {
+        TokenStream expected = new Scanner(SourceFile.of(source)).scanAll();
+        TokenStream actual = new ParallelScanner(SourceFile.of(source), ForkJoinPool.commonPool(), chunkSize).scanAll();
+        assertEquals(expected.size(), actual.size(), "chunk size " + chunkSize);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.kind(i), actual.kind(i), "chunk size " + chunkSize);
+            assertEquals(expected.start(i), actual.start(i), "chunk size " + chunkSize);
+            assertEquals(expected.end(i), actual.end(i), "chunk size " + chunkSize);
+        }
+    }
+}
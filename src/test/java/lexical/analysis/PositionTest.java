@@ -0,0 +1,28 @@
+package lexical.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PositionTest {
+
+    @Test
+    public void of_OffsetLineAndColumn_UnpackedUnchanged() {
+        long position = Position.of(Integer.MAX_VALUE, 4_000_000, 1000);
+
+        assertEquals(Integer.MAX_VALUE, Position.offset(position));
+        assertEquals(4_000_000, Position.line(position));
+        assertEquals(1000, Position.column(position));
+        assertEquals("4000000:1000", Position.toString(position));
+    }
+
+    @Test
+    public void of_LineAndColumnPastTheirMaximum_Saturated() {
+        long position = Position.of(123, Position.MAX_LINE + 10, 5000);
+
+        assertEquals(123, Position.offset(position));
+        assertEquals(Position.MAX_LINE, Position.line(position));
+        assertEquals(Position.MAX_COLUMN, Position.column(position));
+        assertEquals(Position.MAX_LINE + "+:" + Position.MAX_COLUMN + "+", Position.toString(position));
+    }
+}
@@ -6,6 +6,9 @@ import org.junit.Before;
 import org.junit.jupiter.api.Test;
 import test.utils.constants.PathToTestFilesConstants;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class ScannerTest {
     private static final Logger logger = LogManager.getLogger(ScannerTest.class);
 
@@ -89,6 +92,27 @@ public class ScannerTest {
             token = scanner.scan();
         }
     }
+    @Test
+    public void scanAll_EveryTestProgram_SameTokensAsScan() {
+        for (String program : PathToTestFilesConstants.ALL_PROGRAMS) {
+            Scanner scanner = arrange(program);
+            TokenStream tokens = arrange(program).scanAll();
+            for (int i = 0; i < tokens.size(); i++) {
+                Token token = scanner.scan();
+                assertEquals(token.kind, tokens.kind(i), program);
+                assertEquals(token.spelling, tokens.spelling(i), program);
+            }
+            assertEquals(TokenKind.EOT, tokens.kind(tokens.size() - 1), program);
+        }
+    }
+
+    @Test
+    public void scanAll_StreamSource_ThrowsIllegalArgument() {
+        Scanner scanner = new Scanner(new SourceFile(PathToTestFilesConstants.INPUT_OUTPUT, SourceMode.STREAM));
+
+        assertThrows(IllegalArgumentException.class, scanner::scanAll);
+    }
+
     private Scanner arrange(String sourceTestFile) {
         SourceFile in = new SourceFile(sourceTestFile);
         return new Scanner(in);
@@ -0,0 +1,52 @@
+package lexical.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SeparatorSkipperTest {
+
+    @Test
+    public void skip_RandomSeparatorRuns_BestAgreesWithScalarAndCharLoop() {
+        String alphabet = "      \t\t\r\n\n#x;";
+        Random random = new Random(11);
+        for (int round = 0; round < 500; round++) {
+            byte[] bytes = new byte[random.nextInt(400)];
+            for (int i = 0; i < bytes.length; i++)
+                bytes[i] = (byte) alphabet.charAt(random.nextInt(alphabet.length()));
+            int from = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            boolean inComment = random.nextBoolean();
+
+            int expected = SeparatorSkipper.SCALAR.skip(bytes, from, bytes.length, inComment);
+            assertEquals(expected, SeparatorSkipper.BEST.skip(bytes, from, bytes.length, inComment), SeparatorSkipper.BEST.name());
+
+            CharSequenceSourceInput chars = new CharSequenceSourceInput(new String(bytes, StandardCharsets.ISO_8859_1));
+            chars.seek(from);
+            assertEquals(expected - from, chars.skipSeparators(inComment));
+        }
+    }
+
+    @Test
+    public void scan_IndentedAndCommentedSource_SameTokensWithAndWithoutBulkSkip() throws IOException {
+        String text = "go\n{\n" + "        # indented comment line that is quite long\n".repeat(40)
+                + "        i> counter = 2;   # trailing\n\t\r\n        out(counter);\n}\n# last line without end of line";
+        Scanner bulk = new Scanner(SourceFile.of(text));
+        Path file = Files.createTempFile("shortsy-", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, text, StandardCharsets.ISO_8859_1);
+        Scanner perCharacter = new Scanner(new SourceFile(file.toString(), SourceMode.STREAM));
+        Token token;
+        do {
+            token = perCharacter.scan();
+            Token other = bulk.scan();
+            assertEquals(token.kind, other.kind);
+            assertEquals(token.spelling, other.spelling);
+        } while (token.kind != TokenKind.EOT);
+    }
+}
@@ -0,0 +1,92 @@
+package lexical.analysis;
+
+import org.junit.jupiter.api.Test;
+import test.utils.constants.PathToTestFilesConstants;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SourceFileTest {
+
+    @Test
+    public void openMissingFile_AnyMode_ThrowsInsteadOfExiting() {
+        for (SourceMode mode : SourceMode.values())
+            assertThrows(UncheckedIOException.class, () -> new SourceFile("src/test/resources/missing.txt", mode));
+    }
+
+    @Test
+    public void readFile_EveryMode_SameTokens() {
+        List<String> expected = tokens(new SourceFile(PathToTestFilesConstants.INPUT_OUTPUT, SourceMode.STREAM));
+        for (SourceMode mode : SourceMode.values())
+            assertEquals(expected, tokens(new SourceFile(PathToTestFilesConstants.INPUT_OUTPUT, mode)));
+    }
+
+    @Test
+    public void charAt_StreamSource_ThrowsIllegalState() {
+        SourceFile stream = new SourceFile(PathToTestFilesConstants.INPUT_OUTPUT, SourceMode.STREAM);
+
+        assertThrows(IllegalStateException.class, () -> stream.charAt(0));
+        assertThrows(IllegalStateException.class, () -> stream.spelling(0, 1));
+        assertThrows(IllegalStateException.class, stream::length);
+    }
+
+    @Test
+    public void readInMemorySource_EveryVariant_SameTokensAsFile() throws IOException {
+        List<String> expected = tokens(new SourceFile(PathToTestFilesConstants.DECLARATION_OF_FUNC));
+        byte[] bytes = Files.readAllBytes(Path.of(PathToTestFilesConstants.DECLARATION_OF_FUNC));
+        String text = new String(bytes, StandardCharsets.ISO_8859_1);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        assertEquals(expected, tokens(SourceFile.of(text)));
+        assertEquals(expected, tokens(SourceFile.of(new StringBuilder(text))));
+        assertEquals(expected, tokens(SourceFile.of(bytes)));
+        assertEquals(expected, tokens(SourceFile.of(ByteBuffer.wrap(bytes))));
+        assertEquals(expected, tokens(SourceFile.of(direct)));
+        assertEquals(expected, tokens(SourceFile.of(new StringReader(text))));
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void position_EveryVariant_LineAndColumnFromOne() throws IOException {
+        String text = "go {\n  i> a;\n\n  out(a);\n}";
+        int out = text.indexOf("out");
+
+        for (SourceFile sourceFile : List.of(SourceFile.of(text), SourceFile.of(new StringReader(text)))) {
+            tokens(sourceFile);
+            assertEquals("1:1", Position.toString(sourceFile.position(0)));
+            assertEquals("4:3", Position.toString(sourceFile.position(out)));
+            assertEquals(out, Position.offset(sourceFile.position(out)));
+            assertEquals(5, sourceFile.line(text.length() - 1));
+        }
+    }
+
+    @Test
+    public void position_LineLongerThanMaxColumn_ExactColumnStillAvailable() {
+        String text = "go {" + " ".repeat(2000) + "out(1); }";
+        SourceFile sourceFile = SourceFile.of(text);
+        int out = text.indexOf("out");
+
+        assertEquals(Position.MAX_COLUMN, Position.column(sourceFile.position(out)));
+        assertEquals(out + 1, sourceFile.column(out));
+    }
+
+    private List<String> tokens(SourceFile sourceFile) {
+        Scanner scanner = new Scanner(sourceFile);
+        List<String> tokens = new ArrayList<>();
+        for (Token token = scanner.scan(); token.kind != TokenKind.EOT; token = scanner.scan())
+            tokens.add(token.kind + " " + token.spelling);
+        return tokens;
+    }
+}
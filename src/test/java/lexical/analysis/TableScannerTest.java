@@ -0,0 +1,41 @@
+package lexical.analysis;
+
+import org.junit.jupiter.api.Test;
+import test.utils.constants.PathToTestFilesConstants;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TableScannerTest {
+
+    @Test
+    public void scanAll_EveryTestProgram_SameTokensAsScanner() {
+        for (String program : PathToTestFilesConstants.ALL_PROGRAMS)
+            assertSameTokens(new SourceFile(program), new SourceFile(program), program);
+    }
+
+    @Test
+    public void scanAll_RandomCharacters_SameTokensAsScanner() {
+        String alphabet = "goifelwhlbti>=+-*/,;(){}#  \t\r\n0123456789xyz~\u00e9";
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(300);
+            for (int i = 0; i < length; i++)
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            assertSameTokens(SourceFile.of(text), SourceFile.of(text), text.toString());
+        }
+    }
+
+    private void assertSameTokens(SourceFile forScanner, SourceFile forTableScanner, String source) {
+        Scanner scanner = new Scanner(forScanner);
+        TokenStream tokens = new TableScanner(forTableScanner).scanAll();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = scanner.scan();
+            assertEquals(token.kind, tokens.kind(i), source);
+            assertEquals(token.spelling, tokens.spelling(i), source);
+        }
+        assertEquals(TokenKind.EOT, tokens.kind(tokens.size() - 1), source);
+    }
+}
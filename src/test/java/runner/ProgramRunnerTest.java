@@ -0,0 +1,142 @@
+package runner;
+
+import org.junit.jupiter.api.Test;
+import test.utils.RecordingIO;
+import test.utils.constants.SamplePrograms;
+import vm.Budget;
+import vm.RegisterCompiler;
+import vm.VirtualMachine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.utils.Programs.analyze;
+
+public class ProgramRunnerTest {
+    private static final String RUNAWAY = "go { i> compare = 0; whl (compare == 2) == f do { compare = 1; } }";
+    private static final Budget SMALL = new Budget(1_000_000, 100, 1 << 20);
+
+    @Test
+    public void submit_SamplePrograms_SameOutputAsVirtualMachine() throws Exception {
+        List<RecordingIO> outputs = new ArrayList<>();
+        List<CompletableFuture<RunResult>> results = new ArrayList<>();
+        try (ProgramRunner runner = new ProgramRunner(Executors.newFixedThreadPool(4), 3)) {
+            for (String source : SamplePrograms.ALL) {
+                RecordingIO io = new RecordingIO(SamplePrograms.INPUT);
+                outputs.add(io);
+                results.add(runner.submit(analyze(source), io, SMALL));
+            }
+        }
+
+        for (int i = 0; i < SamplePrograms.ALL.length; i++) {
+            RecordingIO expected = new RecordingIO(SamplePrograms.INPUT);
+            new VirtualMachine(expected).run(new RegisterCompiler().compile(analyze(SamplePrograms.ALL[i])));
+            assertEquals(RunResult.Status.COMPLETED, results.get(i).get().status, SamplePrograms.ALL[i]);
+            assertEquals(expected.output, outputs.get(i).output, SamplePrograms.ALL[i]);
+        }
+    }
+
+    @Test
+    public void submit_RunawayLoop_StepsExceeded() throws Exception {
+        RunResult result;
+        try (ProgramRunner runner = new ProgramRunner(1)) {
+            result = runner.submit(analyze(RUNAWAY), new RecordingIO(), SMALL).get();
+        }
+
+        assertEquals(RunResult.Status.BUDGET_EXCEEDED, result.status);
+        assertEquals(Budget.Resource.STEPS, result.exceeded);
+        assertTrue(result.steps > SMALL.steps, result.toString());
+        assertTrue(result.slices > 1, result.toString());
+    }
+
+    @Test
+    public void submit_RunawayLoopFirstOnOneThread_OthersStillEnd() throws Exception {
+        ProgramRunner runner = new ProgramRunner(1);
+        CompletableFuture<RunResult> runaway = runner.submit(analyze(RUNAWAY), new RecordingIO(),
+                new Budget(Long.MAX_VALUE, 100, 1 << 20));
+        List<CompletableFuture<RunResult>> others = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            others.add(runner.submit(analyze(SamplePrograms.ALL[0]), new RecordingIO(SamplePrograms.INPUT), SMALL));
+
+        for (CompletableFuture<RunResult> other : others)
+            assertEquals(RunResult.Status.COMPLETED, other.get(1, TimeUnit.MINUTES).status);
+        assertFalse(runaway.isDone());
+        runaway.cancel(false);
+        runner.close();
+
+        RunnerMetrics metrics = runner.metrics();
+        assertEquals(21, metrics.submitted);
+        assertEquals(20, metrics.completed);
+        assertEquals(0, metrics.running);
+        assertEquals(0, metrics.queued);
+    }
+
+    @Test
+    public void close_Interrupted_StopsWaitingAndRunawayFails() throws Exception {
+        ProgramRunner runner = new ProgramRunner(1);
+        CompletableFuture<RunResult> runaway = runner.submit(analyze(RUNAWAY), new RecordingIO(),
+                new Budget(Long.MAX_VALUE, 100, 1 << 20));
+
+        Thread.currentThread().interrupt();
+        runner.close();
+
+        assertTrue(Thread.interrupted());
+        assertEquals(RunResult.Status.FAILED, runaway.get(1, TimeUnit.MINUTES).status);
+    }
+
+    @Test
+    public void submit_UnboundedRecursion_CallDepthOrMemoryExceeded() throws Exception {
+        String source = "go { func down(i> n) go { } ret down(n + 1) out(down(0)); }";
+        RunResult deep;
+        RunResult large;
+        try (ProgramRunner runner = new ProgramRunner(2)) {
+            deep = runner.submit(analyze(source), new RecordingIO(), new Budget(Long.MAX_VALUE, 1000, Long.MAX_VALUE)).get();
+            large = runner.submit(analyze(source), new RecordingIO(), new Budget(Long.MAX_VALUE, Integer.MAX_VALUE, 64 * 1024)).get();
+        }
+
+        assertEquals(Budget.Resource.CALL_DEPTH, deep.exceeded);
+        assertEquals(Budget.Resource.MEMORY, large.exceeded);
+    }
+
+    @Test
+    public void submit_DivisionByZero_FailedAndOutputSoFarKept() throws Exception {
+        RecordingIO io = new RecordingIO();
+        RunResult result;
+        ProgramRunner runner = new ProgramRunner(1);
+        try (runner) {
+            result = runner.submit(analyze("go { i> zero = 0; out(1); out(1 / zero); }"), io, SMALL).get();
+        }
+
+        assertEquals(RunResult.Status.FAILED, result.status);
+        assertInstanceOf(ArithmeticException.class, result.error);
+        assertEquals(List.of("1"), io.output);
+        assertEquals(1, runner.metrics().failed);
+    }
+
+    @Test
+    public void submit_ErrorThrownWhileRunning_FailedAndRunnerStillCloses() throws Exception {
+        RecordingIO overflowing = new RecordingIO() {
+            @Override
+            public void writeInt(int value) {
+                throw new StackOverflowError();
+            }
+        };
+        ProgramRunner runner = new ProgramRunner(1);
+        RunResult result;
+        try (runner) {
+            result = runner.submit(analyze("go { out(1); }"), overflowing, SMALL).get(1, TimeUnit.MINUTES);
+        }
+
+        assertEquals(RunResult.Status.FAILED, result.status);
+        assertInstanceOf(StackOverflowError.class, result.error);
+        assertEquals(0, runner.metrics().running);
+        assertEquals(1, runner.metrics().failed);
+    }
+}
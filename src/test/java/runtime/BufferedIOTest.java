@@ -0,0 +1,152 @@
+package runtime;
+
+import org.junit.jupiter.api.Test;
+import test.utils.RecordingIO;
+import test.utils.constants.SamplePrograms;
+import vm.RegisterCompiler;
+import vm.VirtualMachine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.utils.Programs.analyze;
+
+public class BufferedIOTest {
+
+    @Test
+    public void writeInt_ExtremeValues_SameAsToString() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BufferedIO io = BufferedIO.inMemory("", output);
+        int[] values = {0, 7, -7, 10, 999_999_999, 1_000_000_000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        StringBuilder expected = new StringBuilder();
+        for (int value : values) {
+            io.writeInt(value);
+            expected.append(value).append('\n');
+        }
+        io.writeBoolean(true);
+        io.writeBoolean(false);
+        io.flush();
+
+        assertEquals(expected + "t\nf\n", output.toString(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void readInt_ValuesAcrossBufferRefills_ParsedAsParseInt() {
+        StringBuilder input = new StringBuilder();
+        for (int i = -5000; i < 5000; i += 7)
+            input.append(i * 104_729).append(i % 3 == 0 ? "\n" : "  \t");
+        input.append("+12 ").append(Integer.MIN_VALUE).append('\n').append(Integer.MAX_VALUE);
+        BufferedIO io = new BufferedIO(Channels.newChannel(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.ISO_8859_1))),
+                Channels.newChannel(new ByteArrayOutputStream()), FlushPolicy.WHEN_FULL, 16);
+
+        for (int i = -5000; i < 5000; i += 7)
+            assertEquals(i * 104_729, io.readInt());
+        assertEquals(12, io.readInt());
+        assertEquals(Integer.MIN_VALUE, io.readInt());
+        assertEquals(Integer.MAX_VALUE, io.readInt());
+        assertThrows(NoSuchElementException.class, io::readInt);
+    }
+
+    @Test
+    public void readInt_MalformedOrOverflowing_Throws() {
+        for (String value : new String[]{"2147483648", "-2147483649", "12a", "-", "t"})
+            assertThrows(NumberFormatException.class, () -> BufferedIO.inMemory(value, new ByteArrayOutputStream()).readInt(), value);
+    }
+
+    @Test
+    public void readBoolean_TAndOtherValues_OnlyTIsTrue() {
+        BufferedIO io = BufferedIO.inMemory(" t\nf\ntrue\n1", new ByteArrayOutputStream());
+
+        assertTrue(io.readBoolean());
+        assertFalse(io.readBoolean());
+        assertFalse(io.readBoolean());
+        assertFalse(io.readBoolean());
+    }
+
+    @Test
+    public void flushPolicy_EachPolicy_OutputWrittenWhenAsked() {
+        for (FlushPolicy policy : FlushPolicy.values()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            BufferedIO io = new BufferedIO(new ByteArrayInputStream("5".getBytes(StandardCharsets.ISO_8859_1)), output, policy);
+
+            io.writeInt(1);
+            assertEquals(policy == FlushPolicy.EVERY_VALUE ? 2 : 0, output.size(), policy.name());
+            io.readInt();
+            assertEquals(policy == FlushPolicy.WHEN_FULL ? 0 : 2, output.size(), policy.name());
+            io.flush();
+            assertEquals(2, output.size(), policy.name());
+        }
+    }
+
+    @Test
+    public void run_SamplePrograms_SameOutputAsRecordingIO() throws Exception {
+        for (String source : SamplePrograms.ALL) {
+            RecordingIO recorded = new RecordingIO(SamplePrograms.INPUT);
+            new VirtualMachine(recorded).run(new RegisterCompiler().compile(analyze(source)));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new VirtualMachine(BufferedIO.inMemory(String.join("\n", SamplePrograms.INPUT), output))
+                    .run(new RegisterCompiler().compile(analyze(source)));
+
+            String expected = recorded.output.isEmpty() ? "" : String.join("\n", recorded.output) + "\n";
+            assertEquals(expected, output.toString(StandardCharsets.ISO_8859_1), source);
+        }
+    }
+
+    @Test
+    public void files_InputAndOutputFiles_ReadAndWrittenThroughChannels() throws IOException {
+        Path directory = Files.createTempDirectory("shortsy-io");
+        Path input = Files.writeString(directory.resolve("in.txt"), "3 4\n");
+        Path output = directory.resolve("out.txt");
+
+        try (BufferedIO io = BufferedIO.files(input, output, FlushPolicy.WHEN_FULL)) {
+            io.writeInt(io.readInt() * io.readInt());
+        }
+
+        assertEquals("12\n", Files.readString(output));
+    }
+
+    @Test
+    public void close_ConsoleIO_FlushesWithoutClosingStandardStreams() {
+        boolean[] closed = new boolean[2];
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() {
+                closed[1] = true;
+            }
+        };
+        PrintStream stdout = System.out;
+        InputStream stdin = System.in;
+        System.setOut(new PrintStream(output, false, StandardCharsets.ISO_8859_1));
+        System.setIn(input);
+        try {
+            ConsoleIO io = new ConsoleIO();
+            io.writeInt(5);
+            io.close();
+        } finally {
+            System.setOut(stdout);
+            System.setIn(stdin);
+        }
+
+        assertEquals("5\n", output.toString(StandardCharsets.ISO_8859_1));
+        assertFalse(closed[0]);
+        assertFalse(closed[1]);
+    }
+}
@@ -0,0 +1,154 @@
+package semantic.analysis;
+
+import ast.AssignStatement;
+import ast.FunctionDeclaration;
+import ast.IfStatement;
+import ast.OutStatement;
+import ast.Program;
+import ast.Type;
+import ast.VarExpression;
+import ast.VariableDeclaration;
+import exceptions.SemanticException;
+import lexical.analysis.Position;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import org.junit.jupiter.api.Test;
+import syntatic.analysis.DiagnosticCollector;
+import syntatic.analysis.Parser;
+import test.utils.constants.PathToTestFilesConstants;
+import test.utils.constants.SamplePrograms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.utils.Programs.analyze;
+import static test.utils.Programs.parse;
+
+public class SemanticAnalyzerTest {
+
+    @Test
+    public void analyze_AssignBoolAndInt_GlobalSlotsPerType() throws Exception {
+        Program program = analyze(new Parser(new Scanner(new SourceFile(PathToTestFilesConstants.ASSIGN_BOOL_AND_INT))).parseProgram());
+
+        assertEquals(1, program.intGlobals);
+        assertEquals(1, program.booleanGlobals);
+        AssignStatement assign = (AssignStatement) program.block.statements.stat.get(1);
+        assertSame(program.block.declarations.dec.get(1), assign.identifier.declaration);
+        assertEquals(0, assign.identifier.slot);
+        assertTrue(assign.identifier.global);
+    }
+
+    @Test
+    public void analyze_FunctionWithLocals_FrameSizesAndLocalSlots() throws Exception {
+        Program program = analyze("go { func pick(i> a, b> c) go { i> d = a; b> e = c; } ret d out(pick(1, t)); }");
+
+        FunctionDeclaration pick = (FunctionDeclaration) program.block.declarations.dec.get(0);
+        assertEquals(2, pick.intFrameSize);
+        assertEquals(2, pick.booleanFrameSize);
+        assertEquals(Type.INTEGER, pick.returnType);
+        VariableDeclaration d = (VariableDeclaration) pick.block.declarations.dec.get(0);
+        assertEquals(1, d.identifier.slot);
+        assertFalse(d.identifier.global);
+    }
+
+    @Test
+    public void analyze_RecursiveFunction_CallTypedBeforeRetIsKnown() throws Exception {
+        analyze("go { func fact(i> n) go { i> r = 1; if (n == 0) == f do { r = n * fact(n - 1); } } ret r out(fact(5)); }");
+    }
+
+    @Test
+    public void analyze_UndeclaredVariable_Throws() {
+        assertThrows(SemanticException.class, () -> analyze("go { i> x; x = y; }"));
+    }
+
+    @Test
+    public void analyze_BooleanAssignedToInteger_Throws() {
+        assertThrows(SemanticException.class, () -> analyze("go { i> a; a = t; }"));
+    }
+
+    @Test
+    public void analyze_ProcedureUsedAsValue_Throws() {
+        assertThrows(SemanticException.class, () -> analyze("go { func p() { out(1); } out(p()); }"));
+    }
+
+    @Test
+    public void analyze_ReturnTypeContradictsAssumedType_Throws() {
+        assertThrows(SemanticException.class, () -> analyze("go { b> x; x = g(); func g() go { } ret 1 }"));
+    }
+
+    @Test
+    public void analyze_RedeclaredVariable_Throws() {
+        assertThrows(SemanticException.class, () -> analyze("go { i> a; b> a; }"));
+    }
+
+    @Test
+    public void analyze_FiftyThousandDeclarations_ResolvesEveryIdentifier() throws Exception {
+        StringBuilder source = new StringBuilder("go { ");
+        for (int i = 0; i < 50_000; i++)
+            source.append("i> v").append(i).append(" = ").append(i).append("; ");
+        for (int i = 0; i < 50_000; i += 1000)
+            source.append("v").append(i).append(" = v").append(i + 1).append(" + 1; ");
+        source.append("}");
+
+        Program program = analyze(source.toString());
+
+        assertEquals(50_000, program.intGlobals);
+        AssignStatement last = (AssignStatement) program.block.statements.stat.get(program.block.statements.stat.size() - 1);
+        assertEquals(49_000, last.identifier.slot);
+        assertEquals(Type.INTEGER, last.identifier.type);
+    }
+
+    @Test
+    public void analyze_ShadowingInNestedScopes_InnerTypeWins() throws Exception {
+        Program program = analyze("go { i> x; if (x == 0) do { b> x = t; out(x); } x = 1; }");
+
+        IfStatement ifStatement = (IfStatement) program.block.statements.stat.get(0);
+        OutStatement out = (OutStatement) ifStatement.ifStatement.stat.get(1);
+        assertEquals(Type.BOOLEAN, ((VarExpression) out.exp).name.type);
+        AssignStatement assign = (AssignStatement) program.block.statements.stat.get(1);
+        assertEquals(Type.INTEGER, assign.identifier.type);
+    }
+
+    @Test
+    public void analyze_UndeclaredVariable_ReportedToSink() throws Exception {
+        Program program = new Parser(new Scanner(SourceFile.of("go { out(y); }"))).parseProgram();
+        DiagnosticCollector collector = new DiagnosticCollector();
+
+        assertThrows(SemanticException.class, () -> new SemanticAnalyzer(collector).analyze(program));
+
+        assertEquals("Semantic error: Variable y is not declared", collector.diagnostics().get(0).message);
+    }
+
+    @Test
+    public void analyze_UndeclaredVariable_PositionOfItsIdentifier() throws Exception {
+        Program program = new Parser(new Scanner(SourceFile.of("go {\n  i> x;\n  x = 1 + y;\n}"))).parseProgram();
+
+        SemanticException exception = assertThrows(SemanticException.class, () -> analyze(program));
+
+        assertEquals("3:11", Position.toString(exception.position));
+    }
+
+    @Test
+    public void analyze_HundredThousandLevelsDeep_NoStackOverflow() throws Exception {
+        Program program = analyze(SamplePrograms.nested(100_000));
+
+        for (int index = 0; index < 3; index++)
+            assertEquals(Type.INTEGER, ((OutStatement) program.block.statements.stat.get(index)).exp.type);
+        assertEquals(Type.BOOLEAN, ((IfStatement) program.block.statements.stat.get(3)).exp.type);
+    }
+
+    @Test
+    public void analyze_SameAnalyzerAfterAFailure_SecondProgramAnalyzedAfresh() throws Exception {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        assertThrows(SemanticException.class, () -> analyzer.analyze(parse("go { i> x = 1; func g() go { i> y; } ret y out(z); }")));
+        Program program = parse("go { b> x = t; func g(i> n) go { } ret n out(g(1)); out(x); }");
+
+        analyzer.analyze(program);
+
+        assertEquals(0, program.intGlobals);
+        assertEquals(1, program.booleanGlobals);
+        assertEquals(Type.BOOLEAN, ((OutStatement) program.block.statements.stat.get(1)).exp.type);
+    }
+}
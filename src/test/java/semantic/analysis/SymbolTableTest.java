@@ -0,0 +1,84 @@
+package semantic.analysis;
+
+import ast.FunctionDeclaration;
+import ast.VariableDeclaration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SymbolTableTest {
+
+    @Test
+    public void intern_EqualSpellings_SameDenseId() {
+        SymbolTable table = new SymbolTable();
+
+        int x = table.intern("x");
+        int y = table.intern("y");
+
+        assertEquals(0, x);
+        assertEquals(1, y);
+        assertEquals(x, table.intern(new String("x")));
+        assertEquals(2, table.symbolCount());
+    }
+
+    @Test
+    public void intern_ManySpellings_IdsSurviveRehash() {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 10_000; i++)
+            assertEquals(i, table.intern("v" + i));
+
+        for (int i = 0; i < 10_000; i++)
+            assertEquals(i, table.intern("v" + i));
+        assertEquals(10_000, table.symbolCount());
+    }
+
+    @Test
+    public void lookup_InnerDeclaration_ShadowsUntilScopeExit() {
+        SymbolTable table = new SymbolTable();
+        VariableDeclaration outer = new VariableDeclaration(null, null, null);
+        VariableDeclaration inner = new VariableDeclaration(null, null, null);
+        int x = table.intern("x");
+
+        table.enterScope();
+        assertTrue(table.declare(x, outer, null));
+        table.enterScope();
+        assertTrue(table.declare(x, inner, null));
+        assertSame(inner, table.declaration(table.lookup(x)));
+        table.exitScope();
+
+        assertSame(outer, table.declaration(table.lookup(x)));
+        table.exitScope();
+        assertEquals(-1, table.lookup(x));
+    }
+
+    @Test
+    public void declare_SameScope_Rejected() {
+        SymbolTable table = new SymbolTable();
+        int x = table.intern("x");
+        table.enterScope();
+
+        assertTrue(table.declare(x, new VariableDeclaration(null, null, null), null));
+        assertFalse(table.declare(x, new VariableDeclaration(null, null, null), null));
+    }
+
+    @Test
+    public void owner_DeclaredInFunction_Recorded() {
+        SymbolTable table = new SymbolTable();
+        FunctionDeclaration function = new FunctionDeclaration(null, null, null, null);
+        int global = table.intern("g");
+        int local = table.intern("l");
+        table.enterScope();
+        table.declare(global, new VariableDeclaration(null, null, null), null);
+        table.enterScope();
+        table.declare(local, new VariableDeclaration(null, null, null), function);
+
+        assertNull(table.owner(table.lookup(global)));
+        assertSame(function, table.owner(table.lookup(local)));
+        assertNotEquals(table.lookup(global), table.lookup(local));
+    }
+}
@@ -0,0 +1,198 @@
+package server;
+
+import driver.Compilation;
+import driver.CompilationResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.utils.constants.SamplePrograms;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompileServerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void compile_ServerRunning_SameResultAsInProcess() throws Exception {
+        Path socket = directory.resolve("compile.sock");
+        try (CompileServer server = CompileServer.start(socket)) {
+            CompileClient client = new CompileClient(socket);
+            for (String source : SamplePrograms.ALL) {
+                CompilationResult remote = client.compile(bytes(source));
+
+                assertEquals(Compilation.compile(bytes(source)).program().disassemble(), remote.program().disassemble());
+            }
+            CompilationResult failed = client.compile(bytes("go { out(; }"));
+            assertFalse(failed.succeeded());
+            assertEquals(1, failed.diagnostics().size());
+            assertEquals(SamplePrograms.ALL.length + 1, server.compiled());
+        }
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    public void compile_ConcurrentClients_AllServed() throws Exception {
+        Path socket = directory.resolve("compile.sock");
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try (CompileServer server = CompileServer.start(socket)) {
+            List<Future<CompilationResult>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String source = "go { out(" + i + " * 2); }";
+                results.add(clients.submit(() -> new CompileClient(socket).compile(bytes(source))));
+            }
+            for (Future<CompilationResult> result : results)
+                assertTrue(result.get().succeeded());
+            assertEquals(64, server.compiled());
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    public void compile_NoServer_CompiledInProcess() {
+        CompilationResult result = new CompileClient(directory.resolve("missing.sock")).compile(bytes("go { out(1); }"));
+
+        assertTrue(result.succeeded());
+    }
+
+    @Test
+    public void start_ServerAlreadyListening_Throws() throws Exception {
+        Path socket = directory.resolve("compile.sock");
+        CompileServer server = CompileServer.start(socket);
+        try (server) {
+            assertThrows(IOException.class, () -> CompileServer.start(socket));
+        }
+    }
+
+    @Test
+    public void close_IdleConnectionOpen_ConnectionFinished() throws Exception {
+        Path socket = directory.resolve("compile.sock");
+        CompileServer server = CompileServer.start(socket);
+        try (SocketChannel connection = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(connection));
+            byte[] source = bytes("go { out(1); }");
+            out.writeInt(source.length);
+            out.write(source);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+            assertTrue(CompilationResult.readFrom(in).succeeded());
+
+            assertTimeoutPreemptively(Duration.ofMinutes(1), () -> {
+                server.close();
+                assertEquals(-1, in.read());
+            });
+            assertFalse(Files.exists(socket));
+        }
+    }
+
+    @Test
+    public void start_StaleSocketFile_Replaced() throws Exception {
+        Path socket = directory.resolve("compile.sock");
+        Files.createFile(socket);
+
+        try (CompileServer server = CompileServer.start(socket)) {
+            assertTrue(new CompileClient(socket).compile(bytes("go { out(1); }")).succeeded());
+            assertEquals(1, server.compiled());
+        }
+    }
+
+    @Test
+    public void accept_FailingRepeatedly_BacksOffAndRecordsError() throws Exception {
+        FailingChannel channel = new FailingChannel();
+        CompileServer server = CompileServer.start(directory.resolve("compile.sock"), channel);
+        Thread.sleep(500);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), server::close);
+        assertTrue(channel.accepts.get() <= 10, channel.accepts + " accepts");
+        assertEquals("Too many open files", server.acceptError().getMessage());
+    }
+
+    private static byte[] bytes(String source) {
+        return source.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * A server channel whose accepts fail until it is closed, as when the process is out of file descriptors
+     */
+    private static class FailingChannel extends ServerSocketChannel {
+        final AtomicInteger accepts = new AtomicInteger();
+
+        FailingChannel() {
+            super(SelectorProvider.provider());
+        }
+
+        @Override
+        public SocketChannel accept() throws IOException {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            accepts.incrementAndGet();
+            throw new IOException("Too many open files");
+        }
+
+        @Override
+        public ServerSocketChannel bind(SocketAddress local, int backlog) {
+            return this;
+        }
+
+        @Override
+        public <T> ServerSocketChannel setOption(SocketOption<T> name, T value) {
+            return this;
+        }
+
+        @Override
+        public <T> T getOption(SocketOption<T> name) {
+            return null;
+        }
+
+        @Override
+        public Set<SocketOption<?>> supportedOptions() {
+            return Set.of();
+        }
+
+        @Override
+        public ServerSocket socket() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        protected void implCloseSelectableChannel() {
+        }
+
+        @Override
+        protected void implConfigureBlocking(boolean block) {
+        }
+    }
+}
@@ -1,12 +1,37 @@
 package syntatic.analysis.test;
 
+import ast.AssignStatement;
+import ast.BinaryExpression;
+import ast.BoolLiteralExpression;
+import ast.CallExpression;
+import ast.DeclarationStatement;
+import ast.Expression;
+import ast.FunctionDeclaration;
+import ast.IfStatement;
+import ast.IntLiteralExpression;
+import ast.OutStatement;
+import ast.Program;
+import ast.Type;
+import ast.UnaryExpression;
+import ast.VariableDeclaration;
 import exceptions.SyntaticException;
+import lexical.analysis.Position;
 import lexical.analysis.Scanner;
 import lexical.analysis.SourceFile;
 import org.junit.jupiter.api.Test;
+import syntatic.analysis.Diagnostic;
+import syntatic.analysis.DiagnosticCollector;
 import syntatic.analysis.Parser;
 import test.utils.constants.PathToTestFilesConstants;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /**
  * guidance to UnitTest naming convention and structure
  * <a href="https://learn.microsoft.com/en-us/dotnet/core/testing/unit-testing-best-practices"></a>
@@ -66,6 +91,148 @@ public class ParserTest {
         // assert with exception
     }
 
+    @Test
+    public void parsePackedTokens_EveryTestProgram_Accepted() throws SyntaticException {
+        for (String program : PathToTestFilesConstants.ALL_PROGRAMS) {
+            Parser parser = new Parser(new Scanner(new SourceFile(program)).scanAll());
+            parser.parseProgram();
+        }
+    }
+
+
+    @Test
+    public void parseProgram_AssignBoolAndInt_TreeHoldsDeclarationsAndAssignments() throws SyntaticException {
+        Program program = arrange(PathToTestFilesConstants.ASSIGN_BOOL_AND_INT).parseProgram();
+
+        assertEquals(2, program.block.declarations.dec.size());
+        VariableDeclaration number = (VariableDeclaration) program.block.declarations.dec.get(0);
+        assertEquals(Type.BOOLEAN, number.type);
+        assertEquals("number", number.identifier.spelling);
+        assertEquals(2, program.block.statements.stat.size());
+        AssignStatement assign = (AssignStatement) program.block.statements.stat.get(1);
+        assertEquals("counter", assign.identifier.spelling);
+        assertEquals("2", ((IntLiteralExpression) assign.exp).literal.spelling);
+        assertInstanceOf(BoolLiteralExpression.class, ((AssignStatement) program.block.statements.stat.get(0)).exp);
+    }
+
+    @Test
+    public void parseProgram_FunctionDeclaration_ProcedureAmongStatements() throws SyntaticException {
+        Program program = arrange(PathToTestFilesConstants.DECLARATION_OF_FUNC).parseProgram();
+
+        DeclarationStatement statement = (DeclarationStatement) program.block.statements.stat.get(1);
+        FunctionDeclaration add = (FunctionDeclaration) statement.declaration;
+        assertEquals("Add", add.name.spelling);
+        assertEquals(0, add.parameters.dec.size());
+        assertEquals(1, add.block.statements.stat.size());
+    }
+
+    @Test
+    public void parseProgramRecovering_EveryTestProgram_NoDiagnostics() {
+        for (String path : PathToTestFilesConstants.ALL_PROGRAMS) {
+            List<Diagnostic> diagnostics = new ArrayList<>();
+            arrange(path).parseProgram(diagnostics);
+            assertEquals(List.of(), diagnostics, path);
+        }
+    }
+
+    @Test
+    public void parseProgramRecovering_ErrorsInSeveralStatements_AllReportedAndGoodStatementsKept() {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        Program program = new Parser(new Scanner(SourceFile.of(
+                "go { i> x; x = ; out(x); if (x == 1) do { out(; out(2); } x = 3 ) ; out(x); }"))).parseProgram(diagnostics);
+
+        assertEquals(3, diagnostics.size());
+        assertTrue(diagnostics.get(0).message.contains("Expression expected"));
+        assertEquals(3, program.block.statements.stat.size());
+        IfStatement ifStatement = (IfStatement) program.block.statements.stat.get(1);
+        assertEquals(1, ifStatement.ifStatement.stat.size());
+        assertInstanceOf(OutStatement.class, program.block.statements.stat.get(2));
+    }
+
+    @Test
+    public void parseProgramRecovering_MissingClosingBrace_ReportedOnce() {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        Program program = new Parser(new Scanner(SourceFile.of("go { i> x; x = 1;"))).parseProgram(diagnostics);
+
+        assertEquals(1, diagnostics.size());
+        assertEquals(1, program.block.statements.stat.size());
+    }
+
+    @Test
+    public void parseProgram_SyntaxError_ThrownWithoutStackTrace() {
+        SyntaticException exception = assertThrows(SyntaticException.class,
+                () -> new Parser(new Scanner(SourceFile.of("go { x = ; }"))).parseProgram());
+
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    public void parseExpression_MulAfterAdd_MulBindsTighter() throws SyntaticException {
+        BinaryExpression sum = (BinaryExpression) outExpression("go { out(1 + 2 * 3); }");
+
+        assertEquals("+", sum.operator.spelling);
+        assertEquals("*", ((BinaryExpression) sum.operand2).operator.spelling);
+    }
+
+    @Test
+    public void parseExpression_SamePrecedence_LeftAssociative() throws SyntaticException {
+        BinaryExpression difference = (BinaryExpression) outExpression("go { out(8 - 2 - 1); }");
+
+        assertEquals("-", ((BinaryExpression) difference.operand1).operator.spelling);
+        assertInstanceOf(IntLiteralExpression.class, difference.operand2);
+    }
+
+    @Test
+    public void parseExpression_EqualsWithSums_EqualsBindsLoosest() throws SyntaticException {
+        BinaryExpression equals = (BinaryExpression) outExpression("go { out(-x + 1 == g(y, 2) * 2); }");
+
+        assertEquals("==", equals.operator.spelling);
+        assertInstanceOf(UnaryExpression.class, ((BinaryExpression) equals.operand1).operand1);
+        assertInstanceOf(CallExpression.class, ((BinaryExpression) equals.operand2).operand1);
+    }
+
+    @Test
+    public void parseExpression_HundredThousandLevelsDeep_NoStackOverflow() throws SyntaticException {
+        int depth = 100_000;
+        String source = "go { out(" + "-(".repeat(depth) + "g(".repeat(depth) + "1" + ")".repeat(2 * depth) + "); }";
+
+        Expression expression = outExpression(source);
+
+        for (int level = 0; level < depth; level++)
+            expression = ((UnaryExpression) expression).operand;
+        for (int level = 0; level < depth; level++)
+            expression = ((CallExpression) expression).listofExpressions.exp.get(0);
+        assertInstanceOf(IntLiteralExpression.class, expression);
+    }
+
+    @Test
+    public void parseProgram_SyntaxError_ReportedToSinkThenThrown() {
+        DiagnosticCollector collector = new DiagnosticCollector();
+
+        SyntaticException exception = assertThrows(SyntaticException.class,
+                () -> new Parser(new Scanner(SourceFile.of("go { out(1 + ; }")), collector).parseProgram());
+
+        assertEquals(1, collector.diagnostics().size());
+        assertEquals(exception.getMessage(), collector.diagnostics().get(0).message);
+        assertEquals(6, collector.diagnostics().get(0).token);
+    }
+
+    @Test
+    public void parseProgram_SyntaxError_PositionOfTheUnexpectedToken() {
+        DiagnosticCollector collector = new DiagnosticCollector();
+
+        SyntaticException exception = assertThrows(SyntaticException.class,
+                () -> new Parser(new Scanner(SourceFile.of("go {\n  i> x;\n  x = ;\n}")), collector).parseProgram());
+
+        assertEquals("3:7", Position.toString(exception.position));
+        assertEquals(exception.position, collector.diagnostics().get(0).position);
+        assertTrue(collector.diagnostics().get(0).toString().startsWith("3:7: "));
+    }
+
+    private Expression outExpression(String source) throws SyntaticException {
+        Program program = new Parser(new Scanner(SourceFile.of(source))).parseProgram();
+        return ((OutStatement) program.block.statements.stat.get(0)).exp;
+    }
 
     private Parser arrange(String pathSourceTest) {
         SourceFile sourceFile = new SourceFile(pathSourceTest);
@@ -0,0 +1,40 @@
+package test.utils;
+
+import ast.Program;
+import exceptions.SemanticException;
+import exceptions.SyntaticException;
+import lexical.analysis.Scanner;
+import lexical.analysis.SourceFile;
+import semantic.analysis.SemanticAnalyzer;
+import syntatic.analysis.Parser;
+
+/**
+ * Parses and analyzes the programs the tests compile and run
+ */
+public class Programs {
+
+    private Programs() {
+    }
+
+    /**
+     * @return the undecorated program of the source
+     */
+    public static Program parse(String source) throws SyntaticException {
+        return new Parser(new Scanner(SourceFile.of(source))).parseProgram();
+    }
+
+    /**
+     * @return the program of the source, decorated by a fresh semantic analyzer
+     */
+    public static Program analyze(String source) throws SyntaticException, SemanticException {
+        return analyze(parse(source));
+    }
+
+    /**
+     * @return the given program, decorated by a fresh semantic analyzer
+     */
+    public static Program analyze(Program program) throws SemanticException {
+        new SemanticAnalyzer().analyze(program);
+        return program;
+    }
+}
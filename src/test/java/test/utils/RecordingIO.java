@@ -0,0 +1,40 @@
+package test.utils;
+
+import runtime.ProgramIO;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Feeds a program the given input lines and records what it prints, one string per value
+ */
+public class RecordingIO implements ProgramIO {
+    public final List<String> output = new ArrayList<>();
+    private final Deque<String> input;
+
+    public RecordingIO(String... input) {
+        this.input = new ArrayDeque<>(List.of(input));
+    }
+
+    @Override
+    public int readInt() {
+        return Integer.parseInt(input.removeFirst());
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return input.removeFirst().equals("t");
+    }
+
+    @Override
+    public void writeInt(int value) {
+        output.add(Integer.toString(value));
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        output.add(value ? "t" : "f");
+    }
+}
@@ -9,4 +9,15 @@ public class PathToTestFilesConstants {
     public static final String DECLARATION_OF_DO_WITH_IF_ELSE = "src/test/resources/do-with-if-else.txt";
     public static final String DECLARATION_OF_DO = "src/test/resources/if-true-do.txt";
     public static final String INPUT_OUTPUT = "src/test/resources/input-output.txt";
+
+    public static final String[] ALL_PROGRAMS = {
+            ASSIGN_BOOL_AND_INT,
+            CALL_FUNC_WITH_ARG,
+            DECLARATION_OF_FUNC,
+            DECLARATION_OF_IF_ELSE,
+            DECLARATION_OF_WHILE,
+            DECLARATION_OF_DO_WITH_IF_ELSE,
+            DECLARATION_OF_DO,
+            INPUT_OUTPUT,
+    };
 }
@@ -0,0 +1,32 @@
+package test.utils.constants;
+
+/**
+ * Small programs covering every statement, run with the input lines of {@link #INPUT}
+ */
+public class SamplePrograms {
+    public static final String[] INPUT = {"21", "t"};
+
+    public static final String[] ALL = {
+            "go { func fact(i> n) go { i> r = 1; if (n == 0) == f do { r = n * fact(n - 1); } } ret r out(fact(10)); }",
+            "go { i> k = 0; i> sum = 0; whl (k == 5) == f do { k = k + 1; sum = sum + k; } out(sum); out(k == 5); }",
+            "go { i> starter; starter = 1; func Add(i> by) { starter = starter + by; } Add(2); Add(3); out(starter); }",
+            "go { func add(i> x, i> y) go { i> s = x + y; } ret s out(add(add(1, 2), add(add(3, 4), 5))); }",
+            "go { func isZero(i> n) go { } ret n == 0 b> z = isZero(-3); if z do { out(1); } el { out(z); } }",
+            "go { b> flag = t; func mix(b> p, i> x, b> q) go { i> r = x; if p == q do { r = -x; } } ret r out(mix(flag, 7, t)); out(mix(f, 100000, t)); }",
+            "go { i> n; n = in(); b> seen; seen = in(); out(n * 2); out(seen); }",
+            "go { i> g = 3; func bump() { in(g); g = g - 1; } bump(); out(g); if t do { out(1); } whl f do { out(2); } }",
+    };
+
+    /**
+     * A program whose expressions nest levels deep: a flat sum, right-nested differences, negations
+     * of nested calls and a chain of == as a condition. For an even number of levels it prints
+     * levels, 1, levels + 1 and t
+     */
+    public static String nested(int levels) {
+        return "go { func inc(i> n) go { } ret n + 1 i> x = 1; "
+                + "out(" + "x + ".repeat(levels - 1) + "x); "
+                + "out(" + "(x - ".repeat(levels) + "x" + ")".repeat(levels) + "); "
+                + "out(" + "-(".repeat(levels) + "inc(".repeat(levels) + "x" + ")".repeat(2 * levels) + "); "
+                + "if x == 1" + " == t".repeat(levels) + " do { out(t); } }";
+    }
+}
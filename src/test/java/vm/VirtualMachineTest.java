@@ -0,0 +1,97 @@
+package vm;
+
+import interpreter.Interpreter;
+import org.junit.jupiter.api.Test;
+import test.utils.RecordingIO;
+import test.utils.constants.SamplePrograms;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.utils.Programs.analyze;
+
+public class VirtualMachineTest {
+
+    @Test
+    public void run_SamplePrograms_SameOutputAsInterpreter() throws Exception {
+        for (String source : SamplePrograms.ALL) {
+            RecordingIO interpreted = new RecordingIO(SamplePrograms.INPUT);
+            new Interpreter(analyze(source), interpreted).run();
+            RecordingIO executed = new RecordingIO(SamplePrograms.INPUT);
+            new VirtualMachine(executed).run(new RegisterCompiler().compile(analyze(source)));
+
+            assertEquals(interpreted.output, executed.output, source);
+        }
+    }
+
+    @Test
+    public void resume_CheckpointsInShortSlices_SameOutputAsRun() throws Exception {
+        for (String source : SamplePrograms.ALL) {
+            RecordingIO run = new RecordingIO(SamplePrograms.INPUT);
+            new VirtualMachine(run).run(new RegisterCompiler().compile(analyze(source)));
+            RecordingIO sliced = new RecordingIO(SamplePrograms.INPUT);
+            VirtualMachine vm = new VirtualMachine(sliced);
+            vm.start(new RegisterCompiler(true).compile(analyze(source)), Budget.UNLIMITED);
+            while (!vm.resume(1)) {
+            }
+
+            assertEquals(run.output, sliced.output, source);
+        }
+    }
+
+    @Test
+    public void compile_WithCheckpoints_LoopAndFunctionCharged() throws Exception {
+        RegisterProgram program = new RegisterCompiler(true).compile(
+                analyze("go { func one() go { } ret 1 i> k = 0; whl (k == 10) == f do { k = k + one(); } }"));
+
+        String code = program.disassemble();
+        assertEquals(2, code.split("CHECK").length - 1, code);
+    }
+
+    @Test
+    public void compile_CountingLoop_FusedIncrementAndCompareBranch() throws Exception {
+        RegisterProgram program = new RegisterCompiler().compile(analyze("go { i> k = 0; whl (k == 1000) == f do { k = k + 1; } out(k); }"));
+
+        String code = program.disassemble();
+        assertTrue(code.contains("ADD_IMM 0 0 1\n"), code);
+        assertTrue(code.contains("JUMP_NE_IMM 0 1000 "), code);
+    }
+
+    @Test
+    public void run_DeepRecursion_StacksGrow() throws Exception {
+        RecordingIO io = new RecordingIO();
+        new VirtualMachine(io).run(new RegisterCompiler().compile(
+                analyze("go { func sum(i> n) go { i> s = 0; if (n == 0) == f do { s = n + sum(n - 1); } } ret s out(sum(10000)); }")));
+
+        assertEquals(List.of("50005000"), io.output);
+    }
+
+    @Test
+    public void run_GlobalAssignedByCallOnTheRight_ReadBeforeTheCall() throws Exception {
+        String source = "go { i> g = 1; func set() go { g = 10; } ret 0 out(g + set()); g = 1; out(g == set() + 10); }";
+        RecordingIO interpreted = new RecordingIO();
+        new Interpreter(analyze(source), interpreted).run();
+        RecordingIO executed = new RecordingIO();
+        new VirtualMachine(executed).run(new RegisterCompiler().compile(analyze(source)));
+
+        assertEquals(List.of("1", "f"), interpreted.output);
+        assertEquals(interpreted.output, executed.output);
+    }
+
+    @Test
+    public void run_HundredThousandLevelsDeep_NoStackOverflow() throws Exception {
+        RecordingIO io = new RecordingIO();
+        new VirtualMachine(io).run(new RegisterCompiler().compile(analyze(SamplePrograms.nested(100_000))));
+
+        assertEquals(List.of("100000", "1", "100001", "t"), io.output);
+    }
+
+    @Test
+    public void run_DivisionByZero_Throws() throws Exception {
+        RegisterProgram program = new RegisterCompiler().compile(analyze("go { i> a = 0; out(1 / a); }"));
+
+        assertThrows(ArithmeticException.class, () -> new VirtualMachine(new RecordingIO()).run(program));
+    }
+}